@@ -1,23 +1,87 @@
+import { useCallback, useEffect, useLayoutEffect, useRef, useState } from 'react'
+
 import type { SystemEvent } from '@/types/SystemEvent'
+import { visibleRange, type VisibleRange } from '@/utils/virtualList'
 import { EventCard } from '@/components/EventCard'
 
 interface EventListProps {
-  events: SystemEvent[]
-  newEventIds: Set<string>
+  events: readonly SystemEvent[]
+  isNew: (id: string) => boolean
   locale?: string
 }
 
-export function EventList({ events, newEventIds, locale }: EventListProps) {
-  if (events.length === 0) {
+// Cards rendered above and below the viewport
+const OVERSCAN = 5
+// Row pitch assumed until the rendered cards have been measured
+const ESTIMATED_ROW_HEIGHT = 140
+// Matches space-y-4 between the cards
+const ROW_GAP = 16
+
+// Only the cards near the viewport are rendered; spacers stand in for the rest so the page keeps its full height
+export function EventList({ events, isNew, locale }: EventListProps) {
+  const listRef = useRef<HTMLDivElement>(null)
+  const rowsRef = useRef<HTMLDivElement>(null)
+  const [rowHeight, setRowHeight] = useState(ESTIMATED_ROW_HEIGHT)
+  const [range, setRange] = useState<VisibleRange>({ end: 0, start: 0 })
+  const count = events.length
+
+  // Re-renders only when the rows to show change, not on every scroll event
+  const updateRange = useCallback(() => {
+    const list = listRef.current
+    if (!list) {
+      return
+    }
+    const next = visibleRange({
+      count,
+      overscan: OVERSCAN,
+      rowHeight,
+      scrollTop: -list.getBoundingClientRect().top,
+      viewportHeight: window.innerHeight,
+    })
+    setRange((current) => (current.start === next.start && current.end === next.end ? current : next))
+  }, [count, rowHeight])
+
+  useLayoutEffect(updateRange, [updateRange])
+
+  useEffect(() => {
+    window.addEventListener('scroll', updateRange, { passive: true })
+    window.addEventListener('resize', updateRange)
+    return () => {
+      window.removeEventListener('scroll', updateRange)
+      window.removeEventListener('resize', updateRange)
+    }
+  }, [updateRange])
+
+  const visible = events.slice(range.start, range.end)
+
+  // Cards vary in height with their text, so the pitch is the average of the rendered ones
+  useLayoutEffect(() => {
+    const rows = rowsRef.current
+    if (!rows || visible.length === 0) {
+      return
+    }
+    const measured = (rows.offsetHeight + ROW_GAP) / visible.length
+    if (Math.abs(measured - rowHeight) > 1) {
+      setRowHeight(measured)
+    }
+  })
+
+  if (count === 0) {
     return <div className="py-8 text-center text-gray-500">Loading events...</div>
   }
 
   // Events are already sorted by updatedAt in descending order (most recent first) in useEventSSE
   return (
-    <div className="event-list space-y-4">
-      {events.map((event) => (
-        <EventCard key={event.id} event={event} isNew={newEventIds.has(event.id)} locale={locale} />
-      ))}
+    <div
+      ref={listRef}
+      className="event-list"
+      style={{ paddingBottom: (count - range.start - visible.length) * rowHeight, paddingTop: range.start * rowHeight }}
+    >
+      <div ref={rowsRef} className="space-y-4">
+        {visible.map((event) => (
+          <EventCard key={event.id} event={event} isNew={isNew(event.id)} locale={locale} />
+        ))}
+      </div>
     </div>
   )
 }
@@ -2,14 +2,15 @@ import type { SystemEvent } from '@/types/SystemEvent'
 import { EventList } from '@/components/EventList'
 
 interface EventsSectionProps {
-  events: SystemEvent[]
-  newEventIds: Set<string>
+  events: readonly SystemEvent[]
+  // Counted as changes are applied, so thousands of events are not filtered on every render
+  activeCount: number
+  isNew: (id: string) => boolean
   locale?: string
 }
 
-export function EventsSection({ events, newEventIds, locale }: EventsSectionProps) {
-  const activeCount = events.filter((event) => event.active).length
-  const inactiveCount = events.filter((event) => !event.active).length
+export function EventsSection({ events, activeCount, isNew, locale }: EventsSectionProps) {
+  const inactiveCount = events.length - activeCount
 
   const renderInactiveCount = () => {
     if (inactiveCount === 0) {
@@ -28,7 +29,7 @@ export function EventsSection({ events, newEventIds, locale }: EventsSectionProp
       </div>
 
       <div className="p-6">
-        <EventList events={events} newEventIds={newEventIds} locale={locale} />
+        <EventList events={events} isNew={isNew} locale={locale} />
       </div>
     </div>
   )
@@ -1,42 +1,104 @@
-import { useEffect, useState } from 'react'
+import { useEffect, useRef } from 'react'
 
+import type { Reconnect } from '@/types/Reconnect'
+import type { SnapshotComplete } from '@/types/SnapshotComplete'
 import type { SseEvent } from '@/types/SseEvent'
 import type { SystemEvent } from '@/types/SystemEvent'
+import type { SystemEventDelta } from '@/types/SystemEventDelta'
+import { EventStore } from '@/utils/eventStore'
 import { logSSE } from '@/utils/logger'
-import { useGenericSSE } from '@/hooks/useGenericSSE'
+import { useGenericSSE, type SSEFormat } from '@/hooks/useGenericSSE'
 import { Operation } from '@/models/Operation'
 
+const apiUrl = import.meta.env.VITE_API_URL ?? 'http://localhost:8080'
+// Set VITE_SSE_FORMAT=cbor for the compact binary encoding
+const format: SSEFormat = import.meta.env.VITE_SSE_FORMAT === 'cbor' ? 'cbor' : 'json'
+
 export function useEventSSE() {
-  const [newEventIds, setNewEventIds] = useState<Set<string>>(new Set())
+  // Events of the chunked snapshot being received, keyed by ID; it replaces the state once complete.
+  // Handlers only add to it or read it (they may run twice), and the first chunk after a completed
+  // snapshot or a reconnect starts over
+  const snapshot = useRef({ events: new Map<string, SystemEvent>(), done: true })
+
+  // IDs of events whose delta did not apply because an earlier change was missed. Handlers run inside
+  // a state updater, so they only note the ID here and the effect below refetches once the frame commits
+  const gaps = useRef(new Set<string>())
+
+  // Handlers get the frame's copy of the store (see beginFrame below) and change it in place
+  const applyDelta = (delta: SystemEventDelta, store: EventStore) => {
+    const current = store.get(delta.id)
+    if (!current || current.version >= delta.version) {
+      return store // Unknown event or already applied
+    }
+    if (current.version !== delta.baseVersion) {
+      gaps.current.add(delta.id)
+      return store
+    }
+    const updated: SystemEvent & Partial<SystemEventDelta> = { ...current, ...delta }
+    delete updated.baseVersion
+    logSSE('UPDATE', current.name, delta.id)
+    store.upsert(updated)
+    return store
+  }
 
-  const handleEventChange = (sseEvent: unknown, currentEvents: SystemEvent[]) => {
-    const { operation, event: systemEvent } = sseEvent as SseEvent
+  const handleEventChange = (sseEvent: unknown, store: EventStore) => {
+    const { operation, event, delta } = sseEvent as SseEvent
+    if (delta) {
+      return applyDelta(delta, store)
+    }
+    const systemEvent = event as SystemEvent
 
     switch (operation) {
       case Operation.CREATE:
         logSSE(operation, systemEvent.name, systemEvent.id)
-        // Mark this event as new
-        setNewEventIds((prev) => new Set(prev).add(systemEvent.id))
-        return [systemEvent, ...currentEvents]
+        // Marked as new; a resumed stream can replay a CREATE the client already applied, which just replaces it
+        store.upsert(systemEvent, true)
+        return store
 
       case Operation.UPDATE:
         logSSE(operation, systemEvent.name, systemEvent.id)
-        return currentEvents.map((e) => (e.id === systemEvent.id ? systemEvent : e))
+        if (store.get(systemEvent.id)) {
+          store.upsert(systemEvent)
+        }
+        return store
 
       case Operation.DELETE:
         logSSE(operation, systemEvent.name, systemEvent.id)
         // Mark the event as inactive instead of removing it
-        return currentEvents.map((e) => (e.id === systemEvent.id ? { ...systemEvent, active: false } : e))
+        if (store.get(systemEvent.id)) {
+          store.upsert({ ...systemEvent, active: false })
+        }
+        return store
 
       default:
-        return currentEvents
+        return store
     }
   }
 
   const sseResult = useGenericSSE({
+    // One copy of the store per animation frame, however many changes the frame applies
+    beginFrame: (store) => store.edit(),
     eventHandlers: {
+      // Coalesced changes from one server flush window, applied in a single state update
+      'event-batch': (data: unknown, store: EventStore) =>
+        (data as SseEvent[]).reduce((current, sseEvent) => handleEventChange(sseEvent, current), store),
       'event-change': handleEventChange,
-      'initial-events': (data: unknown) => {
+      'initial-chunk': (data: unknown, store: EventStore) => {
+        if (snapshot.current.done) {
+          snapshot.current = { events: new Map(), done: false }
+        }
+        for (const event of data as SystemEvent[]) {
+          snapshot.current.events.set(event.id, event)
+        }
+        return store
+      },
+      'initial-complete': (data: unknown, store: EventStore) => {
+        const { events: total, sequence } = data as SnapshotComplete
+        snapshot.current.done = true
+        logSSE('INITIAL', `Received ${total} events in chunks, current to ${sequence}`, 'initial-load')
+        return store.withEvents(Array.from(snapshot.current.events.values()))
+      },
+      'initial-events': (data: unknown, store: EventStore) => {
         const events = data as SystemEvent[]
         const activeCount = events.filter((e) => e.active).length
         const inactiveCount = events.filter((e) => !e.active).length
@@ -45,41 +107,71 @@ export function useEventSSE() {
           `Received ${events.length} events (${activeCount} active, ${inactiveCount} inactive)`,
           'initial-load',
         )
-        return events
+        return store.withEvents(events)
+      },
+      // The retry: and id: fields of this frame already make the browser reconnect later and resume from it
+      reconnect: (data: unknown, store: EventStore) => {
+        const { retry, sequence } = data as Reconnect
+        const resume = sequence ? `resuming after ${sequence}` : 'for a fresh snapshot'
+        logSSE('CONNECT', `Server is shutting down, reconnecting in ${retry}ms ${resume}`, 'connection')
+        return store
       },
     },
-    initialData: [] as SystemEvent[],
-    onConnect: () => logSSE('CONNECT', 'SSE connection opened', 'connection'),
+    format,
+    initialData: EventStore.of(),
+    onConnect: () => {
+      snapshot.current.done = true // Drop chunks of a snapshot cut short by the reconnect
+      logSSE('CONNECT', 'SSE connection opened', 'connection')
+    },
     onError: (error) => {
       const errorMessage =
         error.type === 'error' ? 'Connection failed or server unavailable' : `Event error: ${error.type}`
       logSSE('ERROR', `SSE connection error: ${errorMessage}`, 'connection')
     },
-    url: import.meta.env.VITE_API_URL
-      ? `${import.meta.env.VITE_API_URL}/api/events/stream` // Docker dev: localhost:8080
-      : 'http://localhost:8080/api/events/stream', // Local dev: localhost:8080
+    url: `${apiUrl}/api/events/stream?batch=true&delta=true&chunked=true${format === 'cbor' ? '&format=CBOR' : ''}`, // Docker and local dev: localhost:8080
   })
 
-  // Sort events: active first (by latest updated), then inactive (by latest updated)
-  const sortedEvents = sseResult.data.sort((a, b) => {
-    // First, sort by active status (active events first)
-    if (a.active !== b.active) {
-      return a.active ? -1 : 1
+  // Already in display order: active first, then inactive, each by latest updated
+  const store = sseResult.data
+  const update = sseResult.update
+
+  // Refetches each event with a gap noted while handling the committed frames, once
+  useEffect(() => {
+    if (gaps.current.size === 0) {
+      return
     }
-    // Then sort by updatedAt (latest first)
-    return new Date(b.updatedAt).getTime() - new Date(a.updatedAt).getTime()
-  })
+    const ids = Array.from(gaps.current)
+    gaps.current.clear()
+    for (const id of ids) {
+      fetch(`${apiUrl}/api/events/${id}`)
+        .then((response) => (response.ok ? (response.json() as Promise<SystemEvent>) : null))
+        .then((fresh) => {
+          if (fresh) {
+            update((current) => {
+              const existing = current.get(fresh.id)
+              if (!existing || existing.version >= fresh.version) {
+                return current
+              }
+              const updated = current.edit()
+              updated.upsert(fresh)
+              return updated
+            })
+          }
+        })
+        .catch((err) => logSSE('ERROR', `Resync of ${id} failed: ${err}`, 'connection'))
+    }
+  }, [store, update])
 
   // Debug logging for event count changes
   useEffect(() => {
-    const activeCount = sortedEvents.filter((e) => e.active).length
-    const inactiveCount = sortedEvents.filter((e) => !e.active).length
-    logSSE('COUNT', `Total: ${sortedEvents.length} (${activeCount} active, ${inactiveCount} inactive)`, 'state')
-  }, [sortedEvents])
+    const inactiveCount = store.size - store.activeCount
+    logSSE('COUNT', `Total: ${store.size} (${store.activeCount} active, ${inactiveCount} inactive)`, 'state')
+  }, [store])
 
   return {
     ...sseResult,
-    data: sortedEvents,
-    newEventIds,
+    activeCount: store.activeCount,
+    data: store.events,
+    isNew: (id: string) => store.isNew(id),
   }
 }
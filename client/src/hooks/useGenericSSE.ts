@@ -1,9 +1,18 @@
 import { useEffect, useRef, useState } from 'react'
+import { flushSync } from 'react-dom'
+
+import { decodeCompact } from '@/utils/compactFormat'
+
+// Payload encoding the stream was opened with; CBOR must also be requested in the url (format=CBOR)
+export type SSEFormat = 'json' | 'cbor'
 
 interface SSEOptions<T> {
   url: string
+  format?: SSEFormat
   eventHandlers: Record<string, (data: unknown, currentData: T) => T>
   initialData: T
+  // Copies the state before a frame's messages are handled, so handlers can change the copy in place
+  beginFrame?: (currentData: T) => T
   onConnect?: () => void
   onError?: (error: Event) => void
   onDisconnect?: () => void
@@ -14,12 +23,16 @@ interface SSEState<T> {
   isConnected: boolean
   lastUpdate: string
   error: string | null
+  // Applies a state change from outside the stream, e.g. after a resync fetch
+  update: (updater: (currentData: T) => T) => void
 }
 
 export function useGenericSSE<T>({
   url,
+  format = 'json',
   eventHandlers,
   initialData,
+  beginFrame,
   onConnect,
   onError,
   onDisconnect,
@@ -28,23 +41,73 @@ export function useGenericSSE<T>({
   const [isConnected, setIsConnected] = useState(false)
   const [lastUpdate, setLastUpdate] = useState<string>('')
   const [error, setError] = useState<string | null>(null)
+  // Bumped to open a new EventSource once the browser has given up on the current one
+  const [attempt, setAttempt] = useState(0)
 
   // Use refs to avoid recreating the effect
   const handlersRef = useRef(eventHandlers)
+  const beginFrameRef = useRef(beginFrame)
   const onConnectRef = useRef(onConnect)
   const onErrorRef = useRef(onError)
   const onDisconnectRef = useRef(onDisconnect)
 
   // Update refs when props change
   handlersRef.current = eventHandlers
+  beginFrameRef.current = beginFrame
   onConnectRef.current = onConnect
   onErrorRef.current = onError
   onDisconnectRef.current = onDisconnect
 
   useEffect(() => {
     const eventSource = new EventSource(url)
+    const decode = format === 'cbor' ? decodeCompact : JSON.parse
+
+    // Messages received since the last flush; they are all handled in one state update per animation frame
+    let pending: { data: unknown; handler: (data: unknown, currentData: T) => T }[] = []
+    let frame: number | undefined
+    let timer: ReturnType<typeof setTimeout> | undefined
+
+    const flush = () => {
+      frame = undefined
+      timer = undefined
+      const messages = pending
+      pending = []
+      const begin = beginFrameRef.current
+      setData((currentData) => {
+        const start = begin ? begin(currentData) : currentData
+        return messages.reduce((data, message) => message.handler(message.data, data), start)
+      })
+      setLastUpdate(new Date().toLocaleTimeString())
+      setError(null)
+    }
+
+    const cancelFlush = () => {
+      if (frame !== undefined) {
+        cancelAnimationFrame(frame)
+      }
+      clearTimeout(timer)
+      frame = undefined
+      timer = undefined
+    }
+
+    const scheduleFlush = () => {
+      if (frame !== undefined || timer !== undefined) {
+        return
+      }
+      // Background tabs get no animation frames, so a timer keeps the backlog from growing there
+      if (document.hidden) {
+        timer = setTimeout(flush, 250)
+      } else {
+        frame = requestAnimationFrame(flush)
+      }
+    }
 
     eventSource.onopen = () => {
+      // Messages from before a reconnect are applied first, as onConnect may reset state their handlers use
+      if (pending.length > 0) {
+        cancelFlush()
+        flushSync(flush)
+      }
       setIsConnected(true)
       setError(null)
       onConnectRef.current?.()
@@ -55,10 +118,8 @@ export function useGenericSSE<T>({
       const handler = handlersRef.current[eventName]
       eventSource.addEventListener(eventName, (event) => {
         try {
-          const parsedData = JSON.parse(event.data)
-          setData((currentData) => handler(parsedData, currentData))
-          setLastUpdate(new Date().toLocaleTimeString())
-          setError(null)
+          pending.push({ data: decode(event.data), handler })
+          scheduleFlush()
         } catch (err) {
           console.error(`Error parsing ${eventName}:`, err)
           setError(`Failed to parse ${eventName}: ${err}`)
@@ -66,18 +127,27 @@ export function useGenericSSE<T>({
       })
     }
 
+    let retryTimer: ReturnType<typeof setTimeout> | undefined
     eventSource.onerror = (error) => {
       setIsConnected(false)
       setError('Connection error')
       onErrorRef.current?.(error)
+      // EventSource retries network errors itself but stops on an HTTP error such as the
+      // server's 503 when it is full, so reconnect after a jittered delay in that case
+      if (eventSource.readyState === EventSource.CLOSED) {
+        retryTimer = setTimeout(() => setAttempt((n) => n + 1), 5000 + Math.random() * 5000)
+      }
     }
 
     return () => {
+      // Whatever is still pending belongs to the closed stream; the next one starts with a snapshot
+      cancelFlush()
+      clearTimeout(retryTimer)
       eventSource.close()
       setIsConnected(false)
       onDisconnectRef.current?.()
     }
-  }, [url])
+  }, [url, format, attempt])
 
-  return { data, error, isConnected, lastUpdate }
+  return { data, error, isConnected, lastUpdate, update: setData }
 }
@@ -0,0 +1,5 @@
+// Last frame of a stream closed while its server drains for shutdown; the browser resumes after sequence itself
+export interface Reconnect {
+  sequence?: number
+  retry: number
+}
@@ -0,0 +1,6 @@
+// Ends a chunked snapshot; later frames only carry changes after sequence
+export interface SnapshotComplete {
+  sequence: number
+  events: number
+  chunks: number
+}
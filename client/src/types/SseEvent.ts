@@ -1,7 +1,11 @@
 import type { OperationType } from '@/types/Operation'
 import type { SystemEvent } from '@/types/SystemEvent'
+import type { SystemEventDelta } from '@/types/SystemEventDelta'
 
 export interface SseEvent {
   operation: OperationType
-  event: SystemEvent
+  // UPDATEs on a delta stream carry only the delta
+  event?: SystemEvent
+  delta?: SystemEventDelta
+  sequence: number
 }
@@ -9,4 +9,5 @@ export interface SystemEvent {
   updatedAt: string
   active: boolean
   count: number
+  version: number
 }
@@ -0,0 +1,14 @@
+import type { SeverityType } from '@/types/Severity'
+
+// Only the fields that changed between baseVersion and version are present
+export interface SystemEventDelta {
+  id: string
+  baseVersion: number
+  version: number
+  name?: string
+  description?: string
+  severity?: SeverityType
+  updatedAt?: string
+  active?: boolean
+  count?: number
+}
@@ -0,0 +1,54 @@
+import { describe, expect, it } from 'vitest'
+
+import { decodeCbor, decodeCompact } from '../compactFormat'
+
+// Encoded by the server's JacksonConfig.compactObjectMapper()
+const UPDATE_FRAME =
+  'v2lvcGVyYXRpb24BZWV2ZW50v2JpZFCSc65P/LZB66SOq8pV+d5dZG5hbWVoQ1BVIExvYWRrZGVzY3JpcHRpb254GFRyYWNraW5nIENQVSB1dGlsaXphdGlvbmhzZXZlcml0eQFpY3JlYXRlZEF0GwAAAY0M/FVAaXVwZGF0ZWRBdBsAAAGNDP4qe2ZhY3RpdmX1ZWNvdW50GCpndmVyc2lvbgP/aHNlcXVlbmNlB/8='
+const INITIAL_FRAME =
+  'gb9iaWRQknOuT/y2QeukjqvKVfneXWRuYW1laENQVSBMb2Fka2Rlc2NyaXB0aW9ueBhUcmFja2luZyBDUFUgdXRpbGl6YXRpb25oc2V2ZXJpdHkBaWNyZWF0ZWRBdBsAAAGNDPxVQGl1cGRhdGVkQXQbAAABjQz+KntmYWN0aXZl9WVjb3VudBgqZ3ZlcnNpb24D/w=='
+
+const event = {
+  active: true,
+  count: 42,
+  createdAt: '2024-01-15T11:58:00.000Z',
+  description: 'Tracking CPU utilization',
+  id: '9273ae4f-fcb6-41eb-a48e-abca55f9de5d',
+  name: 'CPU Load',
+  severity: 'WARNING',
+  updatedAt: '2024-01-15T12:00:00.123Z',
+  version: 3,
+}
+
+describe('compactFormat', () => {
+  describe('decodeCompact', () => {
+    it('should decode an event-change frame to the JSON shape', () => {
+      expect(decodeCompact(UPDATE_FRAME)).toEqual({ event, operation: 'UPDATE', sequence: 7 })
+    })
+
+    it('should decode an initial-events frame', () => {
+      expect(decodeCompact(INITIAL_FRAME)).toEqual([event])
+    })
+  })
+
+  describe('decodeCbor', () => {
+    it('should decode definite-length items', () => {
+      // {"a": [1, -2, "x"], "b": 1.5}
+      const bytes = new Uint8Array([0xa2, 0x61, 0x61, 0x83, 0x01, 0x21, 0x61, 0x78, 0x61, 0x62, 0xf9, 0x3e, 0x00])
+      expect(decodeCbor(bytes)).toEqual({ a: [1, -2, 'x'], b: 1.5 })
+    })
+
+    it('should decode large integers, doubles and null', () => {
+      // [4294967296, 0.1, null]
+      const bytes = new Uint8Array([
+        0x83, 0x1b, 0x00, 0x00, 0x00, 0x01, 0x00, 0x00, 0x00, 0x00, 0xfb, 0x3f, 0xb9, 0x99, 0x99, 0x99, 0x99, 0x99, 0x9a,
+        0xf6,
+      ])
+      expect(decodeCbor(bytes)).toEqual([4294967296, 0.1, null])
+    })
+
+    it('should reject unsupported items', () => {
+      expect(() => decodeCbor(new Uint8Array([0xfc]))).toThrow()
+    })
+  })
+})
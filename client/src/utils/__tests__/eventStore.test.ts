@@ -0,0 +1,127 @@
+import { describe, expect, it } from 'vitest'
+
+import type { SystemEvent } from '@/types/SystemEvent'
+
+import { EventStore } from '../eventStore'
+
+const event = (id: string, updatedAt: string, active = true): SystemEvent => ({
+  active,
+  count: 1,
+  createdAt: '2024-01-15T11:00:00Z',
+  description: `Event ${id}`,
+  id,
+  name: `Event ${id}`,
+  severity: 'INFO',
+  updatedAt,
+  version: 0,
+})
+
+const ids = (store: EventStore) => store.events.map((e) => e.id)
+
+describe('EventStore', () => {
+  describe('of', () => {
+    it('should order active events first, each latest updated first', () => {
+      const store = EventStore.of([
+        event('a', '2024-01-15T12:00:00Z'),
+        event('b', '2024-01-15T12:05:00Z', false),
+        event('c', '2024-01-15T12:10:00Z'),
+        event('d', '2024-01-15T12:01:00Z', false),
+      ])
+
+      expect(ids(store)).toEqual(['c', 'a', 'b', 'd'])
+      expect(store.activeCount).toBe(2)
+      expect(store.size).toBe(4)
+    })
+
+    it('should compare timestamps by time rather than text', () => {
+      const store = EventStore.of([event('a', '2024-01-15T12:00:00.4Z'), event('b', '2024-01-15T12:00:00.402Z')])
+
+      expect(ids(store)).toEqual(['b', 'a'])
+    })
+
+    it('should keep the last of duplicate IDs', () => {
+      const store = EventStore.of([event('a', '2024-01-15T12:00:00Z'), event('a', '2024-01-15T12:01:00Z')])
+
+      expect(store.size).toBe(1)
+      expect(store.get('a')?.updatedAt).toBe('2024-01-15T12:01:00Z')
+    })
+  })
+
+  describe('upsert', () => {
+    it('should move an updated event to its new place', () => {
+      const store = EventStore.of([
+        event('a', '2024-01-15T12:00:00Z'),
+        event('b', '2024-01-15T12:01:00Z'),
+        event('c', '2024-01-15T12:02:00Z'),
+      ]).edit()
+
+      store.upsert(event('a', '2024-01-15T12:03:00Z'))
+      expect(ids(store)).toEqual(['a', 'c', 'b'])
+
+      store.upsert(event('c', '2024-01-15T12:04:00Z', false))
+      expect(ids(store)).toEqual(['a', 'b', 'c'])
+      expect(store.activeCount).toBe(2)
+    })
+
+    it('should add new events and mark created ones', () => {
+      const store = EventStore.of([event('a', '2024-01-15T12:00:00Z')]).edit()
+
+      store.upsert(event('b', '2024-01-15T12:01:00Z'), true)
+
+      expect(ids(store)).toEqual(['b', 'a'])
+      expect(store.isNew('b')).toBe(true)
+      expect(store.isNew('a')).toBe(false)
+    })
+
+    it('should break timestamp ties by ID', () => {
+      const store = EventStore.of().edit()
+
+      store.upsert(event('b', '2024-01-15T12:00:00Z'))
+      store.upsert(event('a', '2024-01-15T12:00:00Z'))
+      store.upsert(event('c', '2024-01-15T12:00:00Z'))
+      store.upsert(event('b', '2024-01-15T12:00:00Z'))
+
+      expect(ids(store)).toEqual(['a', 'b', 'c'])
+    })
+
+    it('should match a full sort after many changes', () => {
+      const store = EventStore.of().edit()
+      for (let i = 0; i < 500; i++) {
+        const id = `e${(i * 7919) % 97}`
+        const minute = String((i * 31) % 60).padStart(2, '0')
+        store.upsert(event(id, `2024-01-15T12:${minute}:00Z`, i % 3 !== 0))
+      }
+
+      const expected = EventStore.of([...store.events].reverse())
+      expect(ids(store)).toEqual(ids(expected))
+      expect(store.activeCount).toBe(expected.activeCount)
+    })
+  })
+
+  describe('edit', () => {
+    it('should leave the original store unchanged', () => {
+      const original = EventStore.of([event('a', '2024-01-15T12:00:00Z')])
+      const copy = original.edit()
+
+      copy.upsert(event('b', '2024-01-15T12:01:00Z'), true)
+
+      expect(ids(original)).toEqual(['a'])
+      expect(original.isNew('b')).toBe(false)
+      expect(ids(copy)).toEqual(['b', 'a'])
+    })
+  })
+
+  describe('withEvents', () => {
+    it('should keep marking created events that are still present', () => {
+      const store = EventStore.of().edit()
+      store.upsert(event('a', '2024-01-15T12:00:00Z'), true)
+      store.upsert(event('b', '2024-01-15T12:01:00Z'), true)
+
+      const snapshot = store.withEvents([event('a', '2024-01-15T12:00:00Z'), event('c', '2024-01-15T12:02:00Z')])
+
+      expect(ids(snapshot)).toEqual(['c', 'a'])
+      expect(snapshot.isNew('a')).toBe(true)
+      expect(snapshot.isNew('c')).toBe(false)
+    })
+  })
+})
@@ -0,0 +1,31 @@
+import { describe, expect, it } from 'vitest'
+
+import { visibleRange } from '../virtualList'
+
+const metrics = { count: 1000, overscan: 2, rowHeight: 100, scrollTop: 0, viewportHeight: 500 }
+
+describe('visibleRange', () => {
+  it('should cover the viewport plus the overscan', () => {
+    expect(visibleRange({ ...metrics, scrollTop: 1050 })).toEqual({ end: 18, start: 8 })
+  })
+
+  it('should start at the first row while the list is below the viewport top', () => {
+    expect(visibleRange({ ...metrics, scrollTop: -200 })).toEqual({ end: 5, start: 0 })
+  })
+
+  it('should render nothing while the list is below the viewport', () => {
+    expect(visibleRange({ ...metrics, overscan: 0, scrollTop: -800 })).toEqual({ end: 0, start: 0 })
+  })
+
+  it('should stop at the last row', () => {
+    expect(visibleRange({ ...metrics, count: 12, scrollTop: 1050 })).toEqual({ end: 12, start: 8 })
+  })
+
+  it('should not run past a list scrolled out of view', () => {
+    expect(visibleRange({ ...metrics, count: 5, scrollTop: 5000 })).toEqual({ end: 5, start: 5 })
+  })
+
+  it('should handle an empty list', () => {
+    expect(visibleRange({ ...metrics, count: 0 })).toEqual({ end: 0, start: 0 })
+  })
+})
@@ -0,0 +1,179 @@
+import type { OperationType } from '@/types/Operation'
+import type { SeverityType } from '@/types/Severity'
+
+/**
+ * Decoder for the server's compact wire format (`format=CBOR`): each `data:`
+ * line is base64 CBOR with epoch-millis timestamps, enum ordinals and UUIDs as
+ * 16-byte strings. Decoded payloads are revived to the same shape as the JSON
+ * format, so event handlers do not care which one the stream uses.
+ */
+
+// Ordinals of the server's Severity and Operation enums, in declaration order
+const SEVERITIES: SeverityType[] = ['INFO', 'WARNING', 'CRITICAL']
+const OPERATIONS: OperationType[] = ['CREATE', 'UPDATE', 'DELETE']
+const TIMESTAMP_FIELDS = new Set(['createdAt', 'updatedAt'])
+
+const BREAK = Symbol('break')
+const textDecoder = new TextDecoder()
+
+export function decodeBase64(data: string): Uint8Array {
+  const binary = atob(data)
+  const bytes = new Uint8Array(binary.length)
+  for (let i = 0; i < binary.length; i++) {
+    bytes[i] = binary.charCodeAt(i)
+  }
+  return bytes
+}
+
+// Decodes the subset of CBOR (RFC 8949) that Jackson writes, including indefinite-length items
+export function decodeCbor(bytes: Uint8Array): unknown {
+  const view = new DataView(bytes.buffer, bytes.byteOffset, bytes.byteLength)
+  let offset = 0
+
+  const readLength = (info: number): number => {
+    if (info < 24) return info
+    switch (info) {
+      case 24:
+        return view.getUint8(offset++)
+      case 25:
+        offset += 2
+        return view.getUint16(offset - 2)
+      case 26:
+        offset += 4
+        return view.getUint32(offset - 4)
+      case 27:
+        offset += 8
+        return Number(view.getBigUint64(offset - 8))
+      default:
+        throw new Error(`Unsupported CBOR length encoding ${info}`)
+    }
+  }
+
+  const readHalf = (): number => {
+    const half = view.getUint16(offset)
+    offset += 2
+    const exponent = (half >> 10) & 0x1f
+    const fraction = half & 0x3ff
+    const sign = half & 0x8000 ? -1 : 1
+    if (exponent === 0) return sign * 2 ** -14 * (fraction / 1024)
+    if (exponent === 31) return fraction ? NaN : sign * Infinity
+    return sign * 2 ** (exponent - 15) * (1 + fraction / 1024)
+  }
+
+  const readItem = (): unknown => {
+    const initial = view.getUint8(offset++)
+    const major = initial >> 5
+    const info = initial & 0x1f
+
+    if (major === 7) {
+      switch (info) {
+        case 20:
+          return false
+        case 21:
+          return true
+        case 22:
+        case 23:
+          return null
+        case 25:
+          return readHalf()
+        case 26:
+          offset += 4
+          return view.getFloat32(offset - 4)
+        case 27:
+          offset += 8
+          return view.getFloat64(offset - 8)
+        case 31:
+          return BREAK
+        default:
+          throw new Error(`Unsupported CBOR simple value ${info}`)
+      }
+    }
+
+    const indefinite = info === 31
+    const length = indefinite ? -1 : readLength(info)
+    switch (major) {
+      case 0:
+        return length
+      case 1:
+        return -1 - length
+      case 2:
+      case 3: {
+        if (indefinite) {
+          // A sequence of definite-length chunks of the same type
+          const parts: unknown[] = []
+          for (let part = readItem(); part !== BREAK; part = readItem()) {
+            parts.push(part)
+          }
+          if (major === 3) return parts.join('')
+          const chunks = parts as Uint8Array[]
+          const joined = new Uint8Array(chunks.reduce((total, c) => total + c.length, 0))
+          let at = 0
+          for (const c of chunks) {
+            joined.set(c, at)
+            at += c.length
+          }
+          return joined
+        }
+        const chunk = bytes.subarray(offset, offset + length)
+        offset += length
+        return major === 2 ? chunk : textDecoder.decode(chunk)
+      }
+      case 4: {
+        const array: unknown[] = []
+        for (let i = 0; indefinite || i < length; i++) {
+          const item = readItem()
+          if (item === BREAK) break
+          array.push(item)
+        }
+        return array
+      }
+      case 5: {
+        const map: Record<string, unknown> = {}
+        for (let i = 0; indefinite || i < length; i++) {
+          const key = readItem()
+          if (key === BREAK) break
+          map[String(key)] = readItem()
+        }
+        return map
+      }
+      case 6:
+        return readItem() // Tags carry no meaning for these payloads
+      default:
+        throw new Error(`Unsupported CBOR major type ${major}`)
+    }
+  }
+
+  return readItem()
+}
+
+function formatUuid(bytes: Uint8Array): string {
+  const hex = Array.from(bytes, (b) => b.toString(16).padStart(2, '0')).join('')
+  return `${hex.slice(0, 8)}-${hex.slice(8, 12)}-${hex.slice(12, 16)}-${hex.slice(16, 20)}-${hex.slice(20)}`
+}
+
+// Restores the JSON representation of ordinals, timestamps and binary UUIDs
+function revive(value: unknown, key?: string): unknown {
+  if (value instanceof Uint8Array) {
+    return value.length === 16 ? formatUuid(value) : value
+  }
+  if (Array.isArray(value)) {
+    return value.map((item) => revive(item))
+  }
+  if (value !== null && typeof value === 'object') {
+    const revived: Record<string, unknown> = {}
+    for (const [field, fieldValue] of Object.entries(value)) {
+      revived[field] = revive(fieldValue, field)
+    }
+    return revived
+  }
+  if (typeof value === 'number') {
+    if (key === 'severity') return SEVERITIES[value]
+    if (key === 'operation') return OPERATIONS[value]
+    if (key && TIMESTAMP_FIELDS.has(key)) return new Date(value).toISOString()
+  }
+  return value
+}
+
+export function decodeCompact(data: string): unknown {
+  return revive(decodeCbor(decodeBase64(data)))
+}
@@ -0,0 +1,159 @@
+import type { SystemEvent } from '@/types/SystemEvent'
+
+// Events are spread over this many maps by ID, so a copy only duplicates the few maps its changes touch
+const SHARDS = 256
+
+interface Entry {
+  // Created while connected, as opposed to received in a snapshot
+  created: boolean
+  event: SystemEvent
+}
+
+/**
+ * Events by ID together with their display order: active events first, each
+ * most recently updated first. The order is maintained as changes arrive, with
+ * a binary search and a splice per change, instead of sorting every event on
+ * every render. A store given to React is never changed again: {@link edit}
+ * copies it, and a whole animation frame of changes is applied to the copy.
+ */
+export class EventStore {
+  private constructor(
+    private readonly shards: Map<string, Entry>[],
+    // Shards this store has copied for itself and may change in place
+    private readonly owned: boolean[],
+    // Display order, with each event's updatedAt in epoch millis at the same index
+    private readonly sorted: SystemEvent[],
+    private readonly times: number[],
+    private active: number,
+  ) {}
+
+  static of(events: SystemEvent[] = [], isNew: (id: string) => boolean = () => false): EventStore {
+    const shards = Array.from({ length: SHARDS }, () => new Map<string, Entry>())
+    for (const event of events) {
+      shards[shardOf(event.id)].set(event.id, { created: isNew(event.id), event })
+    }
+    const entries = shards.flatMap((shard) => Array.from(shard.values(), ({ event }) => ({ event, time: timeOf(event) })))
+    entries.sort((a, b) => compare(a.event, a.time, b.event, b.time))
+    return new EventStore(
+      shards,
+      new Array(SHARDS).fill(true),
+      entries.map((entry) => entry.event),
+      entries.map((entry) => entry.time),
+      entries.filter((entry) => entry.event.active).length,
+    )
+  }
+
+  // A copy to apply changes to in place; this store stays as it is
+  edit(): EventStore {
+    return new EventStore(
+      [...this.shards],
+      new Array(SHARDS).fill(false),
+      [...this.sorted],
+      [...this.times],
+      this.active,
+    )
+  }
+
+  // A store of the given events, e.g. a fresh snapshot, still marking those created earlier as new
+  withEvents(events: SystemEvent[]): EventStore {
+    return EventStore.of(events, (id) => this.isNew(id))
+  }
+
+  get(id: string): SystemEvent | undefined {
+    return this.shards[shardOf(id)].get(id)?.event
+  }
+
+  isNew(id: string): boolean {
+    return this.shards[shardOf(id)].get(id)?.created ?? false
+  }
+
+  // In display order
+  get events(): readonly SystemEvent[] {
+    return this.sorted
+  }
+
+  get size(): number {
+    return this.sorted.length
+  }
+
+  get activeCount(): number {
+    return this.active
+  }
+
+  /**
+   * Adds or replaces the event and moves it to its place in the order. Only
+   * for a store React has not seen yet: a copy from edit() or a new one.
+   */
+  upsert(event: SystemEvent, isNew = false): void {
+    const shard = this.writableShard(shardOf(event.id))
+    const previous = shard.get(event.id)
+    if (previous) {
+      const index = this.indexOf(previous.event)
+      this.sorted.splice(index, 1)
+      this.times.splice(index, 1)
+      if (previous.event.active) {
+        this.active--
+      }
+    }
+    const time = timeOf(event)
+    const index = this.insertionPoint(event, time)
+    this.sorted.splice(index, 0, event)
+    this.times.splice(index, 0, time)
+    shard.set(event.id, { created: isNew || (previous?.created ?? false), event })
+    if (event.active) {
+      this.active++
+    }
+  }
+
+  private writableShard(index: number): Map<string, Entry> {
+    if (!this.owned[index]) {
+      this.shards[index] = new Map(this.shards[index])
+      this.owned[index] = true
+    }
+    return this.shards[index]
+  }
+
+  private indexOf(event: SystemEvent): number {
+    const index = this.insertionPoint(event, timeOf(event))
+    return this.sorted[index]?.id === event.id ? index : this.sorted.findIndex((e) => e.id === event.id)
+  }
+
+  // First position whose event does not sort before the given one
+  private insertionPoint(event: SystemEvent, time: number): number {
+    let low = 0
+    let high = this.sorted.length
+    while (low < high) {
+      const mid = (low + high) >>> 1
+      if (compare(this.sorted[mid], this.times[mid], event, time) < 0) {
+        low = mid + 1
+      } else {
+        high = mid
+      }
+    }
+    return low
+  }
+}
+
+// FNV-1a over the ID's characters
+function shardOf(id: string): number {
+  let hash = 0x811c9dc5
+  for (let i = 0; i < id.length; i++) {
+    hash = Math.imul(hash ^ id.charCodeAt(i), 0x01000193)
+  }
+  return (hash >>> 0) % SHARDS
+}
+
+function timeOf(event: SystemEvent): number {
+  return Date.parse(event.updatedAt) || 0
+}
+
+// Active first, then latest updated first; IDs break ties so every event has exactly one place
+function compare(a: SystemEvent, aTime: number, b: SystemEvent, bTime: number): number {
+  if (a.active !== b.active) {
+    return a.active ? -1 : 1
+  }
+  if (aTime !== bTime) {
+    return bTime - aTime
+  }
+  return a.id < b.id ? -1 : a.id > b.id ? 1 : 0
+}
@@ -0,0 +1,31 @@
+export interface VisibleRange {
+  // Index of the first row to render
+  start: number
+  // Index after the last row to render
+  end: number
+}
+
+interface ViewportMetrics {
+  // Rows in the list
+  count: number
+  // Rows rendered beyond each edge of the viewport, so fast scrolling does not show blank space
+  overscan: number
+  // Height of one row including the gap after it
+  rowHeight: number
+  // How far the viewport top is below the list top; negative while the list starts further down
+  scrollTop: number
+  viewportHeight: number
+}
+
+// The rows of a list of evenly spaced rows that intersect the viewport, plus the overscan
+export function visibleRange({ count, overscan, rowHeight, scrollTop, viewportHeight }: ViewportMetrics): VisibleRange {
+  if (count === 0 || rowHeight <= 0) {
+    return { end: 0, start: 0 }
+  }
+  const first = Math.floor(Math.max(0, scrollTop) / rowHeight)
+  const last = Math.ceil(Math.max(0, scrollTop + viewportHeight) / rowHeight)
+  return {
+    end: Math.min(count, last + overscan),
+    start: Math.min(count, Math.max(0, first - overscan)),
+  }
+}
@@ -0,0 +1,33 @@
+package com.example.sse.benchmark;
+
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Emitter that discards what it is sent, so fan-out is measured without a
+ * servlet container or network underneath.
+ */
+class BlackholeEmitter extends SseEmitter {
+
+    private final LongAdder bytes;
+
+    BlackholeEmitter(LongAdder bytes) {
+        super(Long.MAX_VALUE);
+        this.bytes = bytes;
+    }
+
+    @Override
+    public void send(Set<DataWithMediaType> items) {
+        for (DataWithMediaType item : items) {
+            if (item.getData() instanceof byte[] data) {
+                bytes.add(data.length);
+            }
+        }
+    }
+
+    @Override
+    public void complete() {
+    }
+}
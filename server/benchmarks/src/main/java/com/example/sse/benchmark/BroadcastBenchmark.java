@@ -0,0 +1,94 @@
+package com.example.sse.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.sse.bus.EventBus;
+import com.example.sse.bus.LocalEventBus;
+import com.example.sse.config.SseProperties;
+import com.example.sse.metrics.SseMetrics;
+import com.example.sse.model.sse.Operation;
+import com.example.sse.model.sse.SseEvent;
+import com.example.sse.service.EventSchedulerService;
+import com.example.sse.service.EventSnapshotService;
+import com.example.sse.service.EventStatsService;
+import com.example.sse.service.impl.EventServiceImpl;
+import com.example.sse.stream.SseFrameEncoder;
+import com.example.sse.stream.SseSubscriber;
+import com.example.sse.stream.StreamOptions;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * One change published on the bus and fanned out to every connection's queue:
+ * serialization, replay buffer append and the offers. The writer pool drains
+ * the queues into {@link BlackholeEmitter}s meanwhile, as it would in production.
+ * {@code shards} is the registry shard count, 0 for one per available processor;
+ * compare it against 1 to see how the fan-out scales with cores.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BroadcastBenchmark {
+
+    @Param({"100", "1000", "10000", "50000"})
+    int emitters;
+
+    @Param({"1", "0"})
+    int shards;
+
+    private final LongAdder bytesWritten = new LongAdder();
+    private EventSchedulerService scheduler;
+    private EventBus eventBus;
+    private SseEvent change;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        ObjectMapper objectMapper = Fixtures.objectMapper();
+        EventServiceImpl eventService = Fixtures.store(10);
+        eventBus = new LocalEventBus();
+        SseMetrics metrics = Fixtures.metrics();
+        SseProperties properties = new SseProperties();
+        properties.getConnection().setMaxConnections(0);
+        properties.getFanout().setShards(shards);
+        scheduler = new EventSchedulerService(eventService, eventBus,
+            new EventSnapshotService(eventService, objectMapper, metrics),
+            new EventStatsService(eventService, properties), new SseFrameEncoder(objectMapper, metrics),
+            metrics, properties);
+        for (int i = 0; i < emitters; i++) {
+            SseSubscriber subscriber = scheduler.createSubscriber("bench-" + i, new BlackholeEmitter(bytesWritten),
+                null, StreamOptions.DEFAULT);
+            subscriber.start(scheduler.subscribe(subscriber, null, false));
+        }
+        change = SseEvent.builder()
+            .operation(Operation.UPDATE)
+            .event(eventService.getActiveEvents().get(0))
+            .build();
+    }
+
+    @Benchmark
+    public void broadcast() {
+        eventBus.publish(change);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        scheduler.stopScheduler();
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.sse.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.sse.model.SystemEvent;
+import com.example.sse.service.impl.EventServiceImpl;
+
+/**
+ * One cleanup sweep that removes a tenth of the store. Events only expire
+ * five seconds after going inactive, so each iteration's setup waits that out;
+ * this is a single-shot benchmark for that reason.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CleanupBenchmark {
+
+    private static final long EXPIRY_WAIT_MILLIS = 5_100;
+
+    @Param({"10", "1000", "100000", "1000000"})
+    int storeSize;
+
+    private EventServiceImpl store;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws InterruptedException {
+        store = Fixtures.store(storeSize);
+        List<SystemEvent> active = store.getActiveEvents();
+        for (int i = 0; i < active.size(); i += 10) {
+            store.updateEvent(active.get(i).toBuilder().active(false).build());
+        }
+        Thread.sleep(EXPIRY_WAIT_MILLIS);
+    }
+
+    @Benchmark
+    public void cleanupInactiveEvents() {
+        store.cleanupInactiveEvents();
+    }
+}
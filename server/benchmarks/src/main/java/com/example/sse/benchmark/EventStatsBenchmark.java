@@ -0,0 +1,65 @@
+package com.example.sse.benchmark;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.sse.model.EventStats;
+import com.example.sse.model.Severity;
+import com.example.sse.stats.EventStatsTracker;
+
+/**
+ * Recording a change into the rolling stats, and reading one event's
+ * aggregates, by number of tracked events at the default ring sizes. The GC
+ * profiler should show no allocation for {@code record}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class EventStatsBenchmark {
+
+    private static final Severity[] SEVERITIES = Severity.values();
+
+    @Param({"1000", "100000", "1000000"})
+    int trackedEvents;
+
+    private EventStatsTracker tracker;
+    private UUID[] ids;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        tracker = new EventStatsTracker(trackedEvents, 60, 15, System.currentTimeMillis());
+        ids = new UUID[trackedEvents];
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < trackedEvents; i++) {
+            ids[i] = UUID.randomUUID();
+            tracker.record(ids[i], 0, Severity.INFO, now);
+        }
+    }
+
+    @Benchmark
+    public void record() {
+        int i = next++;
+        tracker.record(ids[Math.floorMod(i * 7919, ids.length)], i, SEVERITIES[i & 1], System.currentTimeMillis());
+    }
+
+    @Benchmark
+    public EventStats stats() {
+        return tracker.stats(ids[Math.floorMod(next++ * 7919, ids.length)], 300, true, System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.sse.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.sse.model.sse.SseEvent;
+import com.example.sse.service.impl.EventServiceImpl;
+
+/**
+ * Store operations on the scheduler tick by store size. The store is rebuilt
+ * before every iteration; CREATEs grow it during the iteration, so the size is
+ * the one each iteration starts from. Cleanup here is the usual tick where
+ * nothing has expired yet; see {@link CleanupBenchmark} for an actual sweep.
+ * The contended variant has several writers share one store, as the workload
+ * generator and write API do, to show what they wait on each other for.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class EventStoreBenchmark {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    int storeSize;
+
+    private EventServiceImpl store;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        store = Fixtures.store(storeSize);
+    }
+
+    @Benchmark
+    public SseEvent updateRandomEvent() {
+        return store.updateRandomEvent();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public SseEvent updateRandomEventContended() {
+        return store.updateRandomEvent();
+    }
+
+    @Benchmark
+    public void cleanupInactiveEventsIdle() {
+        store.cleanupInactiveEvents();
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.sse.benchmark;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import com.example.sse.config.JacksonConfig;
+import com.example.sse.journal.NoOpEventJournal;
+import com.example.sse.metrics.SseMetrics;
+import com.example.sse.model.Severity;
+import com.example.sse.model.SystemEvent;
+import com.example.sse.service.impl.EventServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Shared setup: the application's ObjectMapper and stores of a given size,
+ * built without a Spring context.
+ */
+final class Fixtures {
+
+    private static final String[] NAMES = {
+        "Database Connection", "API Response Time", "Memory Usage", "CPU Load", "Disk Space", "Network Latency"
+    };
+    private static final Severity[] SEVERITIES = Severity.values();
+
+    private Fixtures() {
+    }
+
+    static ObjectMapper objectMapper() {
+        return new JacksonConfig().objectMapper();
+    }
+
+    // Real meters, so recording costs are part of the measurement
+    static SseMetrics metrics() {
+        return new SseMetrics(new SimpleMeterRegistry());
+    }
+
+    static SystemEvent event(int i) {
+        Instant now = Instant.now();
+        return SystemEvent.builder()
+            .id(UUID.randomUUID())
+            .name(NAMES[i % NAMES.length])
+            .description("Benchmark event " + i)
+            .severity(SEVERITIES[i % SEVERITIES.length])
+            .createdAt(now)
+            .updatedAt(now)
+            .active(true)
+            .count(i)
+            .version(1)
+            .build();
+    }
+
+    static List<SystemEvent> events(int count) {
+        List<SystemEvent> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            events.add(event(i));
+        }
+        return events;
+    }
+
+    // In-memory store holding exactly size events
+    static EventServiceImpl store(int size) {
+        EventServiceImpl store = new EventServiceImpl(new NoOpEventJournal());
+        for (int i = 0; i < size; i++) {
+            store.createEvent(event(i));
+        }
+        return store;
+    }
+}
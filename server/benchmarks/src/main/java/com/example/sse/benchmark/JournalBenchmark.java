@@ -0,0 +1,132 @@
+package com.example.sse.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.sse.config.SseProperties;
+import com.example.sse.journal.MappedEventJournal;
+import com.example.sse.model.SystemEvent;
+
+/**
+ * The event journal: append throughput on the store's hot path (group commit
+ * and snapshots running in the background as configured in production), and
+ * startup recovery from a journal of a given length, replayed record by record
+ * or loaded from a snapshot.
+ */
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class JournalBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Appending {
+
+        private Path directory;
+        private MappedEventJournal journal;
+        private SystemEvent event;
+        private long version;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            directory = Files.createTempDirectory("journal-append");
+            journal = new MappedEventJournal(properties(directory));
+            journal.recover();
+            // Snapshots are empty, but still let compaction drop the filled segments
+            journal.start(List::of);
+            event = Fixtures.event(1);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception {
+            journal.close();
+            delete(directory);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Recovering {
+
+        @Param({"10000", "1000000"})
+        int records;
+
+        @Param({"replay", "snapshot"})
+        String source;
+
+        private Path directory;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            directory = Files.createTempDirectory("journal-recover");
+            MappedEventJournal journal = new MappedEventJournal(properties(directory));
+            journal.recover();
+            List<SystemEvent> events = Fixtures.events(Math.min(records, 10_000));
+            for (int i = 0; i < records; i++) {
+                SystemEvent event = events.get(i % events.size());
+                event = event.toBuilder().version(event.getVersion() + 1).build();
+                events.set(i % events.size(), event);
+                journal.applied(journal.append(event));
+            }
+            if (source.equals("snapshot")) {
+                // close() snapshots whatever start() was handed
+                journal.start(() -> events);
+            }
+            journal.close();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            delete(directory);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    public void append(Appending state) {
+        state.event = state.event.toBuilder().version(++state.version).build();
+        state.journal.applied(state.journal.append(state.event));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public Collection<SystemEvent> recover(Recovering state) {
+        return new MappedEventJournal(properties(state.directory)).recover();
+    }
+
+    private static SseProperties properties(Path directory) {
+        SseProperties properties = new SseProperties();
+        properties.getJournal().setEnabled(true);
+        properties.getJournal().setDirectory(directory.toString());
+        properties.getJournal().setSnapshotInterval(Duration.ofSeconds(1));
+        return properties;
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+        }
+    }
+}
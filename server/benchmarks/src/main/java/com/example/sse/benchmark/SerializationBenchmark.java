@@ -0,0 +1,89 @@
+package com.example.sse.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.sse.model.SystemEvent;
+import com.example.sse.model.sse.Operation;
+import com.example.sse.model.sse.SseEvent;
+import com.example.sse.model.sse.SystemEventDelta;
+import com.example.sse.stream.SseFrame;
+import com.example.sse.stream.SseFrameEncoder;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Jackson serialization through the application's mapper (JacksonConfig):
+ * a single change in its full and delta forms, the framed event-change, and
+ * the initial-events list at several store sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private SseFrameEncoder frameEncoder;
+    private SseEvent change;
+    private SseEvent deltaChange;
+
+    @State(Scope.Benchmark)
+    public static class InitialEvents {
+
+        @Param({"10", "1000", "100000"})
+        int events;
+
+        List<SystemEvent> list;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            list = Fixtures.events(events);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = Fixtures.objectMapper();
+        frameEncoder = new SseFrameEncoder(objectMapper, Fixtures.metrics());
+        SystemEvent before = Fixtures.event(1);
+        SystemEvent after = before.toBuilder().count(before.getCount() + 7).version(2).build();
+        change = SseEvent.builder().operation(Operation.UPDATE).event(after).sequence(1).build();
+        deltaChange = change.toBuilder().delta(SystemEventDelta.between(before, after)).build().deltaOnly();
+    }
+
+    @Benchmark
+    public byte[] sseEvent() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(change);
+    }
+
+    @Benchmark
+    public byte[] sseEventDelta() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(deltaChange);
+    }
+
+    @Benchmark
+    public SseFrame eventChangeFrame() throws JsonProcessingException {
+        return frameEncoder.encode("event-change", change.getSequence(), change, change.getEvent().getId());
+    }
+
+    @Benchmark
+    public byte[] initialEvents(InitialEvents initial) throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(initial.list);
+    }
+}
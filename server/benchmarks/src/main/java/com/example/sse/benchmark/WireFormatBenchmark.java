@@ -0,0 +1,91 @@
+package com.example.sse.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.sse.config.JacksonConfig;
+import com.example.sse.model.SystemEvent;
+import com.example.sse.model.sse.Operation;
+import com.example.sse.model.sse.SseEvent;
+import com.example.sse.stream.SseFrame;
+import com.example.sse.stream.SseFrameEncoder;
+import com.example.sse.stream.WireFormat;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * JSON against the compact CBOR format: encoding an event-change frame and a
+ * 1000-event initial-events frame, and decoding the data line back the way a
+ * client does (base64 first for CBOR). Encoded sizes are printed during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    @Param({"JSON", "CBOR"})
+    WireFormat format;
+
+    private SseFrameEncoder frameEncoder;
+    private ObjectMapper reader;
+    private SseEvent change;
+    private List<SystemEvent> initial;
+    private String changeData;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        ObjectMapper objectMapper = Fixtures.objectMapper();
+        frameEncoder = new SseFrameEncoder(objectMapper, Fixtures.metrics());
+        reader = format == WireFormat.CBOR ? JacksonConfig.compactObjectMapper() : objectMapper;
+        change = SseEvent.builder().operation(Operation.UPDATE).event(Fixtures.event(1)).sequence(1).build();
+        initial = Fixtures.events(1000);
+
+        SseFrame changeFrame = encodeChange();
+        SseFrame initialFrame = encodeInitial();
+        changeData = data(changeFrame);
+        System.out.printf("%n%s frame sizes: event-change %d bytes, initial-events (1000 events) %d bytes%n",
+            format, changeFrame.size(), initialFrame.size());
+    }
+
+    @Benchmark
+    public SseFrame encodeChange() throws Exception {
+        return frameEncoder.encode(format, "event-change", change.getSequence(), change, change.getEvent().getId());
+    }
+
+    @Benchmark
+    public SseFrame encodeInitial() throws Exception {
+        return frameEncoder.encode(format, "initial-events", 1L, initial, null);
+    }
+
+    @Benchmark
+    public JsonNode decodeChange() throws Exception {
+        return format == WireFormat.CBOR
+            ? reader.readTree(Base64.getDecoder().decode(changeData))
+            : reader.readTree(changeData);
+    }
+
+    // The data line of a single-line frame, as an EventSource hands it to the client
+    private static String data(SseFrame frame) {
+        String text = new String((byte[]) frame.getPayload().iterator().next().getData(), StandardCharsets.UTF_8);
+        int start = text.indexOf("data:") + "data:".length();
+        return text.substring(start, text.indexOf('\n', start));
+    }
+}
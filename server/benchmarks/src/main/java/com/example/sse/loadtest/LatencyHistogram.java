@@ -0,0 +1,68 @@
+package com.example.sse.loadtest;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of non-negative values (microseconds here). Values
+ * below 128 are exact; above that each power of two is split into 64 buckets,
+ * so percentiles are within about 1.5% of the recorded values.
+ */
+final class LatencyHistogram {
+
+    private static final int EXACT = 128;
+    private static final int SUB_BUCKETS = 64;
+
+    private final AtomicLongArray counts = new AtomicLongArray(EXACT + 57 * SUB_BUCKETS);
+
+    void record(long value) {
+        counts.incrementAndGet(index(Math.max(0, value)));
+    }
+
+    long count() {
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * @param quantile between 0 and 1, e.g. 0.999 for p999
+     * @return the value at the quantile, or 0 when nothing was recorded
+     */
+    long percentile(double quantile) {
+        long total = count();
+        if (total == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return valueAt(i);
+            }
+        }
+        return valueAt(counts.length() - 1);
+    }
+
+    private static int index(long value) {
+        if (value < EXACT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - 6;
+        return EXACT + (exponent - 7) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    // Midpoint of the bucket
+    private static long valueAt(int index) {
+        if (index < EXACT) {
+            return index;
+        }
+        int bucket = index - EXACT;
+        int shift = bucket / SUB_BUCKETS + 1;
+        long mantissa = bucket % SUB_BUCKETS + SUB_BUCKETS;
+        return (mantissa << shift) + (1L << shift) / 2;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.sse.loadtest;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters shared by every client in one measurement window.
+ */
+final class LoadStats {
+
+    final LatencyHistogram latency = new LatencyHistogram();
+    final LatencyHistogram slowLatency = new LatencyHistogram();
+    final LatencyHistogram timeToFirstFrame = new LatencyHistogram();
+    final LongAdder frames = new LongAdder();
+    final LongAdder missed = new LongAdder();
+    final LongAdder connectFailures = new LongAdder();
+    final LongAdder disconnects = new LongAdder();
+}
@@ -0,0 +1,273 @@
+package com.example.sse.loadtest;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.sse.SseServerApplication;
+import com.example.sse.service.WorkloadGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * End-to-end load test: starts the server in this JVM (or targets {@code --url}),
+ * opens a swarm of streaming connections with the JDK HttpClient and drives
+ * changes at a set rate, then reports delivery latency percentiles, connect
+ * rate and delivered frames. Needs nothing but this box; raise
+ * {@code ulimit -n} for more than a few thousand connections.
+ * <pre>
+ * java -cp target/benchmarks.jar com.example.sse.loadtest.LoadTest \
+ *     --scenario=steady --connections=2000 --rate=200 --duration=30
+ * </pre>
+ * Scenarios:
+ * <ul>
+ * <li>{@code steady}: fixed change rate for the duration</li>
+ * <li>{@code slow-reader}: as steady, but {@code --slow-fraction} of clients
+ *     read one frame per {@code --slow-delay} ms; fast and slow latency are
+ *     reported separately</li>
+ * <li>{@code reconnect-storm}: every client drops and reconnects with
+ *     Last-Event-ID halfway through</li>
+ * <li>{@code ceiling}: doubles the change rate every {@code --duration}
+ *     seconds until p99 exceeds {@code --max-p99} ms or under 95% of the
+ *     expected frames arrive</li>
+ * </ul>
+ * Changes come from the server's own {@link WorkloadGenerator}, whose rate
+ * the test sets; other {@code --sse.*} options are passed to the in-process
+ * server (e.g. {@code --sse.workload.target-store-size=10000}). With
+ * {@code --url} the remote server's configured workload is all there is.
+ */
+public final class LoadTest {
+
+    private final Map<String, String> options;
+    private final AtomicReference<LoadStats> window = new AtomicReference<>(new LoadStats());
+    private final List<SseClient> clients = new ArrayList<>();
+    private HttpClient http;
+    private URI uri;
+    private WorkloadGenerator workload;
+
+    private LoadTest(Map<String, String> options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] pair = arg.replaceFirst("^--", "").split("=", 2);
+            options.put(pair[0], pair.length > 1 ? pair[1] : "true");
+        }
+        new LoadTest(options).run();
+    }
+
+    private void run() throws Exception {
+        String scenario = option("scenario", "steady");
+        ConfigurableApplicationContext server = null;
+        String url = options.get("url");
+        if (url == null) {
+            List<String> properties = new ArrayList<>(List.of("server.port=0", "server.tomcat.max-connections=-1",
+                "spring.main.banner-mode=off", "sse.connection.max-connections=0", "sse.workload.rate=0"));
+            options.forEach((name, value) -> {
+                if (name.startsWith("sse.")) {
+                    properties.add(name + "=" + value);
+                }
+            });
+            server = new SpringApplicationBuilder(SseServerApplication.class)
+                .properties(properties.toArray(String[]::new))
+                .run();
+            int port = ((WebServerApplicationContext) server).getWebServer().getPort();
+            url = "http://localhost:" + port + "/api/events/stream";
+            workload = server.getBean(WorkloadGenerator.class);
+        }
+        String query = options.get("query");
+        uri = URI.create(query != null ? url + "?" + query : url);
+
+        ExecutorService httpExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        ScheduledExecutorService pacer = Executors.newSingleThreadScheduledExecutor();
+        http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .executor(httpExecutor)
+            .build();
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("scenario", scenario);
+        report.put("options", options);
+        try {
+            int connections = intOption("connections", 1000);
+            int slowClients = scenario.equals("slow-reader")
+                ? (int) (connections * doubleOption("slow-fraction", 0.1)) : 0;
+            for (int i = 0; i < connections; i++) {
+                clients.add(new SseClient(window, i < slowClients, intOption("slow-delay", 100), pacer));
+            }
+            report.put("connect", connectAll());
+
+            switch (scenario) {
+                case "steady", "slow-reader" -> report.put("measurement", measure(doubleOption("rate", 100)));
+                case "reconnect-storm" -> reconnectStorm(report);
+                case "ceiling" -> report.put("steps", ceiling());
+                default -> throw new IllegalArgumentException("Unknown scenario " + scenario);
+            }
+        } finally {
+            clients.forEach(SseClient::close);
+            pacer.shutdownNow();
+            httpExecutor.shutdownNow();
+            if (server != null) {
+                server.close();
+            }
+        }
+        writeReport(scenario, report);
+    }
+
+    // Opens every connection at once and waits for each to receive its first frame
+    private Map<String, Object> connectAll() throws InterruptedException {
+        window.set(new LoadStats());
+        long started = System.nanoTime();
+        clients.forEach(client -> client.connect(http, uri));
+        long connected = awaitConnected(Duration.ofSeconds(intOption("connect-timeout", 60)));
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        LoadStats stats = window.get();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("connected", connected);
+        result.put("failures", stats.connectFailures.sum());
+        result.put("seconds", round(seconds));
+        result.put("connectsPerSecond", round(connected / seconds));
+        result.put("timeToFirstFrameMs", percentiles(stats.timeToFirstFrame));
+        System.out.printf("Connected %d/%d clients in %.2fs (%.0f/s), time to first frame p50 %.1f ms, p99 %.1f ms%n",
+            connected, clients.size(), seconds, connected / seconds,
+            stats.timeToFirstFrame.percentile(0.5) / 1000.0, stats.timeToFirstFrame.percentile(0.99) / 1000.0);
+        return result;
+    }
+
+    private long awaitConnected(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        long connected;
+        while ((connected = clients.stream().filter(SseClient::isConnected).count()) < clients.size()
+                && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        return connected;
+    }
+
+    // One window at the given change rate
+    private Map<String, Object> measure(double rate) throws InterruptedException {
+        LoadStats stats = new LoadStats();
+        window.set(stats);
+        long publishedBefore = workload != null ? workload.getPublished() : 0;
+        setRate(rate);
+        long started = System.nanoTime();
+        Thread.sleep(TimeUnit.SECONDS.toMillis(intOption("duration", 30)));
+        long published = workload != null ? workload.getPublished() - publishedBefore : 0;
+        setRate(0);
+        double seconds = (System.nanoTime() - started) / 1e9;
+        // Let frames still queued on the server arrive before reading the counters
+        Thread.sleep(1000);
+
+        long frames = stats.frames.sum();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("targetRate", rate);
+        result.put("publishedPerSecond", round(published / seconds));
+        result.put("framesPerSecond", round(frames / seconds));
+        result.put("deliveryRatio", published > 0 ? round((double) frames / (published * clients.size())) : null);
+        result.put("missed", stats.missed.sum());
+        result.put("disconnects", stats.disconnects.sum());
+        result.put("latencyMs", percentiles(stats.latency));
+        if (stats.slowLatency.count() > 0) {
+            result.put("slowReaderLatencyMs", percentiles(stats.slowLatency));
+        }
+        System.out.printf("rate %.0f/s: published %.0f/s, delivered %.0f frames/s, latency p50 %.2f ms p99 %.2f ms"
+                + " p999 %.2f ms, missed %d%n",
+            rate, published / seconds, frames / seconds, stats.latency.percentile(0.5) / 1000.0,
+            stats.latency.percentile(0.99) / 1000.0, stats.latency.percentile(0.999) / 1000.0, stats.missed.sum());
+        if (stats.slowLatency.count() > 0) {
+            System.out.printf("slow readers: latency p50 %.2f ms p99 %.2f ms%n",
+                stats.slowLatency.percentile(0.5) / 1000.0, stats.slowLatency.percentile(0.99) / 1000.0);
+        }
+        return result;
+    }
+
+    private void reconnectStorm(Map<String, Object> report) throws InterruptedException {
+        int duration = intOption("duration", 30);
+        options.put("duration", Integer.toString(Math.max(1, duration / 2)));
+        report.put("before", measure(doubleOption("rate", 100)));
+
+        setRate(doubleOption("rate", 100));
+        clients.forEach(SseClient::close);
+        report.put("reconnect", connectAll());
+        report.put("after", measure(doubleOption("rate", 100)));
+    }
+
+    private List<Map<String, Object>> ceiling() throws InterruptedException {
+        double maxP99Micros = doubleOption("max-p99", 1000) * 1000;
+        double maxRate = doubleOption("max-rate", 1_000_000);
+        List<Map<String, Object>> steps = new ArrayList<>();
+        for (double rate = doubleOption("rate", 100); rate <= maxRate; rate *= 2) {
+            Map<String, Object> step = measure(rate);
+            steps.add(step);
+            Object ratio = step.get("deliveryRatio");
+            @SuppressWarnings("unchecked")
+            long p99 = ((Map<String, Number>) step.get("latencyMs")).get("p99").longValue();
+            if (p99 * 1000 > maxP99Micros || ratio instanceof Double r && r < 0.95) {
+                System.out.printf("Ceiling reached at %.0f changes/s%n", rate);
+                break;
+            }
+        }
+        return steps;
+    }
+
+    private void setRate(double rate) {
+        if (workload != null) {
+            workload.setRate(rate);
+        }
+    }
+
+    private static Map<String, Object> percentiles(LatencyHistogram histogram) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("count", histogram.count());
+        result.put("p50", round(histogram.percentile(0.5) / 1000.0));
+        result.put("p99", round(histogram.percentile(0.99) / 1000.0));
+        result.put("p999", round(histogram.percentile(0.999) / 1000.0));
+        return result;
+    }
+
+    private void writeReport(String scenario, Map<String, Object> report) throws Exception {
+        File results = new File("results");
+        results.mkdirs();
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        File file = new File(results, "loadtest-" + scenario + "-" + timestamp + ".json");
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, report);
+        System.out.println("Load test report saved to " + file);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    private String option(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    private int intOption(String name, int defaultValue) {
+        return Integer.parseInt(option(name, Integer.toString(defaultValue)));
+    }
+
+    private double doubleOption(String name, double defaultValue) {
+        return Double.parseDouble(option(name, Double.toString(defaultValue)));
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.sse.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * One streaming connection, parsed line by line without blocking a thread.
+ * Delivery latency is the time from the change's {@code updatedAt} (stamped
+ * when the server made it) to the frame being parsed here, so client and
+ * server must share a clock, i.e. run on the same box. A slow reader only
+ * requests the next line after a delay, which lets TCP push back on the server.
+ */
+final class SseClient implements Flow.Subscriber<String> {
+
+    private static final String UPDATED_AT = "\"updatedAt\":\"";
+
+    // Swapped by LoadTest to start a new measurement window
+    private final AtomicReference<LoadStats> window;
+    private final boolean slow;
+    private final long slowDelayMillis;
+    private final ScheduledExecutorService pacer;
+
+    private volatile Flow.Subscription subscription;
+    private volatile CompletableFuture<HttpResponse<Void>> response;
+    private volatile long connectStartNanos;
+    private volatile boolean connected;
+    private volatile boolean closed;
+    // Only touched by the HttpClient thread delivering lines
+    private String event;
+    private String data;
+    private long lastId = -1;
+    private long pendingId = -1;
+
+    SseClient(AtomicReference<LoadStats> window, boolean slow, long slowDelayMillis, ScheduledExecutorService pacer) {
+        this.window = window;
+        this.slow = slow;
+        this.slowDelayMillis = slowDelayMillis;
+        this.pacer = pacer;
+    }
+
+    void connect(HttpClient http, URI uri) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri).header("Accept", "text/event-stream");
+        if (lastId >= 0) {
+            request.header("Last-Event-ID", Long.toString(lastId));
+        }
+        closed = false;
+        connected = false;
+        connectStartNanos = System.nanoTime();
+        response = http.sendAsync(request.build(), HttpResponse.BodyHandlers.fromLineSubscriber(this));
+        response.whenComplete((ignored, error) -> {
+            if (error != null && !closed) {
+                window.get().connectFailures.increment();
+            }
+        });
+    }
+
+    void close() {
+        closed = true;
+        Flow.Subscription current = subscription;
+        if (current != null) {
+            current.cancel();
+        }
+        CompletableFuture<HttpResponse<Void>> pending = response;
+        if (pending != null) {
+            pending.cancel(true);
+        }
+    }
+
+    boolean isConnected() {
+        return connected;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(slow ? 1 : Long.MAX_VALUE);
+    }
+
+    @Override
+    public void onNext(String line) {
+        if (line.isEmpty()) {
+            dispatch();
+        } else if (line.startsWith("data:")) {
+            data = line.substring(5);
+        } else if (line.startsWith("event:")) {
+            event = line.substring(6);
+        } else if (line.startsWith("id:")) {
+            pendingId = Long.parseLong(line.substring(3).trim());
+        }
+        if (slow && !closed) {
+            // One frame per delay: the pause falls on frame boundaries
+            if (line.isEmpty()) {
+                pacer.schedule(() -> subscription.request(1), slowDelayMillis, TimeUnit.MILLISECONDS);
+            } else {
+                subscription.request(1);
+            }
+        }
+    }
+
+    private void dispatch() {
+        if (event == null) {
+            return;
+        }
+        LoadStats stats = window.get();
+        if (!connected) {
+            connected = true;
+            stats.timeToFirstFrame.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - connectStartNanos));
+        }
+        if (event.equals("event-change")) {
+            (slow ? stats.slowLatency : stats.latency).record(latencyMicros(data));
+            stats.frames.increment();
+            if (lastId >= 0 && pendingId > lastId + 1) {
+                stats.missed.add(pendingId - lastId - 1);
+            }
+        }
+        if (pendingId >= 0) {
+            lastId = pendingId;
+        }
+        event = null;
+        data = null;
+    }
+
+    private static long latencyMicros(String json) {
+        int start = json.indexOf(UPDATED_AT);
+        if (start < 0) {
+            return 0;
+        }
+        start += UPDATED_AT.length();
+        Instant updatedAt = Instant.parse(json.substring(start, json.indexOf('"', start)));
+        return updatedAt.until(Instant.now(), ChronoUnit.MICROS);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        if (!closed) {
+            window.get().disconnects.increment();
+        }
+        connected = false;
+    }
+
+    @Override
+    public void onComplete() {
+        connected = false;
+    }
+}
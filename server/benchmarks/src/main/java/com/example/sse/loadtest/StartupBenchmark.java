@@ -0,0 +1,187 @@
+package com.example.sse.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Startup time of a fresh server process: launches it, connects to the stream
+ * endpoint as soon as the port accepts connections, and measures from launch
+ * until the first {@code initial-events} frame has been read. That is what a
+ * client reconnecting to a replica added during a reconnect storm waits for.
+ * Each variant is launched {@code --runs} times after {@code --warmup} runs.
+ * <pre>
+ * java -cp target/benchmarks.jar com.example.sse.loadtest.StartupBenchmark \
+ *     --jar=../target/sse-server-0.0.1-SNAPSHOT-exec.jar --fast=../target/fast-startup --runs=10
+ * </pre>
+ * Variants:
+ * <ul>
+ * <li>{@code --jar}: the fat jar as is, {@code java -jar}</li>
+ * <li>{@code --fast}: a directory with the jar extracted by
+ *     {@code -Djarmode=tools extract} from an {@code -Pfast-startup} build,
+ *     as {@code app.jar}, and its CDS archive {@code app.jsa}; run with the
+ *     archive, the AOT-processed context and the {@code fast-startup} profile,
+ *     as the Docker image does</li>
+ * </ul>
+ * Server output goes to {@code results/startup-<timestamp>.log}.
+ */
+public final class StartupBenchmark {
+
+    private final Map<String, String> options;
+    private final HttpClient http = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(1))
+        .build();
+    private File log;
+
+    private StartupBenchmark(Map<String, String> options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] pair = arg.replaceFirst("^--", "").split("=", 2);
+            options.put(pair[0], pair.length > 1 ? pair[1] : "true");
+        }
+        new StartupBenchmark(options).run();
+    }
+
+    private void run() throws Exception {
+        Map<String, List<String>> variants = new LinkedHashMap<>();
+        String java = new File(System.getProperty("java.home"), "bin/java").getPath();
+        if (options.containsKey("jar")) {
+            variants.put("jar", List.of(java, "-jar", options.get("jar")));
+        }
+        if (options.containsKey("fast")) {
+            File dir = new File(options.get("fast"));
+            variants.put("fast", List.of(java, "-XX:SharedArchiveFile=" + new File(dir, "app.jsa"),
+                "-Dspring.aot.enabled=true", "-Dspring.profiles.active=fast-startup",
+                "-jar", new File(dir, "app.jar").getPath()));
+        }
+        if (variants.isEmpty()) {
+            throw new IllegalArgumentException("Pass --jar=<exec jar> and/or --fast=<extracted fast-startup build>");
+        }
+
+        File results = new File("results");
+        results.mkdirs();
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        log = new File(results, "startup-" + timestamp + ".log");
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("options", options);
+        int warmup = intOption("warmup", 1);
+        int runs = intOption("runs", 5);
+        for (Map.Entry<String, List<String>> variant : variants.entrySet()) {
+            for (int i = 0; i < warmup; i++) {
+                launch(variant.getValue());
+            }
+            double[] millis = new double[runs];
+            for (int i = 0; i < runs; i++) {
+                millis[i] = launch(variant.getValue());
+            }
+            report.put(variant.getKey(), summary(variant.getKey(), millis));
+        }
+
+        File file = new File(results, "startup-" + timestamp + ".json");
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, report);
+        System.out.println("Startup report saved to " + file);
+    }
+
+    // Milliseconds from launching the server to reading its first initial-events frame
+    private double launch(List<String> command) throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        List<String> args = new ArrayList<>(command);
+        args.add("--server.port=" + port);
+        long started = System.nanoTime();
+        Process server = new ProcessBuilder(args)
+            .redirectErrorStream(true)
+            .redirectOutput(ProcessBuilder.Redirect.appendTo(log))
+            .start();
+        try {
+            awaitInitialEvents(URI.create("http://localhost:" + port + "/api/events/stream"), server);
+            return (System.nanoTime() - started) / 1e6;
+        } finally {
+            // Killed rather than stopped, so no run waits for the stream drain on shutdown
+            server.destroyForcibly();
+            server.waitFor(30, TimeUnit.SECONDS);
+        }
+    }
+
+    private void awaitInitialEvents(URI uri, Process server) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(intOption("timeout", 120));
+        HttpRequest request = HttpRequest.newBuilder(uri).header("Accept", "text/event-stream").build();
+        while (System.nanoTime() < deadline) {
+            if (!server.isAlive()) {
+                throw new IllegalStateException("Server exited with " + server.exitValue() + ", see " + log);
+            }
+            HttpResponse<Stream<String>> response;
+            try {
+                response = http.send(request, HttpResponse.BodyHandlers.ofLines());
+            } catch (IOException e) {
+                Thread.sleep(5); // Not listening yet
+                continue;
+            }
+            try (Stream<String> lines = response.body()) {
+                Iterator<String> iterator = lines.iterator();
+                boolean initialEvents = false;
+                while (iterator.hasNext()) {
+                    String line = iterator.next();
+                    if (line.equals("event:initial-events")) {
+                        initialEvents = true;
+                    } else if (initialEvents && line.startsWith("data:")) {
+                        return;
+                    }
+                }
+            }
+            throw new IllegalStateException("Stream ended before an initial-events frame (HTTP "
+                + response.statusCode() + ")");
+        }
+        throw new IllegalStateException("No initial-events frame within the timeout, see " + log);
+    }
+
+    private static Map<String, Object> summary(String variant, double[] millis) {
+        double[] sorted = millis.clone();
+        Arrays.sort(sorted);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("runs", sorted.length);
+        result.put("minMs", round(sorted[0]));
+        result.put("medianMs", round(sorted[sorted.length / 2]));
+        result.put("maxMs", round(sorted[sorted.length - 1]));
+        result.put("meanMs", round(Arrays.stream(sorted).average().orElse(0)));
+        result.put("timesMs", Arrays.stream(millis).map(StartupBenchmark::round).toArray());
+        System.out.printf("%s: time to first initial-events frame min %.0f ms, median %.0f ms, max %.0f ms%n",
+            variant, sorted[0], sorted[sorted.length / 2], sorted[sorted.length - 1]);
+        return result;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    private int intOption(String name, int defaultValue) {
+        return Integer.parseInt(options.getOrDefault(name, Integer.toString(defaultValue)));
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.sse.bus;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+import com.example.sse.model.SystemEvent;
+import com.example.sse.model.sse.SseEvent;
+
+/**
+ * Carries changes from the node that made them to every node serving
+ * streams, this one included. The bus assigns each change its sequence number,
+ * so all nodes agree on the order and a client can resume with Last-Event-ID
+ * on any of them.
+ */
+public interface EventBus {
+
+    /**
+     * Assigns the change the next sequence number and delivers it to every
+     * subscribed node in that order.
+     */
+    void publish(SseEvent change);
+
+    /**
+     * Assigns the changes consecutive sequence numbers and delivers them to
+     * every subscribed node together, with nothing else in between.
+     */
+    void publishAll(List<SseEvent> changes);
+
+    /**
+     * Subscribes this node and returns copies of the events the other nodes
+     * already hold, so a node joining a running cluster can catch up before any
+     * further change reaches it. {@code state} supplies this node's events to
+     * nodes that join later.
+     */
+    Collection<SystemEvent> subscribe(Listener listener, Supplier<Collection<SystemEvent>> state);
+
+    // Last sequence number assigned, so a node can start its replay buffer where the bus is
+    long currentSequence();
+
+    @FunctionalInterface
+    interface Listener {
+        /**
+         * @param remote {@code true} when another node made the change, so this
+         *               node's store does not have it yet
+         */
+        void onChange(SseEvent change, boolean remote);
+
+        // Changes published together, in sequence order; listeners that can handle them at once override this
+        default void onBatch(List<SseEvent> changes, boolean remote) {
+            for (SseEvent change : changes) {
+                onChange(change, remote);
+            }
+        }
+    }
+}
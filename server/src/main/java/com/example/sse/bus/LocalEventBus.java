@@ -0,0 +1,54 @@
+package com.example.sse.bus;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.example.sse.model.SystemEvent;
+import com.example.sse.model.sse.SseEvent;
+
+/**
+ * Single-node bus: changes are delivered on the publishing thread to the
+ * listeners in this application context.
+ */
+@Component
+@ConditionalOnProperty(prefix = "sse.bus", name = "type", havingValue = "local", matchIfMissing = true)
+public class LocalEventBus implements EventBus {
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    // Seeded from the clock so IDs from before a restart never look like IDs issued by this process
+    private long sequence = System.currentTimeMillis() * 1000;
+
+    @Override
+    public synchronized void publish(SseEvent change) {
+        change.setSequence(++sequence);
+        for (Listener listener : listeners) {
+            listener.onChange(change, false);
+        }
+    }
+
+    @Override
+    public synchronized void publishAll(List<SseEvent> changes) {
+        for (SseEvent change : changes) {
+            change.setSequence(++sequence);
+        }
+        for (Listener listener : listeners) {
+            listener.onBatch(changes, false);
+        }
+    }
+
+    @Override
+    public Collection<SystemEvent> subscribe(Listener listener, Supplier<Collection<SystemEvent>> state) {
+        listeners.add(listener);
+        return List.of(); // No other nodes to catch up with
+    }
+
+    @Override
+    public synchronized long currentSequence() {
+        return sequence;
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.sse.bus;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.example.sse.config.SseProperties;
+import com.example.sse.model.SystemEvent;
+import com.example.sse.model.sse.SseEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.type.CollectionType;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Multi-node bus for application contexts in one JVM, joined by name through
+ * {@code sse.bus.channel}. A change is serialized once when published, the way
+ * a broker would carry it, and every other node decodes its own copy, so nodes
+ * never share mutable events. Delivery is synchronous under the channel lock,
+ * which keeps every node in sequence order.
+ */
+@Component
+@ConditionalOnProperty(prefix = "sse.bus", name = "type", havingValue = "loopback")
+@Slf4j
+public class LoopbackEventBus implements EventBus {
+
+    private static final Map<String, Channel> CHANNELS = new ConcurrentHashMap<>();
+
+    private final ObjectMapper objectMapper;
+    private final Channel channel;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private volatile Supplier<Collection<SystemEvent>> state;
+
+    public LoopbackEventBus(ObjectMapper objectMapper, SseProperties properties) {
+        this.objectMapper = objectMapper;
+        this.channel = CHANNELS.computeIfAbsent(properties.getBus().getChannel(), name -> new Channel());
+        channel.members.add(this);
+        log.info("Joined loopback event bus channel {} ({} nodes)",
+            properties.getBus().getChannel(), channel.members.size());
+    }
+
+    @Override
+    public void publish(SseEvent change) {
+        synchronized (channel) {
+            change.setSequence(++channel.sequence);
+            byte[] payload = null;
+            for (LoopbackEventBus member : channel.members) {
+                if (member == this) {
+                    member.deliver(change, false);
+                    continue;
+                }
+                if (payload == null) {
+                    payload = encode(change);
+                }
+                member.deliver(member.decode(payload), true);
+            }
+        }
+    }
+
+    @Override
+    public void publishAll(List<SseEvent> changes) {
+        synchronized (channel) {
+            for (SseEvent change : changes) {
+                change.setSequence(++channel.sequence);
+            }
+            byte[] payload = null;
+            for (LoopbackEventBus member : channel.members) {
+                if (member == this) {
+                    member.deliverAll(changes, false);
+                    continue;
+                }
+                if (payload == null) {
+                    payload = encode(changes);
+                }
+                member.deliverAll(member.decodeAll(payload), true);
+            }
+        }
+    }
+
+    @Override
+    public Collection<SystemEvent> subscribe(Listener listener, Supplier<Collection<SystemEvent>> state) {
+        synchronized (channel) {
+            listeners.add(listener);
+            this.state = state;
+            // Under the channel lock, so no change falls between the copy and the subscription
+            for (LoopbackEventBus member : channel.members) {
+                if (member != this && member.state != null) {
+                    List<SystemEvent> existing = copy(member.state.get());
+                    log.info("Caught up with {} events from another node", existing.size());
+                    return existing;
+                }
+            }
+            return List.of();
+        }
+    }
+
+    @Override
+    public long currentSequence() {
+        synchronized (channel) {
+            return channel.sequence;
+        }
+    }
+
+    @PreDestroy
+    public void leave() {
+        channel.members.remove(this);
+    }
+
+    private void deliver(SseEvent change, boolean remote) {
+        for (Listener listener : listeners) {
+            listener.onChange(change, remote);
+        }
+    }
+
+    private void deliverAll(List<SseEvent> changes, boolean remote) {
+        for (Listener listener : listeners) {
+            listener.onBatch(changes, remote);
+        }
+    }
+
+    private byte[] encode(Object change) {
+        try {
+            return objectMapper.writeValueAsBytes(change);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to encode change for the event bus", e);
+        }
+    }
+
+    private SseEvent decode(byte[] payload) {
+        try {
+            return objectMapper.readValue(payload, SseEvent.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to decode change from the event bus", e);
+        }
+    }
+
+    private List<SseEvent> decodeAll(byte[] payload) {
+        try {
+            return objectMapper.readValue(payload,
+                objectMapper.getTypeFactory().constructCollectionType(List.class, SseEvent.class));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to decode changes from the event bus", e);
+        }
+    }
+
+    // Through JSON, like a change, so this node never shares mutable events with another
+    private List<SystemEvent> copy(Collection<SystemEvent> events) {
+        try {
+            CollectionType type = objectMapper.getTypeFactory().constructCollectionType(List.class, SystemEvent.class);
+            return objectMapper.readValue(objectMapper.writeValueAsBytes(new ArrayList<>(events)), type);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to copy events from another node", e);
+        }
+    }
+
+    private static class Channel {
+        private final List<LoopbackEventBus> members = new CopyOnWriteArrayList<>();
+        // Guarded by the channel; seeded like LocalEventBus
+        private long sequence = System.currentTimeMillis() * 1000;
+    }
+}
@@ -5,6 +5,7 @@ import org.springframework.context.annotation.Configuration;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
 @Configuration
@@ -17,4 +18,18 @@ public class JacksonConfig {
         mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
         return mapper;
     }
+
+    /**
+     * Mapper for the compact wire format: CBOR with epoch-millis timestamps and
+     * enums as ordinals. UUIDs become 16-byte strings. Not a bean, so
+     * {@link ObjectMapper} injection stays unambiguous.
+     */
+    public static ObjectMapper compactObjectMapper() {
+        return CBORMapper.builder()
+            .addModule(new JavaTimeModule())
+            .enable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(SerializationFeature.WRITE_DATE_TIMESTAMPS_AS_NANOSECONDS)
+            .enable(SerializationFeature.WRITE_ENUMS_USING_INDEX)
+            .build();
+    }
 }
@@ -0,0 +1,47 @@
+package com.example.sse.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.example.sse.service.EventSchedulerService;
+import com.example.sse.service.EventService;
+import com.example.sse.service.EventStatsService;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Gauges read on scrape; the meters recorded on the streaming path live in
+ * {@link com.example.sse.metrics.SseMetrics}.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder sseGauges(EventSchedulerService eventSchedulerService, EventService eventService,
+                                 EventStatsService eventStatsService) {
+        return registry -> {
+            Gauge.builder("sse.connections", eventSchedulerService, EventSchedulerService::getConnectionCount)
+                .description("Open stream connections on both stacks")
+                .register(registry);
+            Gauge.builder("sse.stream.groups", eventSchedulerService, EventSchedulerService::getStreamGroupCount)
+                .description("Distinct stream option sets with at least one connection")
+                .register(registry);
+            Gauge.builder("sse.events.stored", eventService, EventService::getActiveEventCount)
+                .description("Events in the store")
+                .tag("state", "active")
+                .register(registry);
+            Gauge.builder("sse.events.stored", eventService,
+                    service -> service.getEventCount() - service.getActiveEventCount())
+                .description("Events in the store")
+                .tag("state", "inactive")
+                .register(registry);
+            Gauge.builder("sse.stats.tracked", eventStatsService, EventStatsService::getTrackedCount)
+                .description("Events with rolling stats, up to sse.stats.max-events")
+                .register(registry);
+            Gauge.builder("sse.stats.untracked", eventStatsService, EventStatsService::getUntrackedCount)
+                .description("Changes not tracked because sse.stats.max-events events were tracked already")
+                .register(registry);
+        };
+    }
+}
@@ -4,6 +4,7 @@ import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
 import com.example.sse.service.EventSchedulerService;
+import com.example.sse.service.WorkloadGenerator;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -14,10 +15,12 @@ import lombok.extern.slf4j.Slf4j;
 public class SchedulerConfig implements CommandLineRunner {
 
     private final EventSchedulerService eventSchedulerService;
+    private final WorkloadGenerator workloadGenerator;
 
     @Override
     public void run(String... args) throws Exception {
         log.info("Starting event scheduler on application startup...");
         eventSchedulerService.startScheduler();
+        workloadGenerator.start();
     }
 }
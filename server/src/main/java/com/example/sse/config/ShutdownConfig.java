@@ -0,0 +1,52 @@
+package com.example.sse.config;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import com.example.sse.service.EventSchedulerService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Drains the stream connections when the application shuts down. Runs in the
+ * default lifecycle phase, which stops before the web server's, so streams are
+ * closed in paced waves (see {@code sse.drain.*}) rather than all dropped with
+ * the server and every client reconnecting in the same second.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ShutdownConfig implements SmartLifecycle {
+
+    private final EventSchedulerService eventSchedulerService;
+    private volatile boolean running = false;
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop(Runnable callback) {
+        running = false;
+        CompletableFuture<Void> drained = eventSchedulerService.drain();
+        drained.whenComplete((result, e) -> {
+            log.info("Stream drain finished");
+            callback.run();
+        });
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        eventSchedulerService.drain().join();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
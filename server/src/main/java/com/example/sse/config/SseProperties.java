@@ -0,0 +1,180 @@
+package com.example.sse.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import com.example.sse.stream.OverflowPolicy;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "sse")
+public class SseProperties {
+
+    private final Subscriber subscriber = new Subscriber();
+    private final Fanout fanout = new Fanout();
+    private final Connection connection = new Connection();
+    private final Replay replay = new Replay();
+    private final Reactive reactive = new Reactive();
+    private final Batch batch = new Batch();
+    private final Journal journal = new Journal();
+    private final Bus bus = new Bus();
+    private final Workload workload = new Workload();
+    private final Ingest ingest = new Ingest();
+    private final Snapshot snapshot = new Snapshot();
+    private final Drain drain = new Drain();
+    private final Stats stats = new Stats();
+
+    @Data
+    public static class Subscriber {
+        // Maximum number of frames buffered per connection before the overflow policy applies
+        private int queueCapacity = 256;
+        // Default policy when a client does not request one explicitly
+        private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_OLDEST;
+        // Threads shared by all connections for draining their queues
+        private int writerThreads = 4;
+        // Drain each connection on a virtual thread instead, so a blocked write never holds a pool thread
+        private boolean virtualThreads = false;
+        // Frames written per drain pass before yielding the writer thread to other connections
+        private int drainBatchSize = 64;
+    }
+
+    @Data
+    public static class Fanout {
+        // Connection registry shards, each fanned out to by its own thread (0 = one per available processor)
+        private int shards = 0;
+        // Groups smaller than this are fanned out to on the broadcasting thread, where a handoff would cost more
+        private int parallelThreshold = 1000;
+    }
+
+    @Data
+    public static class Connection {
+        // Streams accepted per node across both stacks; more are refused with a 503 and a retry hint (0 = no limit)
+        private int maxConnections = 10000;
+        // Refused clients are told to retry after this long plus up to as much again of random jitter
+        private Duration retryAfter = Duration.ofSeconds(5);
+        // Servlet connections nothing was written to for this long get a heartbeat comment
+        private Duration heartbeatIdle = Duration.ofSeconds(15);
+        // Servlet connections with one write blocked for this long are closed
+        private Duration writeStallTimeout = Duration.ofSeconds(30);
+        // Resolution of the timer wheel that schedules heartbeat and stall checks
+        private Duration wheelTick = Duration.ofSeconds(1);
+    }
+
+    @Data
+    public static class Replay {
+        // Most recent broadcasts kept for Last-Event-ID resume
+        private int capacity = 1024;
+        // Older broadcasts are not replayed; those clients get a full snapshot instead
+        private Duration maxAge = Duration.ofMinutes(5);
+    }
+
+    @Data
+    public static class Reactive {
+        // How each reactive stream copes with a client that reads slower than events arrive
+        private Backpressure backpressure = Backpressure.BUFFER;
+        // Frames buffered per stream with BUFFER before the oldest are dropped
+        private int bufferSize = 256;
+    }
+
+    @Data
+    public static class Batch {
+        // How long changes are coalesced before an event-batch frame goes out
+        private Duration flushInterval = Duration.ofMillis(250);
+        // Flush early once this many distinct events have changed
+        private int maxBatchSize = 500;
+    }
+
+    @Data
+    public static class Journal {
+        // Persist changes and restore them on startup instead of seeding sample events
+        private boolean enabled = false;
+        // Holds the journal segments and snapshots
+        private String directory = "data/journal";
+        // Size of each memory-mapped journal segment file
+        private DataSize segmentSize = DataSize.ofMegabytes(64);
+        // Appends since the last flush are forced to disk together at this interval
+        private Duration commitInterval = Duration.ofMillis(10);
+        // How often the store is snapshotted so startup only replays the journal tail
+        private Duration snapshotInterval = Duration.ofMinutes(1);
+    }
+
+    @Data
+    public static class Bus {
+        // LOCAL for a single node; LOOPBACK joins other application contexts in this JVM
+        private BusType type = BusType.LOCAL;
+        // Contexts using the same channel name share changes
+        private String channel = "sse-events";
+    }
+
+    @Data
+    public static class Workload {
+        // Random changes generated per second: 0.1 is one every 10 seconds, 0 turns generation off
+        private double rate = 0.1;
+        // Relative weights of the generated operations
+        private double createWeight = 0.4;
+        private double updateWeight = 0.4;
+        private double deleteWeight = 0.2;
+        // Active events to steer towards: creates become deletes above it and deletes creates below it (0 = none)
+        private int targetStoreSize = 0;
+        // Skip generation while nobody is connected
+        private boolean onlyWhenConnected = true;
+        // Every burst-interval the rate is multiplied by burst-multiplier for burst-duration (0 = no bursts)
+        private Duration burstInterval = Duration.ZERO;
+        private Duration burstDuration = Duration.ofSeconds(5);
+        private double burstMultiplier = 10;
+    }
+
+    @Data
+    public static class Ingest {
+        // Bulk requests are applied and broadcast in batches of at most this many changes
+        private int batchSize = 1000;
+        // A partial batch is applied after this long, so changes streamed slowly are not held back
+        private Duration maxDelay = Duration.ofMillis(100);
+    }
+
+    @Data
+    public static class Snapshot {
+        // Events per initial-chunk frame on streams opened with chunked=true, and per page of /api/events/snapshot
+        private int chunkSize = 1000;
+        // Largest page /api/events/snapshot returns, whatever limit is asked for
+        private int maxPageSize = 10000;
+    }
+
+    @Data
+    public static class Drain {
+        // On shutdown, open streams are closed in this many waves spread over the window
+        private Duration window = Duration.ofSeconds(10);
+        private int waves = 10;
+        // Each closed stream's client is told to reconnect after a random delay of up to this long
+        private Duration retryJitter = Duration.ofSeconds(5);
+    }
+
+    @Data
+    public static class Stats {
+        // Events with rolling aggregates; at the default ring sizes each takes about 250 bytes
+        private int maxEvents = 1_000_000;
+        // Per-second and per-minute count buckets kept for each event
+        private int seconds = 60;
+        private int minutes = 15;
+        // How often streams opened with stats=true get a stats frame
+        private Duration interval = Duration.ofSeconds(1);
+        // Window of the aggregates in stats frames, and how many events a frame lists at most
+        private Duration channelWindow = Duration.ofMinutes(1);
+        private int channelLimit = 1000;
+    }
+
+    public enum BusType {
+        LOCAL,
+        LOOPBACK
+    }
+
+    public enum Backpressure {
+        // Bounded per-stream buffer, dropping the oldest frames when full
+        BUFFER,
+        // Keep only the most recent frame while the client is behind
+        LATEST
+    }
+}
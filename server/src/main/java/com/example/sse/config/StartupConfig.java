@@ -0,0 +1,26 @@
+package com.example.sse.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.example.sse.controller.ReactiveSseController;
+import com.example.sse.controller.SseController;
+import com.example.sse.service.EventSchedulerService;
+import com.example.sse.service.EventSnapshotService;
+import com.example.sse.stream.SseFrameEncoder;
+
+/**
+ * Keeps the streaming path eager under {@code spring.main.lazy-initialization}
+ * (the {@code fast-startup} profile), so the first client to connect after a
+ * scale-out does not also wait for its controller and services to be created.
+ */
+@Configuration
+public class StartupConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter streamingPathExcludeFilter() {
+        return LazyInitializationExcludeFilter.forBeanTypes(SseController.class, ReactiveSseController.class,
+            EventSchedulerService.class, EventSnapshotService.class, SseFrameEncoder.class);
+    }
+}
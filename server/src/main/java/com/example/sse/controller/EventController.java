@@ -0,0 +1,176 @@
+package com.example.sse.controller;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.format.annotation.DurationFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import com.example.sse.config.SseProperties;
+import com.example.sse.model.ConnectionStats;
+import com.example.sse.model.EventSnapshot;
+import com.example.sse.model.EventStats;
+import com.example.sse.model.Severity;
+import com.example.sse.model.SystemEvent;
+import com.example.sse.model.sse.Operation;
+import com.example.sse.model.sse.SseEvent;
+import com.example.sse.service.EventIngestService;
+import com.example.sse.service.EventSchedulerService;
+import com.example.sse.service.EventService;
+import com.example.sse.service.EventSnapshotService;
+import com.example.sse.service.EventStatsService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+
+/**
+ * REST endpoints, served the same way by the servlet and the reactive stack.
+ */
+@RestController
+@RequestMapping("/api")
+@CrossOrigin(origins = {"http://localhost:5173", "http://localhost", "http://localhost:80"})
+@RequiredArgsConstructor
+@Slf4j
+public class EventController {
+
+    private final EventService eventService;
+    private final EventSnapshotService eventSnapshotService;
+    private final EventSchedulerService eventSchedulerService;
+    private final EventIngestService eventIngestService;
+    private final EventStatsService eventStatsService;
+    private final SseProperties properties;
+
+    @GetMapping("/events/initial")
+    public ResponseEntity<byte[]> getInitialEvents(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        EventSnapshot snapshot = eventSnapshotService.getSnapshot();
+        log.info("Returning {} initial events (version {})", snapshot.getEvents().size(), snapshot.getVersion());
+        return snapshotResponse(snapshot, ifNoneMatch, acceptEncoding);
+    }
+
+    /**
+     * The active events as NDJSON, one page in ID order per request. A {@code Link}
+     * header points to the next page until the last one. {@code X-Sequence} is the
+     * broadcast sequence the first page is current to: streaming from it with
+     * {@code Last-Event-ID} afterwards picks up every change made while paging.
+     */
+    @GetMapping(value = "/events/snapshot", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Flux<SystemEvent>> getSnapshotPage(
+            @RequestParam(required = false) UUID cursor,
+            @RequestParam(required = false) Integer limit) {
+        long sequence = eventSchedulerService.getSequence();
+        SseProperties.Snapshot snapshot = properties.getSnapshot();
+        int pageSize = Math.max(1, Math.min(limit != null ? limit : snapshot.getChunkSize(), snapshot.getMaxPageSize()));
+        // One more than the page, to tell whether there is a next one
+        List<SystemEvent> page = eventService.getActiveEventsAfter(cursor, pageSize + 1);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().header("X-Sequence", Long.toString(sequence));
+        if (page.size() > pageSize) {
+            page = page.subList(0, pageSize);
+            response.header(HttpHeaders.LINK, "</api/events/snapshot?cursor=" + page.get(pageSize - 1).getId()
+                + "&limit=" + pageSize + ">; rel=\"next\"");
+        }
+        return response.body(Flux.fromIterable(page));
+    }
+
+    @GetMapping("/health")
+    public ResponseEntity<String> health() {
+        return ResponseEntity.ok("SSE Server is running! Active connections: " + eventSchedulerService.getConnectionCount());
+    }
+
+    @GetMapping("/connections")
+    public ResponseEntity<List<ConnectionStats>> getConnections() {
+        return ResponseEntity.ok(eventSchedulerService.getConnectionStats());
+    }
+
+    // Lets a client that detected a version gap in the deltas resync a single event
+    @GetMapping("/events/{id}")
+    public ResponseEntity<SystemEvent> getEvent(@PathVariable UUID id) {
+        SystemEvent event = eventService.getEventById(id);
+        return event != null ? ResponseEntity.ok(event) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * The event's count rate and severity changes over the window (e.g.
+     * {@code 30s} or {@code 5m}), with its per-second and per-minute counts.
+     * 404 for events that are not tracked, such as deleted ones.
+     */
+    @GetMapping("/events/{id}/stats")
+    public ResponseEntity<EventStats> getEventStats(
+            @PathVariable UUID id,
+            @RequestParam(defaultValue = "1m") @DurationFormat(style = DurationFormat.Style.SIMPLE) Duration window) {
+        EventStats stats = eventStatsService.getStats(id, window);
+        return stats != null ? ResponseEntity.ok(stats) : ResponseEntity.notFound().build();
+    }
+
+    // Writes are broadcast to every stream like generated changes; see EventIngestController for bulk
+    @PostMapping("/events")
+    public ResponseEntity<SystemEvent> createEvent(@RequestBody SystemEvent event) {
+        SystemEvent created = eventIngestService.write(Operation.CREATE, event).getEvent();
+        return ResponseEntity.created(URI.create("/api/events/" + created.getId())).body(created);
+    }
+
+    @PutMapping("/events/{id}")
+    public ResponseEntity<SystemEvent> updateEvent(@PathVariable UUID id, @RequestBody SystemEvent event) {
+        SseEvent change = eventIngestService.write(Operation.UPDATE, event.toBuilder().id(id).build());
+        return change != null ? ResponseEntity.ok(change.getEvent()) : ResponseEntity.notFound().build();
+    }
+
+    // Marks the event inactive, like generated deletes; it is removed after the usual expiry
+    @DeleteMapping("/events/{id}")
+    public ResponseEntity<Void> deleteEvent(@PathVariable UUID id) {
+        SseEvent change = eventIngestService.write(Operation.DELETE, SystemEvent.builder().id(id).build());
+        return change != null ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> invalidEvent(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+    @GetMapping("/events")
+    public ResponseEntity<?> getAllEvents(
+            @RequestParam(required = false) Severity severity,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        if (severity != null) {
+            // Served straight from the severity index rather than the cached snapshot
+            return ResponseEntity.ok(eventService.getEventsBySeverity(severity));
+        }
+        return snapshotResponse(eventSnapshotService.getSnapshot(), ifNoneMatch, acceptEncoding);
+    }
+
+    /**
+     * Serves the cached snapshot bytes, gzipped when the client accepts it, or
+     * a 304 when the client already holds the current version.
+     */
+    private ResponseEntity<byte[]> snapshotResponse(EventSnapshot snapshot, String ifNoneMatch, String acceptEncoding) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        String etag = gzip ? snapshot.getGzipETag() : snapshot.getETag();
+
+        if (ifNoneMatch != null && (ifNoneMatch.contains(etag) || ifNoneMatch.trim().equals("*"))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .eTag(etag)
+            .cacheControl(CacheControl.noCache())
+            .varyBy(HttpHeaders.ACCEPT_ENCODING)
+            .contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.getGzip());
+        }
+        return response.body(snapshot.getJson());
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.sse.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import com.example.sse.model.IngestResult;
+import com.example.sse.model.sse.SseEvent;
+import com.example.sse.service.EventIngestService;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+
+/**
+ * Bulk ingest on the servlet stack: an NDJSON body of changes, one
+ * {@code {"operation": ..., "event": {...}}} per line, decoded straight off
+ * the request stream. See {@link ReactiveEventIngestController} for the
+ * reactive alternative.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api")
+@CrossOrigin(origins = {"http://localhost:5173", "http://localhost", "http://localhost:80"})
+@RequiredArgsConstructor
+public class EventIngestController {
+
+    private final EventIngestService eventIngestService;
+    private final ObjectMapper objectMapper;
+
+    @PostMapping(value = "/events/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<IngestResult> ingest(InputStream body) throws IOException {
+        try (MappingIterator<SseEvent> changes = objectMapper.readerFor(SseEvent.class).readValues(body)) {
+            IngestResult result = eventIngestService.ingest(Flux.fromIterable(() -> changes)).block();
+            return result.getError() == null ? ResponseEntity.ok(result) : ResponseEntity.badRequest().body(result);
+        }
+    }
+}
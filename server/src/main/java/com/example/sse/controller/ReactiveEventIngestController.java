@@ -0,0 +1,58 @@
+package com.example.sse.controller;
+
+import java.io.UncheckedIOException;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import com.example.sse.model.IngestResult;
+import com.example.sse.model.sse.SseEvent;
+import com.example.sse.service.EventIngestService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Bulk ingest on the reactive stack, the same endpoint as
+ * {@link EventIngestController}. The body is split into lines as it arrives
+ * and each is decoded on its own, so an undecodable line stops the request
+ * exactly there, as it does on the servlet stack.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api")
+@CrossOrigin(origins = {"http://localhost:5173", "http://localhost", "http://localhost:80"})
+public class ReactiveEventIngestController {
+
+    private final EventIngestService eventIngestService;
+    private final ObjectReader changeReader;
+
+    public ReactiveEventIngestController(EventIngestService eventIngestService, ObjectMapper objectMapper) {
+        this.eventIngestService = eventIngestService;
+        this.changeReader = objectMapper.readerFor(SseEvent.class);
+    }
+
+    @PostMapping(value = "/events/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public Mono<ResponseEntity<IngestResult>> ingest(@RequestBody Flux<String> lines) {
+        Flux<SseEvent> changes = lines
+            .filter(line -> !line.isBlank())
+            .map(this::decode);
+        return eventIngestService.ingest(changes)
+            .map(result -> result.getError() == null
+                ? ResponseEntity.ok(result)
+                : ResponseEntity.badRequest().body(result));
+    }
+
+    private SseEvent decode(String line) {
+        try {
+            return changeReader.readValue(line);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e.getOriginalMessage(), e);
+        }
+    }
+}
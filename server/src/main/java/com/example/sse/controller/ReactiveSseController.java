@@ -0,0 +1,61 @@
+package com.example.sse.controller;
+
+import java.util.Set;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+
+import com.example.sse.model.Severity;
+import com.example.sse.service.EventSchedulerService;
+import com.example.sse.stream.EventFilter;
+import com.example.sse.stream.SseFrame;
+import com.example.sse.stream.StreamOptions;
+import com.example.sse.stream.WireFormat;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+
+/**
+ * SSE streaming on the reactive stack (Netty), enabled with
+ * {@code spring.main.web-application-type=reactive}. Same endpoint, event
+ * names and payloads as {@link SseController}, but streams hold no servlet
+ * async context and slow clients are handled by reactive backpressure.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api")
+@CrossOrigin(origins = {"http://localhost:5173", "http://localhost", "http://localhost:80"})
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveSseController {
+
+    private final EventSchedulerService eventSchedulerService;
+
+    @GetMapping(value = "/events/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> streamEvents(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestParam(defaultValue = "false") boolean batch,
+            @RequestParam(defaultValue = "false") boolean delta,
+            @RequestParam(defaultValue = "false") boolean stats,
+            @RequestParam(required = false) Set<Severity> severity,
+            @RequestParam(required = false) String namePrefix,
+            @RequestParam(defaultValue = "false") boolean activeOnly,
+            @RequestParam(required = false) WireFormat format,
+            @RequestParam(defaultValue = "false") boolean chunked) {
+        StreamOptions options = StreamOptions.builder()
+            .batch(batch)
+            .delta(delta)
+            .stats(stats)
+            .filter(EventFilter.of(severity, namePrefix, activeOnly))
+            .format(WireFormat.negotiate(format, accept))
+            .build();
+        return eventSchedulerService.streamFrames(lastEventId, options, chunked)
+            .map(SseFrame::toServerSentEvent)
+            .doOnError(e -> log.debug("Reactive SSE stream failed: {}", e.getMessage()));
+    }
+}
@@ -2,80 +2,91 @@ package com.example.sse.controller;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.context.request.async.AsyncRequestNotUsableException;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import com.example.sse.model.SystemEvent;
-import com.example.sse.service.EventService;
+import com.example.sse.metrics.DisconnectReason;
+import com.example.sse.model.Severity;
+import com.example.sse.service.ConnectionLimitExceededException;
 import com.example.sse.service.EventSchedulerService;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.sse.stream.EventFilter;
+import com.example.sse.stream.OverflowPolicy;
+import com.example.sse.stream.SseFrame;
+import com.example.sse.stream.SseSubscriber;
+import com.example.sse.stream.StreamOptions;
+import com.example.sse.stream.WireFormat;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * SSE streaming on the servlet stack; each client holds an async request.
+ * See {@link ReactiveSseController} for the reactive alternative.
+ */
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api")
 @CrossOrigin(origins = {"http://localhost:5173", "http://localhost", "http://localhost:80"})
 @RequiredArgsConstructor
 @Slf4j
 public class SseController {
 
-    private final EventService eventService;
-    private final ObjectMapper objectMapper;
     private final EventSchedulerService eventSchedulerService;
 
-    @GetMapping("/events/initial")
-    public ResponseEntity<List<SystemEvent>> getInitialEvents() {
-        List<SystemEvent> events = eventService.getAllEvents();
-        log.info("Returning {} initial events", events.size());
-        return ResponseEntity.ok(events);
-    }
-
     @GetMapping(value = "/events/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public SseEmitter streamEvents() {
+    public SseEmitter streamEvents(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestParam(required = false) OverflowPolicy overflow,
+            @RequestParam(defaultValue = "false") boolean batch,
+            @RequestParam(defaultValue = "false") boolean delta,
+            @RequestParam(defaultValue = "false") boolean stats,
+            @RequestParam(required = false) Set<Severity> severity,
+            @RequestParam(required = false) String namePrefix,
+            @RequestParam(defaultValue = "false") boolean activeOnly,
+            @RequestParam(required = false) WireFormat format,
+            @RequestParam(defaultValue = "false") boolean chunked) {
         SseEmitter emitter = new SseEmitter(Long.MAX_VALUE); // No timeout
         String emitterId = UUID.randomUUID().toString();
-        eventSchedulerService.addEmitter(emitterId, emitter);
-
-        log.info("New SSE connection established: {} (total connections: {})", emitterId, eventSchedulerService.getConnectionCount());
-
-        // Send initial events immediately (only active events for initial load)
+        StreamOptions options = StreamOptions.builder()
+            .batch(batch)
+            .delta(delta)
+            .stats(stats)
+            .filter(EventFilter.of(severity, namePrefix, activeOnly))
+            .format(WireFormat.negotiate(format, accept))
+            .build();
+        SseSubscriber subscriber = eventSchedulerService.createSubscriber(emitterId, emitter, overflow, options);
+
+        // Choose the initial events (only active events for initial load), or just the
+        // missed deltas when a reconnecting client can be resumed from Last-Event-ID
+        List<SseFrame> initial;
         try {
-            List<SystemEvent> events = eventService.getAllEvents();
-            String eventsJson = objectMapper.writeValueAsString(events);
-            emitter.send(SseEmitter.event()
-                .name("initial-events")
-                .data(eventsJson));
-            log.info("Sent {} initial events to {}: {}", events.size(), emitterId,
-                events.stream().map(SystemEvent::getName).collect(Collectors.joining(", ")));
+            initial = eventSchedulerService.subscribe(subscriber, lastEventId, chunked);
+            log.info("New SSE connection established: {} (total connections: {})", emitterId, eventSchedulerService.getConnectionCount());
+        } catch (ConnectionLimitExceededException e) {
+            throw e; // Refused before anything was registered or sent
         } catch (Exception e) {
-            // Handle connection errors gracefully
-            if (e instanceof IOException ||
-                e.getCause() instanceof IOException ||
-                e.getMessage() != null && e.getMessage().contains("Broken pipe")) {
-                log.debug("Client {} disconnected during initial events, removing connection", emitterId);
-            } else {
-                log.error("Error sending initial events to {}", emitterId, e);
-            }
+            log.error("Error preparing initial events for {}", emitterId, e);
             emitter.completeWithError(e);
-            eventSchedulerService.removeEmitter(emitterId);
+            eventSchedulerService.removeEmitter(emitterId, DisconnectReason.of(e));
             return emitter;
         }
 
         emitter.onCompletion(() -> {
             log.info("SSE connection completed: {} (remaining connections: {})", emitterId, eventSchedulerService.getConnectionCount() - 1);
-            eventSchedulerService.removeEmitter(emitterId);
+            eventSchedulerService.removeEmitter(emitterId, DisconnectReason.COMPLETED);
         });
 
         emitter.onTimeout(() -> {
             log.info("SSE connection timed out: {} (remaining connections: {})", emitterId, eventSchedulerService.getConnectionCount() - 1);
-            eventSchedulerService.removeEmitter(emitterId);
+            eventSchedulerService.removeEmitter(emitterId, DisconnectReason.TIMEOUT);
         });
 
         emitter.onError((ex) -> {
@@ -89,21 +100,12 @@ public class SseController {
                 log.error("SSE connection error: {} (remaining connections: {})",
                     emitterId, eventSchedulerService.getConnectionCount() - 1, ex);
             }
-            eventSchedulerService.removeEmitter(emitterId);
+            eventSchedulerService.removeEmitter(emitterId, DisconnectReason.of(ex));
         });
 
+        // The writer executor sends the initial frames, then anything broadcast meanwhile, while this
+        // thread hands the emitter back; Spring holds a send that beats that until the response is ready
+        subscriber.start(initial);
         return emitter;
     }
-
-
-    @GetMapping("/health")
-    public ResponseEntity<String> health() {
-        return ResponseEntity.ok("SSE Server is running! Active connections: " + eventSchedulerService.getConnectionCount());
-    }
-
-    @GetMapping("/events")
-    public ResponseEntity<List<SystemEvent>> getAllEvents() {
-        List<SystemEvent> events = eventService.getAllEvents();
-        return ResponseEntity.ok(events);
-    }
 }
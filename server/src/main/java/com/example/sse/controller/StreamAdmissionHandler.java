@@ -0,0 +1,35 @@
+package com.example.sse.controller;
+
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import com.example.sse.service.ConnectionLimitExceededException;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Turns a refused stream into a fast 503 on either stack, with the delay in
+ * {@code Retry-After} and as an SSE {@code retry:} field for clients that
+ * read the body.
+ */
+@RestControllerAdvice
+@Slf4j
+public class StreamAdmissionHandler {
+
+    @ExceptionHandler(ConnectionLimitExceededException.class)
+    public ResponseEntity<byte[]> connectionLimitExceeded(ConnectionLimitExceededException e) {
+        log.debug("Refused stream: {}", e.getMessage());
+        long retryAfter = e.getRetryAfterMillis();
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, Long.toString((retryAfter + 999) / 1000))
+            .contentType(MediaType.TEXT_EVENT_STREAM)
+            // Bytes, so neither stack re-encodes the body as SSE data
+            .body(("retry: " + retryAfter + "\n\n").getBytes(StandardCharsets.UTF_8));
+    }
+}
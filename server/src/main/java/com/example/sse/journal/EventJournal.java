@@ -0,0 +1,39 @@
+package com.example.sse.journal;
+
+import java.util.Collection;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import com.example.sse.model.SystemEvent;
+
+/**
+ * Persists changes to the event store. Appends are called from inside the
+ * store's per-key compute, so records for one event are journaled in the
+ * order they were applied. Each returns a ticket the store hands to
+ * {@link #applied} once the compute has returned, so a snapshot knows which
+ * journaled changes it may not see in the store yet.
+ */
+public interface EventJournal {
+
+    /**
+     * Loads the latest snapshot and replays the journal after it.
+     *
+     * @return the events persisted before the last shutdown, empty if none
+     */
+    Collection<SystemEvent> recover();
+
+    /**
+     * Starts background work once recovered events are back in the store;
+     * {@code state} supplies the live events for snapshots.
+     */
+    void start(Supplier<Collection<SystemEvent>> state);
+
+    // Full current state of a created or changed event
+    long append(SystemEvent event);
+
+    // Event removed from the store entirely
+    long appendRemoval(UUID id);
+
+    // The change journaled under the ticket is now visible in the store
+    void applied(long ticket);
+}
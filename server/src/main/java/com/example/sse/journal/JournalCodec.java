@@ -0,0 +1,168 @@
+package com.example.sse.journal;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.CRC32C;
+
+import com.example.sse.model.Severity;
+import com.example.sse.model.SystemEvent;
+
+/**
+ * Binary record format shared by journal segments and snapshots:
+ * {@code [body length][CRC32C of body][body]}, where the body is a type byte
+ * followed by the event fields. The length is written last, so a record torn
+ * by a crash reads as the end of the log.
+ */
+final class JournalCodec {
+
+    static final int HEADER_SIZE = 8;
+    private static final byte UPSERT = 1;
+    private static final byte REMOVE = 2;
+    // type, id, version, createdAt, updatedAt, active, count, severity, two string lengths
+    private static final int FIXED_UPSERT_SIZE = 1 + 16 + 8 + 12 + 12 + 1 + 4 + 1 + 4 + 4;
+    static final int REMOVAL_SIZE = HEADER_SIZE + 1 + 16;
+    private static final Severity[] SEVERITIES = Severity.values();
+
+    private JournalCodec() {
+    }
+
+    // Upper bound on the encoded size, checked before writing so a record never straddles segments
+    static int maxSize(SystemEvent event) {
+        return HEADER_SIZE + FIXED_UPSERT_SIZE + maxUtf8(event.getName()) + maxUtf8(event.getDescription());
+    }
+
+    // Writes the record at the buffer's position and advances past it
+    static void writeUpsert(ByteBuffer buffer, SystemEvent event, CRC32C crc) {
+        int start = buffer.position();
+        buffer.position(start + HEADER_SIZE);
+        buffer.put(UPSERT);
+        putUuid(buffer, event.getId());
+        buffer.putLong(event.getVersion());
+        putInstant(buffer, event.getCreatedAt());
+        putInstant(buffer, event.getUpdatedAt());
+        buffer.put((byte) (event.isActive() ? 1 : 0));
+        buffer.putInt(event.getCount());
+        buffer.put((byte) (event.getSeverity() != null ? event.getSeverity().ordinal() : -1));
+        putString(buffer, event.getName());
+        putString(buffer, event.getDescription());
+        seal(buffer, start, crc);
+    }
+
+    static void writeRemoval(ByteBuffer buffer, UUID id, CRC32C crc) {
+        int start = buffer.position();
+        buffer.position(start + HEADER_SIZE);
+        buffer.put(REMOVE);
+        putUuid(buffer, id);
+        seal(buffer, start, crc);
+    }
+
+    /**
+     * @return the body length of the intact record at {@code position}, or -1
+     *         at the end of the log or at a torn or corrupt record
+     */
+    static int check(ByteBuffer buffer, int position, CRC32C crc) {
+        if (position + HEADER_SIZE > buffer.limit()) {
+            return -1;
+        }
+        int length = buffer.getInt(position);
+        if (length <= 0 || length > buffer.limit() - position - HEADER_SIZE) {
+            return -1;
+        }
+        crc.reset();
+        crc.update(buffer.duplicate().position(position + HEADER_SIZE).limit(position + HEADER_SIZE + length));
+        return (int) crc.getValue() == buffer.getInt(position + 4) ? length : -1;
+    }
+
+    // Applies the record at position (already checked) to the recovered state
+    static void apply(ByteBuffer buffer, int position, Map<UUID, SystemEvent> state) {
+        ByteBuffer body = buffer.duplicate().position(position + HEADER_SIZE);
+        byte type = body.get();
+        UUID id = new UUID(body.getLong(), body.getLong());
+        if (type == REMOVE) {
+            state.remove(id);
+            return;
+        }
+        long version = body.getLong();
+        Instant createdAt = getInstant(body);
+        Instant updatedAt = getInstant(body);
+        boolean active = body.get() == 1;
+        int count = body.getInt();
+        byte severity = body.get();
+        state.put(id, SystemEvent.builder()
+            .id(id)
+            .version(version)
+            .createdAt(createdAt)
+            .updatedAt(updatedAt)
+            .active(active)
+            .count(count)
+            .severity(severity >= 0 ? SEVERITIES[severity] : null)
+            .name(getString(body))
+            .description(getString(body))
+            .build());
+    }
+
+    private static void seal(ByteBuffer buffer, int start, CRC32C crc) {
+        int end = buffer.position();
+        int limit = buffer.limit();
+        buffer.position(start + HEADER_SIZE).limit(end);
+        crc.reset();
+        crc.update(buffer);
+        buffer.limit(limit);
+        buffer.putInt(start + 4, (int) crc.getValue());
+        buffer.putInt(start, end - start - HEADER_SIZE);
+        buffer.position(end);
+    }
+
+    private static void putUuid(ByteBuffer buffer, UUID id) {
+        buffer.putLong(id.getMostSignificantBits());
+        buffer.putLong(id.getLeastSignificantBits());
+    }
+
+    private static void putInstant(ByteBuffer buffer, Instant instant) {
+        buffer.putLong(instant != null ? instant.getEpochSecond() : Long.MIN_VALUE);
+        buffer.putInt(instant != null ? instant.getNano() : 0);
+    }
+
+    private static Instant getInstant(ByteBuffer buffer) {
+        long seconds = buffer.getLong();
+        int nanos = buffer.getInt();
+        return seconds == Long.MIN_VALUE ? null : Instant.ofEpochSecond(seconds, nanos);
+    }
+
+    // Encodes ASCII in place without allocating; anything else falls back to getBytes
+    private static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        int lengthPosition = buffer.position();
+        buffer.position(lengthPosition + 4);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                buffer.position(lengthPosition + 4);
+                buffer.put(value.getBytes(StandardCharsets.UTF_8));
+                break;
+            }
+            buffer.put((byte) c);
+        }
+        buffer.putInt(lengthPosition, buffer.position() - lengthPosition - 4);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int maxUtf8(String value) {
+        return value == null ? 0 : value.length() * 3;
+    }
+}
@@ -0,0 +1,397 @@
+package com.example.sse.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import com.example.sse.config.SseProperties;
+import com.example.sse.model.SystemEvent;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append-only journal in fixed-size memory-mapped segments. Appends are a
+ * copy into the mapped segment under a short lock and never wait for the
+ * disk; a background thread forces dirty pages every
+ * {@code sse.journal.commit-interval}, so many appends share one flush (group
+ * commit) and a crash loses at most that window. The thread also forces each
+ * segment that fills up, so rolling over to the next one only maps it. Snapshots of the whole store
+ * are written in the background, after which older segments are deleted.
+ * <p>
+ * Offsets are global byte positions across segments; each segment file is
+ * named after the offset it starts at, each snapshot after the offset from
+ * which the journal must be replayed on top of it. Records are full event
+ * states, so replaying one that a snapshot already reflects is harmless.
+ * A record is appended before the store holds its change, so a snapshot
+ * starts no later than the oldest record not yet {@link #applied}: the store
+ * it copies has every change journaled before that offset.
+ */
+@Component
+@ConditionalOnProperty(prefix = "sse.journal", name = "enabled", havingValue = "true")
+@Slf4j
+public class MappedEventJournal implements EventJournal {
+
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SNAPSHOT_SUFFIX = ".snapshot";
+    private static final int SNAPSHOT_MAGIC = 0x53534531;
+    private static final int SNAPSHOT_HEADER_SIZE = 12;
+    private static final int SNAPSHOT_BUFFER_SIZE = 1 << 20;
+
+    private final SseProperties.Journal properties;
+    private final Path directory;
+    private final int segmentSize;
+    private final ScheduledExecutorService background =
+        Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("sse-journal-"));
+    // Active segment and where it starts, guarded by this
+    private final CRC32C crc = new CRC32C();
+    private MappedByteBuffer segment;
+    private long segmentBase;
+    // Offsets of the records appended but not yet applied to the store, guarded by this
+    private long[] unapplied = new long[16];
+    private int unappliedCount;
+    // Touched only by the background thread after start()
+    private long committedOffset;
+    private long snapshotOffset;
+    private Supplier<Collection<SystemEvent>> state;
+
+    public MappedEventJournal(SseProperties properties) {
+        this.properties = properties.getJournal();
+        this.directory = Paths.get(this.properties.getDirectory());
+        this.segmentSize = (int) Math.min(Integer.MAX_VALUE, this.properties.getSegmentSize().toBytes());
+    }
+
+    @Override
+    public synchronized Collection<SystemEvent> recover() {
+        long started = System.nanoTime();
+        try {
+            Files.createDirectories(directory);
+            deleteTemporaryFiles();
+            Map<UUID, SystemEvent> restored = new LinkedHashMap<>();
+            snapshotOffset = loadLatestSnapshot(restored);
+            int snapshotEvents = restored.size();
+
+            int records = 0;
+            List<Long> bases = list(SEGMENT_SUFFIX);
+            for (int i = 0; i < bases.size(); i++) {
+                long base = bases.get(i);
+                boolean last = i == bases.size() - 1;
+                if (!last && bases.get(i + 1) <= snapshotOffset) {
+                    continue; // Entirely covered by the snapshot
+                }
+                MappedByteBuffer buffer = map(base);
+                int position = (int) Math.max(0, snapshotOffset - base);
+                int length;
+                while ((length = JournalCodec.check(buffer, position, crc)) >= 0) {
+                    JournalCodec.apply(buffer, position, restored);
+                    position += JournalCodec.HEADER_SIZE + length;
+                    records++;
+                }
+                if (last) {
+                    truncateTail(buffer, position);
+                    segment = buffer;
+                    segmentBase = base;
+                }
+            }
+            if (segment == null) {
+                openSegment(snapshotOffset);
+            }
+            committedOffset = offset();
+
+            log.info("Recovered {} events ({} from snapshot, {} journal records replayed) from {} in {} ms",
+                restored.size(), snapshotEvents, records, directory,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            return restored.values();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to recover event journal from " + directory, e);
+        }
+    }
+
+    @Override
+    public void start(Supplier<Collection<SystemEvent>> state) {
+        this.state = state;
+        long commitMillis = Math.max(1, properties.getCommitInterval().toMillis());
+        background.scheduleWithFixedDelay(this::commitQuietly, commitMillis, commitMillis, TimeUnit.MILLISECONDS);
+        long snapshotMillis = properties.getSnapshotInterval().toMillis();
+        background.scheduleWithFixedDelay(this::snapshotQuietly, snapshotMillis, snapshotMillis, TimeUnit.MILLISECONDS);
+        log.info("Journaling events to {} (commit every {} ms, snapshot every {})",
+            directory, commitMillis, properties.getSnapshotInterval());
+    }
+
+    @Override
+    public synchronized long append(SystemEvent event) {
+        ensureRoom(JournalCodec.maxSize(event));
+        long ticket = unapplied(offset());
+        JournalCodec.writeUpsert(segment, event, crc);
+        return ticket;
+    }
+
+    @Override
+    public synchronized long appendRemoval(UUID id) {
+        ensureRoom(JournalCodec.REMOVAL_SIZE);
+        long ticket = unapplied(offset());
+        JournalCodec.writeRemoval(segment, id, crc);
+        return ticket;
+    }
+
+    @Override
+    public synchronized void applied(long ticket) {
+        // Only as many as there are concurrent writers, so a scan beats anything that allocates
+        for (int i = 0; i < unappliedCount; i++) {
+            if (unapplied[i] == ticket) {
+                unapplied[i] = unapplied[--unappliedCount];
+                return;
+            }
+        }
+    }
+
+    // Called with the lock held
+    private long unapplied(long offset) {
+        if (unappliedCount == unapplied.length) {
+            unapplied = Arrays.copyOf(unapplied, unappliedCount * 2);
+        }
+        unapplied[unappliedCount++] = offset;
+        return offset;
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        background.shutdown();
+        background.awaitTermination(5, TimeUnit.SECONDS);
+        // A final snapshot keeps the next startup from replaying the whole journal
+        snapshotQuietly();
+        commitQuietly();
+    }
+
+    // Called with the lock held
+    private void ensureRoom(int size) {
+        if (segment.remaining() >= size) {
+            return;
+        }
+        if (size > segmentSize) {
+            throw new IllegalStateException("Journal record of up to " + size + " bytes exceeds the segment size");
+        }
+        MappedByteBuffer full = segment;
+        try {
+            openSegment(offset());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open a new journal segment in " + directory, e);
+        }
+        retire(full);
+    }
+
+    /**
+     * Forces the full segment on the commit thread rather than under the lock
+     * appends (and the store entries being written) wait on; it is unmapped once
+     * that drops the last reference. Forced here only once the thread is gone.
+     */
+    private void retire(MappedByteBuffer full) {
+        try {
+            background.execute(() -> {
+                try {
+                    full.force();
+                } catch (RuntimeException e) {
+                    log.error("Failed to commit full journal segment", e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            full.force();
+        }
+    }
+
+    // Called with the lock held
+    private void openSegment(long base) throws IOException {
+        segment = map(base);
+        segmentBase = base;
+        log.debug("Opened journal segment at offset {}", base);
+    }
+
+    // Called with the lock held
+    private long offset() {
+        return segmentBase + segment.position();
+    }
+
+    private void commitQuietly() {
+        MappedByteBuffer current;
+        long offset;
+        synchronized (this) {
+            current = segment;
+            offset = offset();
+        }
+        if (offset == committedOffset) {
+            return;
+        }
+        try {
+            current.force();
+            committedOffset = offset;
+        } catch (RuntimeException e) {
+            log.error("Failed to commit event journal", e);
+        }
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to write event snapshot", e);
+        }
+    }
+
+    void snapshot() throws IOException {
+        long offset;
+        synchronized (this) {
+            // Changes journaled before this are in the store the snapshot copies; later ones are replayed on top
+            offset = offset();
+            for (int i = 0; i < unappliedCount; i++) {
+                offset = Math.min(offset, unapplied[i]);
+            }
+        }
+        if (state == null || offset == snapshotOffset) {
+            return;
+        }
+        long started = System.nanoTime();
+        Path target = file(offset, SNAPSHOT_SUFFIX);
+        Path temporary = directory.resolve(target.getFileName() + ".tmp");
+        int count = 0;
+        try (FileChannel channel = FileChannel.open(temporary,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(SNAPSHOT_BUFFER_SIZE);
+            CRC32C snapshotCrc = new CRC32C();
+            buffer.putInt(SNAPSHOT_MAGIC).putLong(offset);
+            for (SystemEvent event : state.get()) {
+                int size = JournalCodec.maxSize(event);
+                if (buffer.remaining() < size) {
+                    flush(channel, buffer);
+                }
+                if (size > buffer.remaining()) {
+                    throw new IllegalStateException("Event " + event.getId() + " is too large to snapshot");
+                }
+                JournalCodec.writeUpsert(buffer, event, snapshotCrc);
+                count++;
+            }
+            flush(channel, buffer);
+            channel.force(true);
+        }
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        snapshotOffset = offset;
+        compact(offset);
+        log.info("Wrote snapshot of {} events at journal offset {} in {} ms", count, offset,
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    // Drops older snapshots and the segments that end before the snapshot offset
+    private void compact(long offset) throws IOException {
+        for (long older : list(SNAPSHOT_SUFFIX)) {
+            if (older < offset) {
+                Files.deleteIfExists(file(older, SNAPSHOT_SUFFIX));
+            }
+        }
+        List<Long> bases = list(SEGMENT_SUFFIX);
+        for (int i = 0; i + 1 < bases.size() && bases.get(i + 1) <= offset; i++) {
+            Files.deleteIfExists(file(bases.get(i), SEGMENT_SUFFIX));
+        }
+    }
+
+    private long loadLatestSnapshot(Map<UUID, SystemEvent> restored) throws IOException {
+        List<Long> offsets = list(SNAPSHOT_SUFFIX);
+        Collections.reverse(offsets);
+        for (long offset : offsets) {
+            ByteBuffer buffer;
+            try (FileChannel channel = FileChannel.open(file(offset, SNAPSHOT_SUFFIX), StandardOpenOption.READ)) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            if (buffer.limit() < SNAPSHOT_HEADER_SIZE || buffer.getInt(0) != SNAPSHOT_MAGIC
+                    || buffer.getLong(4) != offset) {
+                log.warn("Ignoring unreadable snapshot at offset {}", offset);
+                continue;
+            }
+            int position = SNAPSHOT_HEADER_SIZE;
+            int length;
+            while ((length = JournalCodec.check(buffer, position, crc)) >= 0) {
+                JournalCodec.apply(buffer, position, restored);
+                position += JournalCodec.HEADER_SIZE + length;
+            }
+            return offset;
+        }
+        return 0;
+    }
+
+    // Anything after the last intact record is a torn write; clear it so it is never mistaken for a record
+    private static void truncateTail(MappedByteBuffer buffer, int position) {
+        buffer.position(position);
+        if (position + 4 <= buffer.limit() && buffer.getInt(position) != 0) {
+            for (int i = position; i < buffer.limit(); i++) {
+                buffer.put(i, (byte) 0);
+            }
+        }
+    }
+
+    private MappedByteBuffer map(long base) throws IOException {
+        try (FileChannel channel = FileChannel.open(file(base, SEGMENT_SUFFIX),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = Math.max(channel.size(), segmentSize);
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private Path file(long offset, String suffix) {
+        return directory.resolve(String.format("%020d%s", offset, suffix));
+    }
+
+    // Offsets of the files with this suffix, ascending
+    private List<Long> list(String suffix) throws IOException {
+        List<Long> offsets = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                .filter(name -> name.endsWith(suffix) && name.length() == 20 + suffix.length())
+                .forEach(name -> offsets.add(Long.parseLong(name.substring(0, 20))));
+        }
+        Collections.sort(offsets);
+        return offsets;
+    }
+
+    // Left behind by a snapshot interrupted by a crash
+    private void deleteTemporaryFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : (Iterable<Path>) files::iterator) {
+                if (path.getFileName().toString().endsWith(".tmp")) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        }
+    }
+}
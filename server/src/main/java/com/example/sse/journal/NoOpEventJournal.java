@@ -0,0 +1,42 @@
+package com.example.sse.journal;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.example.sse.model.SystemEvent;
+
+/**
+ * Default when {@code sse.journal.enabled} is off: state lives in memory only.
+ */
+@Component
+@ConditionalOnProperty(prefix = "sse.journal", name = "enabled", havingValue = "false", matchIfMissing = true)
+public class NoOpEventJournal implements EventJournal {
+
+    @Override
+    public Collection<SystemEvent> recover() {
+        return List.of();
+    }
+
+    @Override
+    public void start(Supplier<Collection<SystemEvent>> state) {
+    }
+
+    @Override
+    public long append(SystemEvent event) {
+        return 0;
+    }
+
+    @Override
+    public long appendRemoval(UUID id) {
+        return 0;
+    }
+
+    @Override
+    public void applied(long ticket) {
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.sse.metrics;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Why a stream connection ended, used as the {@code reason} tag of
+ * {@code sse.connections.closed}.
+ */
+public enum DisconnectReason {
+    // The response completed normally
+    COMPLETED,
+    TIMEOUT,
+    // The client went away: an IOException or broken pipe while writing
+    CLIENT_GONE,
+    // The connection's outbound queue overflowed under the DISCONNECT policy
+    OVERFLOW,
+    // A write to the connection blocked for longer than sse.connection.write-stall-timeout
+    STALLED,
+    // Closed with a reconnect frame while the node drained its streams to shut down
+    DRAINED,
+    // Any other failure
+    ERROR;
+
+    public static DisconnectReason of(Throwable e) {
+        if (e instanceof IOException ||
+            e.getCause() instanceof IOException ||
+            e.getMessage() != null && e.getMessage().contains("Broken pipe")) {
+            return CLIENT_GONE;
+        }
+        return ERROR;
+    }
+
+    public String tag() {
+        return name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+}
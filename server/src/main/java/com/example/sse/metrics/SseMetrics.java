@@ -0,0 +1,96 @@
+package com.example.sse.metrics;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Meters of the streaming pipeline. Every meter is registered up front and
+ * tags are fixed at registration, so recording is a counter increment or a
+ * timer update with a {@code System.nanoTime()} duration and allocates
+ * nothing per frame or per connection.
+ */
+@Component
+public class SseMetrics {
+
+    private final Map<Stack, Counter> connects = new EnumMap<>(Stack.class);
+    private final Map<DisconnectReason, Counter> disconnects = new EnumMap<>(DisconnectReason.class);
+    private final Timer broadcast;
+    private final Timer emitterSend;
+    private final Timer serialization;
+    private final Counter framesSent;
+    private final Counter bytesSent;
+
+    public enum Stack {
+        SERVLET, REACTIVE
+    }
+
+    public SseMetrics(MeterRegistry registry) {
+        for (Stack stack : Stack.values()) {
+            connects.put(stack, Counter.builder("sse.connections.opened")
+                .description("Stream connections accepted")
+                .tag("stack", stack.name().toLowerCase(Locale.ROOT))
+                .register(registry));
+        }
+        for (DisconnectReason reason : DisconnectReason.values()) {
+            disconnects.put(reason, Counter.builder("sse.connections.closed")
+                .description("Stream connections ended, by reason")
+                .tag("reason", reason.tag())
+                .register(registry));
+        }
+        broadcast = Timer.builder("sse.broadcast")
+            .description("Time to encode a change and hand it to every matching connection")
+            .publishPercentileHistogram()
+            .register(registry);
+        emitterSend = Timer.builder("sse.emitter.send")
+            .description("Time to write one frame to one servlet connection")
+            .publishPercentileHistogram()
+            .register(registry);
+        serialization = Timer.builder("sse.serialization")
+            .description("Time to serialize a frame payload or snapshot to JSON")
+            .publishPercentileHistogram()
+            .register(registry);
+        framesSent = Counter.builder("sse.frames.sent")
+            .description("Frames written to connections")
+            .register(registry);
+        bytesSent = Counter.builder("sse.bytes.sent")
+            .description("Frame bytes written to connections")
+            .baseUnit("bytes")
+            .register(registry);
+    }
+
+    public void connected(Stack stack) {
+        connects.get(stack).increment();
+    }
+
+    public void disconnected(DisconnectReason reason) {
+        disconnects.get(reason).increment();
+    }
+
+    public void broadcast(long startNanos) {
+        broadcast.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void serialized(long startNanos) {
+        serialization.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    // One frame written to a servlet connection, timed from startNanos
+    public void sent(int bytes, long startNanos) {
+        emitterSend.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        sent(bytes);
+    }
+
+    // One frame written to a connection without a measurable write time (the reactive stack)
+    public void sent(int bytes) {
+        framesSent.increment();
+        bytesSent.increment(bytes);
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.sse.model;
+
+import com.example.sse.stream.OverflowPolicy;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConnectionStats {
+    private String id;
+    private OverflowPolicy overflowPolicy;
+    private int queueDepth;
+    private int queueCapacity;
+    private long sent;
+    private long dropped;
+    private long coalesced;
+}
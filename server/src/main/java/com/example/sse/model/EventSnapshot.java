@@ -0,0 +1,75 @@
+package com.example.sse.model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+import lombok.Getter;
+
+/**
+ * Immutable view of the active events at one store version, together with
+ * their serialized JSON. Both the JSON and its gzip variant are built on first
+ * use, so readers that only walk the events (chunked streams, paged exports)
+ * never pay for serializing the whole store at once.
+ */
+public final class EventSnapshot {
+
+    @Getter
+    private final long version;
+    @Getter
+    private final List<SystemEvent> events;
+    private final Function<List<SystemEvent>, byte[]> serializer;
+    private volatile byte[] json;
+    private volatile byte[] gzip;
+
+    public EventSnapshot(long version, List<SystemEvent> events, Function<List<SystemEvent>, byte[]> serializer) {
+        this.version = version;
+        this.events = List.copyOf(events);
+        this.serializer = serializer;
+    }
+
+    // Callers must not modify the returned arrays; they are shared by every request
+    public byte[] getJson() {
+        byte[] serialized = json;
+        if (serialized == null) {
+            synchronized (this) {
+                serialized = json;
+                if (serialized == null) {
+                    serialized = serializer.apply(events);
+                    json = serialized;
+                }
+            }
+        }
+        return serialized;
+    }
+
+    public byte[] getGzip() {
+        byte[] compressed = gzip;
+        if (compressed == null) {
+            compressed = compress(getJson());
+            gzip = compressed;
+        }
+        return compressed;
+    }
+
+    public String getETag() {
+        return "\"" + version + "\"";
+    }
+
+    public String getGzipETag() {
+        return "\"" + version + "-gzip\"";
+    }
+
+    private static byte[] compress(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream gzipOut = new GZIPOutputStream(out)) {
+            gzipOut.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
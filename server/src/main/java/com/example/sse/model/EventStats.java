@@ -0,0 +1,33 @@
+package com.example.sse.model;
+
+import java.util.UUID;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Rolling aggregates of one event over a recent window, from the count deltas
+ * and severity changes the node has seen. The per-second and per-minute series
+ * are only included where asked for.
+ */
+@Value
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class EventStats {
+    UUID id;
+    Severity severity;
+    // The window actually covered, which longer windows round to whole minutes
+    long windowSeconds;
+    // Sum of the count increases within the window
+    long count;
+    // Count increase per second over the window
+    double rate;
+    int severityChanges;
+    // Highest severity the event had within the window
+    Severity peakSeverity;
+    // Count increase per second and per minute, oldest first, ending with the current one
+    int[] perSecond;
+    int[] perMinute;
+}
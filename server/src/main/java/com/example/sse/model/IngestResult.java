@@ -0,0 +1,26 @@
+package com.example.sse.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.Data;
+
+/**
+ * Outcome of a bulk ingest request. Batches applied before an error stay
+ * applied, so a client can tell from {@code received} where to resume.
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class IngestResult {
+    // Lines read, including skipped and rejected ones
+    private long received;
+    // Changes stored and broadcast
+    private long applied;
+    // UPDATEs and DELETEs of events that do not exist (or are already inactive)
+    private long skipped;
+    // Lines missing the fields their operation needs
+    private long rejected;
+    // Batches the applied changes were broadcast in
+    private long batches;
+    // Why the request stopped early, if it did
+    private String error;
+}
@@ -3,22 +3,33 @@ package com.example.sse.model;
 import java.time.Instant;
 import java.util.UUID;
 
-import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
 
-@Data
-@Builder
-@NoArgsConstructor
-@AllArgsConstructor
+/**
+ * An immutable version of an event. Changes build a copy with the next
+ * version and swap it into the store, so a reader holding an instance (a
+ * snapshot being serialized, a queued broadcast) always sees one consistent
+ * version without copying it.
+ */
+@Value
+@Builder(toBuilder = true)
+@Jacksonized
 public class SystemEvent {
-    private UUID id;
-    private String name;
-    private String description;
-    private Severity severity;
-    private Instant createdAt;
-    private Instant updatedAt;
-    private boolean active;
-    private int count;
+    UUID id;
+    String name;
+    String description;
+    Severity severity;
+    Instant createdAt;
+    Instant updatedAt;
+    boolean active;
+    int count;
+    // Incremented on every change so clients applying deltas can detect gaps
+    long version;
+
+    /** The builder for the next version of this event, stamped with the given time. */
+    public SystemEventBuilder next(Instant now) {
+        return toBuilder().version(version + 1).updatedAt(now);
+    }
 }
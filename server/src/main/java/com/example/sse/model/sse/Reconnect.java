@@ -0,0 +1,19 @@
+package com.example.sse.model.sse;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.Value;
+
+/**
+ * Payload of the {@code reconnect} frame a stream ends with when its node
+ * drains for shutdown. The client should reconnect after {@code retry}
+ * milliseconds, which the frame also sets as its {@code retry:} field, and
+ * resume after {@code sequence}, the frame's id; it has none when the stream
+ * was not yet sent any.
+ */
+@Value
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class Reconnect {
+    Long sequence;
+    long retry;
+}
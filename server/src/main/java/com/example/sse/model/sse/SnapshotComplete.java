@@ -0,0 +1,15 @@
+package com.example.sse.model.sse;
+
+import lombok.Value;
+
+/**
+ * Payload of the {@code initial-complete} frame that ends a chunked snapshot.
+ * The snapshot holds every change up to {@code sequence}; the frames that
+ * follow carry later changes only.
+ */
+@Value
+public class SnapshotComplete {
+    long sequence;
+    int events;
+    int chunks;
+}
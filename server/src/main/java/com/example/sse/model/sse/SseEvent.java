@@ -1,6 +1,7 @@
 package com.example.sse.model.sse;
 
 import com.example.sse.model.SystemEvent;
+import com.fasterxml.jackson.annotation.JsonInclude;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -8,10 +9,25 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class SseEvent {
     private Operation operation;
     private SystemEvent event;
+    // Changed fields only, set for UPDATEs; see withoutDelta() and deltaOnly()
+    private SystemEventDelta delta;
+    // Broadcast order, also sent as the SSE id so clients can resume with Last-Event-ID
+    private long sequence;
+
+    // Full form sent to clients that did not ask for deltas
+    public SseEvent withoutDelta() {
+        return delta == null ? this : toBuilder().delta(null).build();
+    }
+
+    // Compact form for delta clients: UPDATEs carry only the changed fields
+    public SseEvent deltaOnly() {
+        return delta == null ? this : toBuilder().event(null).build();
+    }
 }
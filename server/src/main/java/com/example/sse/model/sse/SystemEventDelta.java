@@ -0,0 +1,71 @@
+package com.example.sse.model.sse;
+
+import java.time.Instant;
+import java.util.Objects;
+import java.util.UUID;
+
+import com.example.sse.model.Severity;
+import com.example.sse.model.SystemEvent;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The fields of a {@link SystemEvent} that changed between two versions;
+ * unchanged fields are {@code null} and left out of the JSON. A client holding
+ * {@code baseVersion} of the event can apply it to reach {@code version}; any
+ * other version means it missed a change and should fetch the event again.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SystemEventDelta {
+    private UUID id;
+    private long baseVersion;
+    private long version;
+    private String name;
+    private String description;
+    private Severity severity;
+    private Instant updatedAt;
+    private Boolean active;
+    private Integer count;
+
+    public static SystemEventDelta between(SystemEvent before, SystemEvent after) {
+        return SystemEventDelta.builder()
+            .id(after.getId())
+            .baseVersion(before.getVersion())
+            .version(after.getVersion())
+            .name(changed(before.getName(), after.getName()))
+            .description(changed(before.getDescription(), after.getDescription()))
+            .severity(changed(before.getSeverity(), after.getSeverity()))
+            .updatedAt(changed(before.getUpdatedAt(), after.getUpdatedAt()))
+            .active(changed(before.isActive(), after.isActive()))
+            .count(changed(before.getCount(), after.getCount()))
+            .build();
+    }
+
+    /**
+     * Folds a later delta of the same event into this one, so the result takes
+     * a client from this delta's base version straight to the later version.
+     */
+    public SystemEventDelta merge(SystemEventDelta later) {
+        return toBuilder()
+            .version(later.getVersion())
+            .name(later.getName() != null ? later.getName() : name)
+            .description(later.getDescription() != null ? later.getDescription() : description)
+            .severity(later.getSeverity() != null ? later.getSeverity() : severity)
+            .updatedAt(later.getUpdatedAt() != null ? later.getUpdatedAt() : updatedAt)
+            .active(later.getActive() != null ? later.getActive() : active)
+            .count(later.getCount() != null ? later.getCount() : count)
+            .build();
+    }
+
+    private static <T> T changed(T before, T after) {
+        return Objects.equals(before, after) ? null : after;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.sse.service;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a stream is refused because the node already holds
+ * {@code sse.connection.max-connections} streams, or is draining them to shut down.
+ */
+@Getter
+public class ConnectionLimitExceededException extends RuntimeException {
+
+    // How long the client should wait before reconnecting
+    private final long retryAfterMillis;
+
+    public ConnectionLimitExceededException(int maxConnections, long retryAfterMillis) {
+        this("Connection limit of " + maxConnections + " reached", retryAfterMillis);
+    }
+
+    public ConnectionLimitExceededException(String message, long retryAfterMillis) {
+        super(message);
+        this.retryAfterMillis = retryAfterMillis;
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.sse.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+
+import com.example.sse.bus.EventBus;
+import com.example.sse.config.SseProperties;
+import com.example.sse.model.IngestResult;
+import com.example.sse.model.SystemEvent;
+import com.example.sse.model.sse.Operation;
+import com.example.sse.model.sse.SseEvent;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Changes pushed in through the write API. They are applied to the store and
+ * published on the event bus like generated ones; a bulk request is applied
+ * in batches that are each published together.
+ */
+@Service
+@Slf4j
+public class EventIngestService {
+
+    private final EventService eventService;
+    private final EventBus eventBus;
+    private final int batchSize;
+    private final Duration maxDelay;
+
+    public EventIngestService(EventService eventService, EventBus eventBus, SseProperties properties) {
+        this.eventService = eventService;
+        this.eventBus = eventBus;
+        this.batchSize = properties.getIngest().getBatchSize();
+        this.maxDelay = properties.getIngest().getMaxDelay();
+    }
+
+    /**
+     * Applies and broadcasts a single change.
+     *
+     * @return the change as broadcast, or null if it targets an event that does not exist
+     * @throws IllegalArgumentException if the event lacks a field the operation needs
+     */
+    public SseEvent write(Operation operation, SystemEvent event) {
+        String problem = validate(operation, event);
+        if (problem != null) {
+            throw new IllegalArgumentException(problem);
+        }
+        return eventService.write(operation, event, eventBus::publish);
+    }
+
+    /**
+     * Applies changes as they are decoded, in batches of up to {@code sse.ingest.batch-size}
+     * so the request is never held in memory as a whole. A partial batch is applied after
+     * {@code sse.ingest.max-delay}, so a producer streaming slowly is not held back. A line
+     * that cannot be decoded ends the request; the batches before it stay applied.
+     */
+    public Mono<IngestResult> ingest(Flux<SseEvent> requests) {
+        IngestResult result = new IngestResult();
+        return requests
+            // Ends the stream at the bad line instead of failing it, so the lines buffered before it still apply
+            .onErrorResume(e -> {
+                result.setError(e.getMessage());
+                return Flux.empty();
+            })
+            .bufferTimeout(batchSize, maxDelay)
+            // Store writes and broadcasts can block on the journal, so keep them off request threads
+            .publishOn(Schedulers.boundedElastic())
+            .doOnNext(batch -> apply(batch, result))
+            .then(Mono.fromSupplier(() -> {
+                log.info("Ingested {} changes in {} batches ({} skipped, {} rejected){}", result.getApplied(),
+                    result.getBatches(), result.getSkipped(), result.getRejected(),
+                    result.getError() != null ? ", stopped at an undecodable line" : "");
+                return result;
+            }));
+    }
+
+    private void apply(List<SseEvent> requests, IngestResult result) {
+        List<SseEvent> valid = new ArrayList<>(requests.size());
+        for (SseEvent request : requests) {
+            result.setReceived(result.getReceived() + 1);
+            String problem = validate(request.getOperation(), request.getEvent());
+            if (problem != null) {
+                result.setRejected(result.getRejected() + 1);
+                log.debug("Rejected change {} of a bulk request: {}", result.getReceived(), problem);
+            } else {
+                valid.add(request);
+            }
+        }
+        List<SseEvent> changes = eventService.writeAll(valid, eventBus::publishAll);
+        result.setSkipped(result.getSkipped() + valid.size() - changes.size());
+        if (!changes.isEmpty()) {
+            result.setApplied(result.getApplied() + changes.size());
+            result.setBatches(result.getBatches() + 1);
+        }
+    }
+
+    private static String validate(Operation operation, SystemEvent event) {
+        if (operation == null) {
+            return "operation is required";
+        }
+        if (event == null) {
+            return "event is required";
+        }
+        if (operation != Operation.CREATE && event.getId() == null) {
+            return "event.id is required for " + operation;
+        }
+        if (operation != Operation.DELETE && (event.getName() == null || event.getSeverity() == null)) {
+            return "event.name and event.severity are required for " + operation;
+        }
+        return null;
+    }
+}
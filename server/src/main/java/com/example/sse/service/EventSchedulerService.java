@@ -1,40 +1,525 @@
 package com.example.sse.service;
 
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
-import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.example.sse.bus.EventBus;
+import com.example.sse.config.SseProperties;
+import com.example.sse.metrics.DisconnectReason;
+import com.example.sse.metrics.SseMetrics;
+import com.example.sse.model.ConnectionStats;
+import com.example.sse.model.EventSnapshot;
+import com.example.sse.model.EventStats;
+import com.example.sse.model.SystemEvent;
+import com.example.sse.model.sse.Operation;
+import com.example.sse.model.sse.Reconnect;
+import com.example.sse.model.sse.SnapshotComplete;
 import com.example.sse.model.sse.SseEvent;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.sse.stream.ChangeCoalescer;
+import com.example.sse.stream.ChunkedSnapshot;
+import com.example.sse.stream.EventFilter;
+import com.example.sse.stream.EventReplayBuffer;
+import com.example.sse.stream.OverflowPolicy;
+import com.example.sse.stream.ShardedFanOut;
+import com.example.sse.stream.SseFrame;
+import com.example.sse.stream.SseFrameEncoder;
+import com.example.sse.stream.SseSubscriber;
+import com.example.sse.stream.StreamOptions;
+import com.example.sse.stream.SubscriberGroup;
+import com.example.sse.stream.TimerWheel;
+import com.example.sse.stream.WireFormat;
+import com.fasterxml.jackson.core.JsonProcessingException;
 
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PreDestroy;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class EventSchedulerService {
 
+    // Full and delta event-change frames per wire format
+    private static final int FRAME_FORMS = WireFormat.values().length * 2;
+    // Snapshots built outside broadcastLock before one is built under it
+    private static final int SNAPSHOT_ATTEMPTS = 3;
+
     private final EventService eventService;
-    private final ObjectMapper objectMapper;
-    private final Map<String, SseEmitter> emitters = new ConcurrentHashMap<>();
+    private final EventBus eventBus;
+    private final EventSnapshotService eventSnapshotService;
+    private final EventStatsService eventStatsService;
+    private final SseFrameEncoder frameEncoder;
+    private final SseMetrics metrics;
+    private final SseProperties.Subscriber subscriberProperties;
+    private final SseProperties.Reactive reactiveProperties;
+    private final SseProperties.Batch batchProperties;
+    private final SseProperties.Connection connectionProperties;
+    private final SseProperties.Fanout fanoutProperties;
+    private final SseProperties.Drain drainProperties;
+    private final SseProperties.Stats statsProperties;
+    private final Map<String, SseSubscriber> subscribers = new ConcurrentHashMap<>();
+    // Servlet and reactive connections, counted as they come and go so reading it costs nothing
+    private final AtomicInteger connections = new AtomicInteger();
+    // Connections grouped by their normalized StreamOptions; added under broadcastLock, dropped when the last member leaves
+    private final Map<StreamOptions, SubscriberGroup> groups = new ConcurrentHashMap<>();
     private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+    private final ExecutorService writers;
+    // Offers a frame to the shards of a large group in parallel
+    private final ShardedFanOut fanOut;
+    private final EventReplayBuffer replayBuffer;
+    // Servlet connections due for a heartbeat or stall check; visited every wheel tick
+    private final TimerWheel<SseSubscriber> connectionWheel;
+    private final SseFrame heartbeatFrame;
+    // Last sequence number broadcast on this node; the event bus assigns them
+    private final AtomicLong sequence;
+    // Orders sequence assignment, replay buffer appends and subscriber registration
+    private final Object broadcastLock = new Object();
+    // initial-events frames of the latest store version by filter and format, with the sequence in their id
+    private final Map<StreamOptions, InitialFrame> initialFrames = new ConcurrentHashMap<>();
+    // Chunked snapshots of the latest store version by filter and format
+    private final Map<StreamOptions, ChunkedSnapshot> chunkedSnapshots = new ConcurrentHashMap<>();
+    private final int snapshotChunkSize;
     private volatile boolean schedulerStarted = false;
+    // Set under broadcastLock once drain() starts; no stream is accepted after that
+    private boolean draining = false;
+    private CompletableFuture<Void> drained;
+    // Emits when draining starts, so each reactive stream can schedule its own end
+    private final Sinks.One<Boolean> drainStarted = Sinks.one();
+
+    public EventSchedulerService(EventService eventService, EventBus eventBus, EventSnapshotService eventSnapshotService,
+                                 EventStatsService eventStatsService, SseFrameEncoder frameEncoder, SseMetrics metrics,
+                                 SseProperties properties) {
+        this.eventService = eventService;
+        this.eventBus = eventBus;
+        this.sequence = new AtomicLong(eventBus.currentSequence());
+        this.eventSnapshotService = eventSnapshotService;
+        this.eventStatsService = eventStatsService;
+        this.frameEncoder = frameEncoder;
+        this.metrics = metrics;
+        this.subscriberProperties = properties.getSubscriber();
+        this.reactiveProperties = properties.getReactive();
+        this.batchProperties = properties.getBatch();
+        this.connectionProperties = properties.getConnection();
+        this.fanoutProperties = properties.getFanout();
+        this.drainProperties = properties.getDrain();
+        this.statsProperties = properties.getStats();
+        this.snapshotChunkSize = properties.getSnapshot().getChunkSize();
+        this.writers = writerPool(subscriberProperties);
+        int shards = fanoutProperties.getShards();
+        this.fanOut = new ShardedFanOut(shards > 0 ? shards : Runtime.getRuntime().availableProcessors());
+        this.replayBuffer = new EventReplayBuffer(properties.getReplay().getCapacity(),
+            properties.getReplay().getMaxAge(), sequence.get());
+        Duration heartbeatIdle = connectionProperties.getHeartbeatIdle();
+        Duration writeStallTimeout = connectionProperties.getWriteStallTimeout();
+        this.connectionWheel = new TimerWheel<>(connectionProperties.getWheelTick(),
+            heartbeatIdle.compareTo(writeStallTimeout) >= 0 ? heartbeatIdle : writeStallTimeout);
+        this.heartbeatFrame = frameEncoder.encodeComment("heartbeat");
+        joinEventBus();
+    }
+
+    /**
+     * Drains run on virtual threads when configured, otherwise on a fork-join
+     * pool: fan-out threads hand it drains concurrently, and unlike a single
+     * shared task queue its per-thread submission queues do not make them
+     * contend with each other. Async mode keeps drains first in, first out.
+     */
+    private static ExecutorService writerPool(SseProperties.Subscriber properties) {
+        if (properties.isVirtualThreads()) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("sse-writer-", 0).factory());
+        }
+        return new ForkJoinPool(properties.getWriterThreads(), pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("sse-writer-" + thread.getPoolIndex());
+            return thread;
+        }, null, true);
+    }
+
+    // Catches up with the events other nodes hold; the first node seeds the samples the others copy
+    private void joinEventBus() {
+        Collection<SystemEvent> existing = eventBus.subscribe(new EventBus.Listener() {
+            @Override
+            public void onChange(SseEvent change, boolean remote) {
+                EventSchedulerService.this.onChange(change, remote);
+            }
+
+            @Override
+            public void onBatch(List<SseEvent> changes, boolean remote) {
+                EventSchedulerService.this.onBatch(changes, remote);
+            }
+        }, eventService::getActiveEvents);
+        if (existing.isEmpty()) {
+            eventService.initializeSampleEvents();
+            return;
+        }
+        for (SystemEvent event : existing) {
+            eventService.apply(SseEvent.builder().operation(Operation.CREATE).event(event).build());
+        }
+    }
+
+    /**
+     * Creates a subscriber for the emitter. It is not registered for broadcasts
+     * until {@link #subscribe} is called.
+     */
+    public SseSubscriber createSubscriber(String emitterId, SseEmitter emitter, OverflowPolicy overflowPolicy,
+                                         StreamOptions options) {
+        OverflowPolicy policy = overflowPolicy != null ? overflowPolicy : subscriberProperties.getOverflowPolicy();
+        return new SseSubscriber(emitterId, emitter, policy, options,
+            subscriberProperties.getQueueCapacity(), subscriberProperties.getDrainBatchSize(),
+            writers, metrics, this::handleWriteFailure);
+    }
+
+    /**
+     * Registers the subscriber for broadcasts and returns the frames it must be
+     * sent first: the deltas missed since {@code lastEventId} when the replay
+     * buffer still holds all of them, otherwise a full {@code initial-events}
+     * snapshot, or {@code initial-chunk} frames and an {@code initial-complete}
+     * watermark when {@code chunked}, followed by the changes broadcast while the
+     * snapshot was built. See {@link #open}.
+     *
+     * @throws ConnectionLimitExceededException if the node is at {@code sse.connection.max-connections}
+     */
+    public List<SseFrame> subscribe(SseSubscriber subscriber, String lastEventId, boolean chunked)
+            throws JsonProcessingException {
+        return open(subscriber.getId(), lastEventId, subscriber.getOptions(), chunked, group -> {
+            // The initial frames reach the sequence broadcast so far; later broadcasts are queued behind them
+            subscriber.startAt(sequence.get());
+            if (subscribers.put(subscriber.getId(), subscriber) == null) {
+                connections.incrementAndGet();
+            }
+            group.add(subscriber);
+            connectionWheel.schedule(subscriber, connectionProperties.getHeartbeatIdle().toNanos());
+            metrics.connected(SseMetrics.Stack.SERVLET);
+            log.info("Added emitter {} with {} overflow policy (total connections: {}, stream groups: {})",
+                subscriber.getId(), subscriber.getOverflowPolicy(), subscribers.size(), groups.size());
+        });
+    }
+
+    /**
+     * Reactive counterpart of {@link #subscribe}: the initial frames followed by
+     * live frames from the multicast sink. The sink is subscribed along with
+     * choosing the initial frames and live frames at or below their sequence are
+     * skipped, so nothing is lost or duplicated in between; up to
+     * {@code sse.reactive.buffer-size} frames broadcast while the initial ones
+     * are written wait for them. Each stream buffers
+     * on its own according to {@code sse.reactive.*}, so a slow client only
+     * drops its own frames.
+     */
+    public Flux<SseFrame> streamFrames(String lastEventId, StreamOptions options, boolean chunked) {
+        return Flux.defer(() -> {
+            String streamId = UUID.randomUUID().toString();
+            AtomicReference<Disposable> connection = new AtomicReference<>();
+            AtomicReference<Flux<SseFrame>> connected = new AtomicReference<>();
+            AtomicLong pinned = new AtomicLong();
+            AtomicReference<SubscriberGroup> joined = new AtomicReference<>();
+            List<SseFrame> initial;
+            try {
+                initial = open(streamId, lastEventId, options, chunked, group -> {
+                    // Holds what is broadcast while the initial frames go out (publish() would drop it
+                    // with nobody subscribed yet), keeping the newest like the stream's own buffer
+                    connected.set(withBackpressure(group.sinkFor(streamId).asFlux()
+                        .replay(reactiveProperties.getBufferSize())
+                        .autoConnect(0, connection::set), streamId));
+                    pinned.set(sequence.get());
+                    joined.set(group);
+                    connections.incrementAndGet();
+                });
+            } catch (ConnectionLimitExceededException | JsonProcessingException e) {
+                return Flux.error(e); // Failed before the sink was subscribed
+            }
+            Flux<SseFrame> live = connected.get();
+            long watermark = pinned.get();
+            metrics.connected(SseMetrics.Stack.REACTIVE);
+            log.info("Added reactive stream {} (total connections: {})", streamId, getConnectionCount());
+
+            // Sequence of the last frame with an id passed on, for the reconnect frame a drain ends with
+            AtomicLong lastSequence = new AtomicLong();
+            AtomicBoolean drainedStream = new AtomicBoolean();
+            return Flux.fromIterable(initial)
+                .concatWith(live.filter(frame -> frame.getId() == null || frame.getSequence() > watermark))
+                .takeUntilOther(drainStarted.asMono()
+                    .flatMap(started -> Mono.delay(drainWaveDelay()))
+                    .doOnNext(wave -> drainedStream.set(true)))
+                .doOnNext(frame -> {
+                    if (frame.getId() != null) {
+                        lastSequence.set(frame.getId());
+                    }
+                })
+                .concatWith(Mono.defer(() -> drainedStream.get()
+                    ? Mono.fromCallable(() -> reconnectFrame(options.getFormat(), lastSequence.get()))
+                    : Mono.empty()))
+                .doOnNext(frame -> metrics.sent(frame.size()))
+                .doFinally(signal -> {
+                    connection.get().dispose();
+                    connections.decrementAndGet();
+                    leave(joined.get());
+                    metrics.disconnected(drainedStream.get() ? DisconnectReason.DRAINED : switch (signal) {
+                        case ON_COMPLETE -> DisconnectReason.COMPLETED;
+                        case ON_ERROR -> DisconnectReason.ERROR;
+                        default -> DisconnectReason.CLIENT_GONE;
+                    });
+                    log.info("Reactive stream {} ended with {} (remaining connections: {})",
+                        streamId, signal, getConnectionCount());
+                });
+        });
+    }
+
+    private Flux<SseFrame> withBackpressure(Flux<SseFrame> frames, String streamId) {
+        if (reactiveProperties.getBackpressure() == SseProperties.Backpressure.LATEST) {
+            return frames.onBackpressureLatest();
+        }
+        return frames.onBackpressureBuffer(reactiveProperties.getBufferSize(),
+            dropped -> log.debug("Dropped frame {} for slow reactive stream {}", dropped.getId(), streamId),
+            BufferOverflowStrategy.DROP_OLDEST);
+    }
+
+    // Called with broadcastLock held, so registrations cannot overshoot the limit
+    private void checkConnectionLimit() {
+        if (draining) {
+            long retryAfter = connectionProperties.getRetryAfter().toMillis();
+            throw new ConnectionLimitExceededException("Draining streams to shut down",
+                retryAfter + ThreadLocalRandom.current().nextLong(retryAfter + 1));
+        }
+        int maxConnections = connectionProperties.getMaxConnections();
+        if (maxConnections > 0 && getConnectionCount() >= maxConnections) {
+            // Jittered, so clients refused together do not all come back together
+            long retryAfter = connectionProperties.getRetryAfter().toMillis();
+            throw new ConnectionLimitExceededException(maxConnections,
+                retryAfter + ThreadLocalRandom.current().nextLong(retryAfter + 1));
+        }
+    }
+
+    // Called with broadcastLock held: counts a new member into its group, creating the group for the first one
+    private SubscriberGroup join(StreamOptions options) {
+        return groups.compute(options, (key, group) -> {
+            SubscriberGroup joined = group != null ? group : new SubscriberGroup(key, fanOut.getShards());
+            joined.join();
+            return joined;
+        });
+    }
+
+    // Counts a member out of its group, dropping the group with the last one; in the same compute as join()
+    private void leave(SubscriberGroup group) {
+        groups.computeIfPresent(group.getOptions(), (key, current) -> {
+            group.leave();
+            return current == group && group.isIdle() ? null : current;
+        });
+    }
+
+    /**
+     * Chooses the frames a new stream is sent first and registers it, with no
+     * broadcast in between: the missed deltas when it resumes from a sequence the
+     * replay buffer still covers, otherwise a snapshot. Snapshots are built and
+     * encoded outside broadcastLock, then the changes broadcast since are added
+     * from the replay buffer, so subscribing never holds up broadcasts for the
+     * size of the store. Only if changes outrun the buffer on every attempt is
+     * the snapshot built under the lock.
+     */
+    private List<SseFrame> open(String streamId, String lastEventIdHeader, StreamOptions options, boolean chunked,
+                                Consumer<SubscriberGroup> register) throws JsonProcessingException {
+        Long lastEventId = parseEventId(lastEventIdHeader);
+        InitialSnapshot snapshot = null;
+        for (int attempt = 0; ; attempt++) {
+            synchronized (broadcastLock) {
+                checkConnectionLimit();
+                List<SseFrame> initial = snapshot == null
+                    ? resumeFrames(streamId, lastEventId, options)
+                    : snapshotFrames(options, snapshot, chunked, attempt);
+                if (initial != null) {
+                    register.accept(join(options));
+                    return initial;
+                }
+            }
+            snapshot = prepareSnapshot(options, chunked);
+        }
+    }
+
+    // Called with broadcastLock held: the missed deltas, or null if the stream needs a snapshot
+    private List<SseFrame> resumeFrames(String clientId, Long lastEventId, StreamOptions options) {
+        if (lastEventId == null) {
+            return null;
+        }
+        if (!options.usesSharedFrames()) {
+            // The replay buffer holds unfiltered JSON frames; a filtered or compact snapshot is small anyway
+            log.info("Stream {} resumes from a snapshot in its own filter and format", clientId);
+            return null;
+        }
+        List<SseFrame> missed = replayBuffer.since(lastEventId);
+        if (missed != null) {
+            log.info("Resuming {} after event {} with {} missed events", clientId, lastEventId, missed.size());
+        } else {
+            log.info("Event {} is no longer replayable, sending {} a full snapshot", lastEventId, clientId);
+        }
+        return missed;
+    }
+
+    /**
+     * Called with broadcastLock held: the snapshot frames followed by the changes
+     * broadcast after the snapshot's sequence, or null to build a newer snapshot
+     * if the replay buffer no longer holds them all.
+     */
+    private List<SseFrame> snapshotFrames(StreamOptions options, InitialSnapshot snapshot, boolean chunked,
+                                          int attempt) throws JsonProcessingException {
+        List<SseFrame> since = framesSince(options, snapshot.getSequence());
+        if (since == null) {
+            if (attempt < SNAPSHOT_ATTEMPTS) {
+                return null;
+            }
+            log.debug("Changes outran the replay buffer while building a snapshot, building it under the lock");
+            return prepareSnapshot(options, chunked).getFrames();
+        }
+        return concat(snapshot.getFrames(), since);
+    }
+
+    /**
+     * The changes broadcast after the sequence as event-change frames in the stream's
+     * filter and format, or null if the replay buffer no longer holds all of them.
+     * Full events like replayed frames, since the snapshot may already be past a
+     * delta's base version.
+     */
+    private List<SseFrame> framesSince(StreamOptions options, long since) throws JsonProcessingException {
+        if (since == sequence.get()) {
+            return List.of();
+        }
+        if (options.usesSharedFrames()) {
+            return replayBuffer.since(since);
+        }
+        List<SseEvent> changes = replayBuffer.changesSince(since);
+        if (changes == null) {
+            return null;
+        }
+        List<SseFrame> frames = new ArrayList<>();
+        for (SseEvent change : changes) {
+            if (options.getFilter().matches(change)) {
+                frames.add(frameEncoder.encode(options.getFormat(), "event-change", change.getSequence(),
+                    change.withoutDelta(), change.getEvent().getId()));
+            }
+        }
+        return frames;
+    }
+
+    /**
+     * A snapshot in the stream's filter and format, current to at least the
+     * sequence broadcast before it was taken: changes are stored before they are
+     * broadcast, so it holds every change up to that sequence, and maybe some
+     * after it, which are sent again with the frames since.
+     */
+    private InitialSnapshot prepareSnapshot(StreamOptions options, boolean chunked) throws JsonProcessingException {
+        long snapshotSequence = sequence.get();
+        EventSnapshot snapshot = eventSnapshotService.getSnapshot();
+        // Snapshots depend on the filter and format only, so streams that differ in batch or delta share them
+        StreamOptions form = StreamOptions.builder().filter(options.getFilter()).format(options.getFormat()).build();
+        List<SseFrame> frames = chunked
+            ? chunkedFrames(form, snapshot, snapshotSequence)
+            : List.of(initialEventsFrame(form, snapshot, snapshotSequence));
+        return new InitialSnapshot(snapshotSequence, frames);
+    }
+
+    // Reconnect storms hit this for every client; only re-framed when the snapshot or sequence moved
+    private SseFrame initialEventsFrame(StreamOptions form, EventSnapshot snapshot, long snapshotSequence)
+            throws JsonProcessingException {
+        InitialFrame cached = initialFrames.get(form);
+        if (cached != null && cached.getVersion() == snapshot.getVersion()
+                && cached.getFrame().getSequence() == snapshotSequence) {
+            return cached.getFrame();
+        }
+        SseFrame frame;
+        if (form.usesSharedFrames()) {
+            frame = frameEncoder.encodeJson("initial-events", snapshotSequence, snapshot.getJson(), null);
+        } else {
+            frame = frameEncoder.encode(form.getFormat(), "initial-events", snapshotSequence,
+                matching(snapshot, form.getFilter()), null);
+        }
+        // No stream starts on an older version again, so let those frames go
+        initialFrames.values().removeIf(stale -> stale.getVersion() < snapshot.getVersion());
+        initialFrames.merge(form, new InitialFrame(snapshot.getVersion(), frame),
+            (current, built) -> current.getVersion() > built.getVersion() ? current : built);
+        return frame;
+    }
+
+    /**
+     * The snapshot as initial-chunk frames, then an initial-complete frame whose id
+     * is the sequence the snapshot is current to. The chunks are encoded as the
+     * stream writes them.
+     */
+    private List<SseFrame> chunkedFrames(StreamOptions form, EventSnapshot snapshot, long snapshotSequence)
+            throws JsonProcessingException {
+        ChunkedSnapshot chunks = chunkedSnapshots.get(form);
+        if (chunks == null || chunks.getVersion() != snapshot.getVersion()) {
+            // No stream starts on an older version again, so let its encoded chunks go
+            chunkedSnapshots.values().removeIf(stale -> stale.getVersion() < snapshot.getVersion());
+            chunks = new ChunkedSnapshot(snapshot.getVersion(), matching(snapshot, form.getFilter()), snapshotChunkSize,
+                form.getFormat(), frameEncoder);
+            chunkedSnapshots.merge(form, chunks,
+                (current, built) -> current.getVersion() > built.getVersion() ? current : built);
+        }
+        SseFrame complete = frameEncoder.encode(form.getFormat(), "initial-complete", snapshotSequence,
+            new SnapshotComplete(snapshotSequence, chunks.getEventCount(), chunks.getChunkCount()), null);
+        return chunks.frames(complete);
+    }
+
+    private static List<SystemEvent> matching(EventSnapshot snapshot, EventFilter filter) {
+        return filter.isEmpty() ? snapshot.getEvents() : snapshot.getEvents().stream()
+            .filter(filter::matches)
+            .collect(Collectors.toList());
+    }
+
+    // The frames followed by more, without walking the first list, whose chunks may be encoded on access
+    private static List<SseFrame> concat(List<SseFrame> frames, List<SseFrame> more) {
+        if (more.isEmpty()) {
+            return frames;
+        }
+        return new AbstractList<>() {
+            @Override
+            public SseFrame get(int index) {
+                return index < frames.size() ? frames.get(index) : more.get(index - frames.size());
+            }
 
-    public void addEmitter(String emitterId, SseEmitter emitter) {
-        emitters.put(emitterId, emitter);
-        log.info("Added emitter {} (total connections: {})", emitterId, emitters.size());
+            @Override
+            public int size() {
+                return frames.size() + more.size();
+            }
+        };
     }
 
-    public void removeEmitter(String emitterId) {
-        emitters.remove(emitterId);
-        log.info("Removed emitter {} (remaining connections: {})", emitterId, emitters.size());
+    /**
+     * Removes the connection; only the first removal is counted, so the reason
+     * is whatever ended it first (a failed write, an error, a completion).
+     */
+    public void removeEmitter(String emitterId, DisconnectReason reason) {
+        SseSubscriber removed = unregister(emitterId);
+        if (removed != null) {
+            removed.close();
+            metrics.disconnected(reason);
+            log.info("Removed emitter {} (remaining connections: {})", emitterId, subscribers.size());
+        }
     }
 
     public void startScheduler() {
@@ -42,65 +527,484 @@ public class EventSchedulerService {
             return;
         }
 
+        // Changes come from the WorkloadGenerator; this only expires inactive events
         scheduler.scheduleAtFixedRate(() -> {
             try {
-                // Clean up inactive events first
                 eventService.cleanupInactiveEvents();
+            } catch (Exception e) {
+                log.error("Error cleaning up inactive events", e);
+            }
+        }, 1, 1, TimeUnit.SECONDS);
 
-                if (emitters.isEmpty()) {
-                    return;
-                }
-
-                SseEvent sseEvent = eventService.updateRandomEvent();
-                String eventJson = objectMapper.writeValueAsString(sseEvent);
-
-                // Broadcast to all connected clients
-                int initialSize = emitters.size();
-                emitters.entrySet().removeIf(entry -> {
-                    try {
-                        entry.getValue().send(SseEmitter.event()
-                            .name("event-change")
-                            .data(eventJson));
-                        return false; // Keep the entry
-                    } catch (Exception e) {
-                        handleConnectionError(e, entry.getKey());
-                        return true; // Remove the entry
+        long flushMillis = batchProperties.getFlushInterval().toMillis();
+        scheduler.scheduleAtFixedRate(() -> {
+            try {
+                synchronized (broadcastLock) {
+                    for (SubscriberGroup group : groups.values()) {
+                        flushBatch(group);
                     }
-                });
+                }
+            } catch (Exception e) {
+                log.error("Error flushing event batch", e);
+            }
+        }, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
 
-                logBroadcastResult(sseEvent, initialSize);
+        long tickMillis = connectionProperties.getWheelTick().toMillis();
+        scheduler.scheduleAtFixedRate(() -> {
+            try {
+                for (SseSubscriber subscriber : connectionWheel.advance()) {
+                    checkConnection(subscriber);
+                }
+            } catch (Exception e) {
+                log.error("Error checking idle connections", e);
+            }
+        }, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
 
+        long statsMillis = statsProperties.getInterval().toMillis();
+        scheduler.scheduleAtFixedRate(() -> {
+            try {
+                publishStats();
             } catch (Exception e) {
-                log.error("Error in broadcast scheduler", e);
+                log.error("Error publishing event stats", e);
             }
-        }, 10, 10, TimeUnit.SECONDS);
+        }, statsMillis, statsMillis, TimeUnit.MILLISECONDS);
 
         schedulerStarted = true;
-        log.info("Started event scheduler - will generate events every 10 seconds");
+        log.info("Started event scheduler with {} fan-out shards{}", fanOut.getShards(),
+            subscriberProperties.isVirtualThreads() ? " and virtual-thread writers" : "");
+    }
+
+    /**
+     * Stops accepting streams and closes the open ones in {@code sse.drain.waves}
+     * waves spread over {@code sse.drain.window}: servlet connections shuffled
+     * into the waves, reactive streams each at a random one. Until its wave a
+     * connection keeps receiving changes. Then it gets a {@code reconnect} frame
+     * with the id of the last change it was sent and a random {@code retry:}
+     * delay, so its client resumes from there on whichever node it reaches, and
+     * clients do not all come back at once.
+     *
+     * @return completes when the drain window is over
+     */
+    public CompletableFuture<Void> drain() {
+        List<SseSubscriber> connections;
+        CompletableFuture<Void> result;
+        synchronized (broadcastLock) {
+            if (drained != null) {
+                return drained;
+            }
+            draining = true;
+            drained = result = new CompletableFuture<>();
+            connections = new ArrayList<>(subscribers.values());
+        }
+        drainStarted.tryEmitValue(Boolean.TRUE);
+        Collections.shuffle(connections);
+        int waves = Math.max(1, drainProperties.getWaves());
+        Duration window = drainProperties.getWindow();
+        log.info("Draining {} connections in {} waves over {}", getConnectionCount(), waves, window);
+        for (int wave = 0; wave < waves; wave++) {
+            List<SseSubscriber> batch = connections.subList(wave * connections.size() / waves,
+                (wave + 1) * connections.size() / waves);
+            scheduler.schedule(() -> closeDrained(batch), window.dividedBy(waves).multipliedBy(wave).toMillis(),
+                TimeUnit.MILLISECONDS);
+        }
+        scheduler.schedule(() -> result.complete(null), window.toMillis(), TimeUnit.MILLISECONDS);
+        return result;
+    }
+
+    // Under broadcastLock, so no broadcast can be queued behind a connection's reconnect frame
+    private void closeDrained(List<SseSubscriber> batch) {
+        int closed = 0;
+        try {
+            synchronized (broadcastLock) {
+                for (SseSubscriber subscriber : batch) {
+                    if (unregister(subscriber.getId()) == null) {
+                        continue; // Gone already
+                    }
+                    subscriber.offer(reconnectFrame(subscriber.getOptions().getFormat(),
+                        subscriber.getLastSequence()));
+                    // The response completes once the reconnect frame is written
+                    subscriber.finish();
+                    metrics.disconnected(DisconnectReason.DRAINED);
+                    closed++;
+                }
+            }
+        } catch (Exception e) {
+            log.error("Error closing drained connections", e);
+        }
+        if (closed > 0) {
+            log.info("Closed {} drained connections (remaining connections: {})", closed, getConnectionCount());
+        }
+    }
+
+    // Tells the client to come back after a random delay and resume after the last change it was sent
+    private SseFrame reconnectFrame(WireFormat format, long lastSequence) throws JsonProcessingException {
+        long retry = ThreadLocalRandom.current().nextLong(drainProperties.getRetryJitter().toMillis() + 1);
+        Long id = lastSequence > 0 ? lastSequence : null;
+        return frameEncoder.encodeWithRetry(format, "reconnect", id, new Reconnect(id, retry), retry);
+    }
+
+    // When a reactive stream ends in a drain: one of the waves, at random
+    private Duration drainWaveDelay() {
+        int waves = Math.max(1, drainProperties.getWaves());
+        return drainProperties.getWindow().dividedBy(waves).multipliedBy(ThreadLocalRandom.current().nextInt(waves));
+    }
+
+    /**
+     * Reaps the connection if a write to it has been blocked too long, sends it
+     * a heartbeat if nothing was written to it for a while, and schedules its
+     * next check. Dead peers then surface through the heartbeat's failed write
+     * even when no events are broadcast.
+     */
+    private void checkConnection(SseSubscriber subscriber) {
+        if (subscriber.isClosed() || subscribers.get(subscriber.getId()) != subscriber) {
+            return; // Already removed; just drop it from the wheel
+        }
+        long now = System.nanoTime();
+        long stallNanos = connectionProperties.getWriteStallTimeout().toNanos();
+        long heartbeatNanos = connectionProperties.getHeartbeatIdle().toNanos();
+        long writeStarted = subscriber.getWriteStartedNanos();
+        if (writeStarted != 0 && now - writeStarted >= stallNanos) {
+            reap(subscriber);
+            return;
+        }
+        long idle = now - subscriber.getLastWriteNanos();
+        long next = heartbeatNanos - idle;
+        if (next <= 0) {
+            subscriber.heartbeat(heartbeatFrame);
+            next = heartbeatNanos;
+        }
+        if (writeStarted != 0) {
+            next = Math.min(next, stallNanos - (now - writeStarted));
+        }
+        connectionWheel.schedule(subscriber, next);
+    }
+
+    private void reap(SseSubscriber subscriber) {
+        if (unregister(subscriber.getId()) == null) {
+            return;
+        }
+        subscriber.close();
+        metrics.disconnected(DisconnectReason.STALLED);
+        log.info("Closed emitter {} after a write stalled for over {} (remaining connections: {})",
+            subscriber.getId(), connectionProperties.getWriteStallTimeout(), getConnectionCount());
+        // Completing waits for the blocked write to give up, so keep it off the scheduler thread
+        writers.execute(() -> subscriber.getEmitter().complete());
+    }
+
+    private Long parseEventId(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            // Not one of ours; the client just gets a full snapshot
+            log.debug("Ignoring unrecognized Last-Event-ID: {}", lastEventId);
+            return null;
+        }
+    }
+
+    // Every change on the bus, from this node or another, goes out to this node's connections only
+    private void onChange(SseEvent change, boolean remote) {
+        try {
+            if (remote) {
+                eventService.apply(change);
+            }
+            broadcast(change);
+        } catch (Exception e) {
+            log.error("Error broadcasting change {}", change.getSequence(), e);
+        }
+    }
+
+    // Changes published together are broadcast in one pass, with nothing else in between
+    private void onBatch(List<SseEvent> changes, boolean remote) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        try {
+            if (remote) {
+                changes.forEach(eventService::apply);
+            }
+            broadcastBatch(changes);
+        } catch (Exception e) {
+            log.error("Error broadcasting changes {} to {}", changes.get(0).getSequence(),
+                changes.get(changes.size() - 1).getSequence(), e);
+        }
+    }
+
+    /**
+     * Records the frame for replay under the sequence number the event bus
+     * assigned and hands it to the queue of every connection whose filter
+     * matches; writers deliver it asynchronously. Batch groups queue the change
+     * for their next event-batch frame instead.
+     */
+    private void broadcast(SseEvent sseEvent) throws JsonProcessingException {
+        long start = System.nanoTime();
+        synchronized (broadcastLock) {
+            long eventSequence = sseEvent.getSequence();
+            sequence.set(eventSequence);
+            eventStatsService.record(sseEvent);
+            // Serialized once per form and format, on first use; every matching group gets the same frame
+            SseFrame[] frames = new SseFrame[FRAME_FORMS];
+            SseFrame frame = changeFrame(frames, sseEvent, WireFormat.JSON, false);
+            replayBuffer.append(sseEvent, frame);
+
+            int initialSize = getConnectionCount();
+            // Matching is per group, so its cost does not grow with the number of connections
+            for (SubscriberGroup group : groups.values()) {
+                if (!group.matches(sseEvent)) {
+                    continue;
+                }
+                if (!group.getOptions().isBatch()) {
+                    publish(group, changeFrame(frames, sseEvent, group.getOptions().getFormat(),
+                        group.sendsDelta(sseEvent)));
+                } else if (group.getCoalescer().add(sseEvent) >= batchProperties.getMaxBatchSize()) {
+                    flushBatch(group);
+                }
+            }
+            metrics.broadcast(start);
+            logBroadcastResult(sseEvent, initialSize);
+        }
+    }
+
+    /**
+     * Broadcasts changes published together. Each is recorded for replay and
+     * goes to the streams that did not ask for batches as its own event-change
+     * frame, the same as a single change; a group's shards get all of them in
+     * one pass. Batch groups coalesce them as usual, and only flush early once
+     * all are in, so their frames also end on a batch boundary.
+     */
+    private void broadcastBatch(List<SseEvent> changes) throws JsonProcessingException {
+        long start = System.nanoTime();
+        synchronized (broadcastLock) {
+            sequence.set(changes.get(changes.size() - 1).getSequence());
+            // Serialized once per change, form and format, on first use, like single changes
+            SseFrame[][] frames = new SseFrame[changes.size()][FRAME_FORMS];
+            for (int i = 0; i < changes.size(); i++) {
+                SseEvent change = changes.get(i);
+                eventStatsService.record(change);
+                replayBuffer.append(change, changeFrame(frames[i], change, WireFormat.JSON, false));
+            }
+
+            for (SubscriberGroup group : groups.values()) {
+                StreamOptions options = group.getOptions();
+                if (options.isBatch()) {
+                    int pending = 0;
+                    for (SseEvent change : changes) {
+                        if (group.matches(change)) {
+                            pending = group.getCoalescer().add(change);
+                        }
+                    }
+                    if (pending >= batchProperties.getMaxBatchSize()) {
+                        flushBatch(group);
+                    }
+                } else {
+                    List<SseFrame> matching = new ArrayList<>();
+                    for (int i = 0; i < changes.size(); i++) {
+                        SseEvent change = changes.get(i);
+                        if (group.matches(change)) {
+                            matching.add(changeFrame(frames[i], change, options.getFormat(),
+                                group.sendsDelta(change)));
+                        }
+                    }
+                    if (!matching.isEmpty()) {
+                        publish(group, matching);
+                    }
+                }
+            }
+            metrics.broadcast(start);
+            log.debug("Broadcasted a batch of {} changes to {} connections", changes.size(), getConnectionCount());
+        }
+    }
+
+    private SseFrame changeFrame(SseFrame[] frames, SseEvent change, WireFormat format, boolean delta)
+            throws JsonProcessingException {
+        int slot = format.ordinal() * 2 + (delta ? 1 : 0);
+        if (frames[slot] == null) {
+            frames[slot] = frameEncoder.encode(format, "event-change", change.getSequence(),
+                delta ? change.deltaOnly() : change.withoutDelta(), change.getEvent().getId());
+        }
+        return frames[slot];
+    }
+
+    // Called with broadcastLock held
+    private void flushBatch(SubscriberGroup group) throws JsonProcessingException {
+        ChangeCoalescer coalescer = group.getCoalescer();
+        if (coalescer.isEmpty()) {
+            return;
+        }
+        int received = coalescer.getReceived();
+        long lastSequence = coalescer.getLastSequence();
+        List<SseEvent> batch = coalescer.drain();
+        SseFrame frame = frameEncoder.encode(group.getOptions().getFormat(), "event-batch", lastSequence,
+            batch.stream().map(group::forClient).collect(Collectors.toList()), null);
+        publish(group, frame);
+        log.debug("Flushed {} changes coalesced into a batch of {} for {}", received, batch.size(), group.getOptions());
+    }
+
+    /**
+     * Sends streams opened with {@code stats=true} the aggregates of the events
+     * that changed since the last stats frame, filtered like their changes. Stats
+     * frames carry no id, so they are not replayed and do not move Last-Event-ID.
+     */
+    private void publishStats() throws JsonProcessingException {
+        synchronized (broadcastLock) {
+            boolean listened = groups.values().stream().anyMatch(group -> group.getOptions().isStats());
+            List<EventStats> stats = eventStatsService.drainChanged(listened);
+            if (stats.isEmpty()) {
+                return;
+            }
+            SseFrame[] frames = new SseFrame[WireFormat.values().length];
+            for (SubscriberGroup group : groups.values()) {
+                StreamOptions options = group.getOptions();
+                if (!options.isStats()) {
+                    continue;
+                }
+                if (options.getFilter().isEmpty()) {
+                    int slot = options.getFormat().ordinal();
+                    if (frames[slot] == null) {
+                        frames[slot] = frameEncoder.encode(options.getFormat(), "stats", null, stats, null);
+                    }
+                    publish(group, frames[slot]);
+                    continue;
+                }
+                List<EventStats> matching = stats.stream()
+                    .filter(entry -> {
+                        SystemEvent event = eventService.getEventById(entry.getId());
+                        return event != null && options.getFilter().matches(event);
+                    })
+                    .collect(Collectors.toList());
+                if (!matching.isEmpty()) {
+                    publish(group, frameEncoder.encode(options.getFormat(), "stats", null, matching, null));
+                }
+            }
+        }
+    }
+
+    /**
+     * Offers the frame to every connection in the group. Shards of a large group
+     * are offered to in parallel; this still returns only once all of them have
+     * the frame, so every connection gets the frames in broadcast order.
+     */
+    private void publish(SubscriberGroup group, SseFrame frame) {
+        publish(group, List.of(frame));
+    }
+
+    // Frames broadcast together, in order, with one pass over the shards
+    private void publish(SubscriberGroup group, List<SseFrame> frames) {
+        if (group.size() < fanoutProperties.getParallelThreshold()) {
+            for (int shard = 0; shard < group.getShardCount(); shard++) {
+                for (SseFrame frame : frames) {
+                    publish(group, shard, frame);
+                }
+            }
+        } else {
+            fanOut.run(shard -> {
+                for (SseFrame frame : frames) {
+                    publish(group, shard, frame);
+                }
+            });
+        }
+    }
+
+    /**
+     * Offers the frame to one shard of the group, dropping the entries of closed
+     * connections. Only a connection this offer overflowed is unregistered and
+     * counted here; whatever closed any other one unregisters and counts it.
+     */
+    private void publish(SubscriberGroup group, int shard, SseFrame frame) {
+        group.getSink(shard).tryEmitNext(frame);
+        group.getMembers(shard).removeIf(subscriber -> {
+            SseSubscriber.Offer offer = subscriber.offer(frame);
+            if (offer == SseSubscriber.Offer.QUEUED) {
+                return false; // Keep the entry
+            }
+            if (offer == SseSubscriber.Offer.OVERFLOWED && subscribers.remove(subscriber.getId()) != null) {
+                connections.decrementAndGet();
+                leave(group);
+                metrics.disconnected(DisconnectReason.OVERFLOW);
+                log.info("Disconnected emitter {} after its queue overflowed", subscriber.getId());
+            }
+            return true; // Remove the entry
+        });
     }
 
-    private void handleConnectionError(Exception e, String clientId) {
-        if (e instanceof IOException ||
-            e.getCause() instanceof IOException ||
-            e.getMessage() != null && e.getMessage().contains("Broken pipe")) {
+    @PreDestroy
+    public void stopScheduler() {
+        scheduler.shutdownNow();
+        fanOut.shutdown();
+        writers.shutdownNow();
+    }
+
+    private void handleWriteFailure(SseSubscriber subscriber, Throwable e) {
+        DisconnectReason reason = handleConnectionError(e, subscriber.getId());
+        if (unregister(subscriber.getId()) != null) {
+            metrics.disconnected(reason);
+        }
+    }
+
+    private SseSubscriber unregister(String subscriberId) {
+        SseSubscriber removed = subscribers.remove(subscriberId);
+        if (removed != null) {
+            connections.decrementAndGet();
+            // Its group stays registered until it leaves, which it does exactly once, here or on overflow
+            SubscriberGroup group = groups.get(removed.getOptions());
+            group.remove(subscriberId);
+            leave(group);
+        }
+        return removed;
+    }
+
+    private DisconnectReason handleConnectionError(Throwable e, String clientId) {
+        DisconnectReason reason = DisconnectReason.of(e);
+        if (reason == DisconnectReason.CLIENT_GONE) {
             log.debug("Client {} disconnected, removing connection", clientId);
         } else {
             log.warn("Failed to send update to {}, removing connection: {}",
                 clientId, e.getMessage());
         }
+        return reason;
     }
 
     private void logBroadcastResult(SseEvent sseEvent, int initialSize) {
-        if (!emitters.isEmpty()) {
-            log.info("Broadcasted {} operation for event {} (ID: {}) to {} connections",
+        if (getConnectionCount() > 0) {
+            log.debug("Broadcasted {} operation for event {} (ID: {}) to {} connections",
                 sseEvent.getOperation(), sseEvent.getEvent().getName(),
-                sseEvent.getEvent().getId(), emitters.size());
+                sseEvent.getEvent().getId(), getConnectionCount());
         } else if (initialSize > 0) {
             log.debug("All clients disconnected, no broadcast sent");
         }
     }
 
     public int getConnectionCount() {
-        return emitters.size();
+        return connections.get();
+    }
+
+    // Last sequence number broadcast on this node
+    public long getSequence() {
+        return sequence.get();
+    }
+
+    public int getStreamGroupCount() {
+        return groups.size();
+    }
+
+    public List<ConnectionStats> getConnectionStats() {
+        return subscribers.values().stream()
+            .map(SseSubscriber::getStats)
+            .collect(Collectors.toList());
+    }
+
+    // Snapshot frames for a new stream and the sequence they are current to
+    @Value
+    private static class InitialSnapshot {
+        long sequence;
+        List<SseFrame> frames;
+    }
+
+    @Value
+    private static class InitialFrame {
+        long version;
+        SseFrame frame;
     }
 }
@@ -2,18 +2,48 @@ package com.example.sse.service;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
+import com.example.sse.model.Severity;
 import com.example.sse.model.SystemEvent;
+import com.example.sse.model.sse.Operation;
 import com.example.sse.model.sse.SseEvent;
 
 public interface EventService {
     List<SystemEvent> getAllEvents();
     List<SystemEvent> getAllEventsForSSE();
+    long getVersion();
+    int getEventCount();
+    int getActiveEventCount();
     SystemEvent getEventById(UUID id);
     SystemEvent createEvent(SystemEvent event);
     SystemEvent updateEvent(SystemEvent event);
     void deleteEvent(UUID id);
+    /**
+     * Applies a change submitted through the write API and returns it as it should be
+     * broadcast, or null if it names an event that does not exist (or, for a DELETE,
+     * one that is already inactive). UPDATEs keep the event's active status and
+     * DELETEs only mark it inactive, the same as generated changes. The change is
+     * handed to {@code publish} before any later change to the same event is applied,
+     * so changes to one event are published in version order.
+     */
+    SseEvent write(Operation operation, SystemEvent event, Consumer<SseEvent> publish);
+    /**
+     * Applies the changes one by one like {@link #write} and hands those that took
+     * effect to {@code publish} together, before any later change to the same events
+     * is applied. Returns them in request order.
+     */
+    List<SseEvent> writeAll(List<SseEvent> requests, Consumer<List<SseEvent>> publish);
     SseEvent updateRandomEvent();
+    // Applies a random change of the given kind to the store and publishes it, in order as write() does
+    SseEvent randomChange(Operation operation, Consumer<SseEvent> publish);
     List<SystemEvent> getActiveEvents();
+    // Up to limit active events in ID order, starting after the given ID (from the first when null)
+    List<SystemEvent> getActiveEventsAfter(UUID after, int limit);
+    List<SystemEvent> getEventsBySeverity(Severity severity);
     void cleanupInactiveEvents();
+    // Stores a change another node made and published on the event bus, unless the store already has a later version
+    void apply(SseEvent change);
+    // Fills an empty store with sample events; only the first node of a cluster does, the others copy its events
+    void initializeSampleEvents();
 }
@@ -0,0 +1,63 @@
+package com.example.sse.service;
+
+import java.io.UncheckedIOException;
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+
+import com.example.sse.metrics.SseMetrics;
+import com.example.sse.model.EventSnapshot;
+import com.example.sse.model.SystemEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Caches the active-event snapshot and its JSON per store version, so
+ * concurrent readers share one serialization until the store changes again.
+ * The JSON is only serialized when a reader asks for it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EventSnapshotService {
+
+    private final EventService eventService;
+    private final ObjectMapper objectMapper;
+    private final SseMetrics metrics;
+    private volatile EventSnapshot current;
+
+    public EventSnapshot getSnapshot() {
+        EventSnapshot snapshot = current;
+        if (snapshot != null && snapshot.getVersion() == eventService.getVersion()) {
+            return snapshot;
+        }
+        synchronized (this) {
+            snapshot = current;
+            // Read the version before the events: a concurrent mutation then only
+            // makes this snapshot look stale, never a stale one look current
+            long version = eventService.getVersion();
+            if (snapshot != null && snapshot.getVersion() == version) {
+                return snapshot;
+            }
+            List<SystemEvent> events = eventService.getAllEvents();
+            snapshot = new EventSnapshot(version, events, this::serialize);
+            current = snapshot;
+            log.debug("Rebuilt event snapshot at version {} ({} active events)", version, events.size());
+            return snapshot;
+        }
+    }
+
+    private byte[] serialize(List<SystemEvent> events) {
+        long start = System.nanoTime();
+        try {
+            return objectMapper.writeValueAsBytes(events);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException("Failed to serialize the event snapshot", e);
+        } finally {
+            metrics.serialized(start);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.sse.service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.stereotype.Service;
+
+import com.example.sse.config.SseProperties;
+import com.example.sse.model.EventStats;
+import com.example.sse.model.SystemEvent;
+import com.example.sse.model.sse.Operation;
+import com.example.sse.model.sse.SseEvent;
+import com.example.sse.stats.EventStatsTracker;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Rolling per-event count rates and severity changes, fed with every change
+ * this node broadcasts, its own and other nodes'. Events stop being tracked
+ * when they are deleted.
+ */
+@Service
+@Slf4j
+public class EventStatsService {
+
+    private final EventStatsTracker tracker;
+    private final SseProperties.Stats properties;
+    private volatile boolean fullLogged = false;
+
+    public EventStatsService(EventService eventService, SseProperties properties) {
+        this.properties = properties.getStats();
+        this.tracker = new EventStatsTracker(this.properties.getMaxEvents(), this.properties.getSeconds(),
+            this.properties.getMinutes(), System.currentTimeMillis());
+        // Events already in the store start from their current count
+        long now = System.currentTimeMillis();
+        for (SystemEvent event : eventService.getActiveEvents()) {
+            tracker.record(event.getId(), event.getCount(), event.getSeverity(), now);
+        }
+    }
+
+    // Called for every broadcast change, in broadcast order
+    public void record(SseEvent change) {
+        SystemEvent event = change.getEvent();
+        if (change.getOperation() == Operation.DELETE) {
+            tracker.release(event.getId());
+            return;
+        }
+        tracker.record(event.getId(), event.getCount(), event.getSeverity(), System.currentTimeMillis());
+        if (!fullLogged && tracker.getUntracked() > 0) {
+            fullLogged = true;
+            log.warn("Tracking stats for {} events already, further events are not tracked", properties.getMaxEvents());
+        }
+    }
+
+    /**
+     * The event's aggregates over the window, with the per-second and per-minute
+     * series, or null if the event is not tracked.
+     */
+    public EventStats getStats(UUID id, Duration window) {
+        if (window.compareTo(Duration.ofSeconds(1)) < 0) {
+            throw new IllegalArgumentException("Stats window must be at least 1s");
+        }
+        return tracker.stats(id, window.toSeconds(), true, System.currentTimeMillis());
+    }
+
+    /**
+     * Aggregates over {@code sse.stats.channel-window} of the events that changed
+     * since the last call, at most {@code sse.stats.channel-limit} of the busiest.
+     * Without listeners, just starts over.
+     */
+    public List<EventStats> drainChanged(boolean listened) {
+        return tracker.drainChanged(properties.getChannelWindow().toSeconds(),
+            listened ? properties.getChannelLimit() : 0, System.currentTimeMillis());
+    }
+
+    public int getTrackedCount() {
+        return tracker.size();
+    }
+
+    public long getUntrackedCount() {
+        return tracker.getUntracked();
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.sse.service;
+
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import com.example.sse.bus.EventBus;
+import com.example.sse.config.SseProperties;
+import com.example.sse.model.sse.Operation;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Drives random changes through the real pipeline (store, journal, event bus,
+ * broadcast) at {@code sse.workload.rate} changes per second, from one every
+ * few seconds to tens of thousands, with a configurable operation mix,
+ * store-size target and periodic bursts. A single thread paces the changes:
+ * each tick publishes however many are due since the last one, so the rate
+ * holds regardless of the tick resolution, and the next tick is scheduled
+ * from the current rate so a rate change takes effect right away.
+ */
+@Service
+@Slf4j
+public class WorkloadGenerator {
+
+    // Ticks run at most this often; lower rates tick about once per change
+    private static final long MIN_TICK_MICROS = 1_000;
+    private static final long MAX_TICK_MICROS = 100_000;
+    // After a stall, at most this much backlog is made up
+    private static final double MAX_CATCH_UP_SECONDS = 1;
+    private static final long REPORT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final EventService eventService;
+    private final EventBus eventBus;
+    private final EventSchedulerService eventSchedulerService;
+    private final SseProperties.Workload properties;
+    private final ScheduledExecutorService ticker =
+        Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("sse-workload-"));
+    private final AtomicLong published = new AtomicLong();
+    private volatile double rate;
+    private final long startNanos = System.nanoTime();
+    private long lastTickNanos;
+    private double due;
+    private long reportNanos;
+    private long reportPublished;
+
+    public WorkloadGenerator(EventService eventService, EventBus eventBus,
+                             EventSchedulerService eventSchedulerService, SseProperties properties) {
+        this.eventService = eventService;
+        this.eventBus = eventBus;
+        this.eventSchedulerService = eventSchedulerService;
+        this.properties = properties.getWorkload();
+        this.rate = this.properties.getRate();
+    }
+
+    public void start() {
+        lastTickNanos = System.nanoTime();
+        reportNanos = lastTickNanos;
+        ticker.schedule(this::tick, tickMicros(rate), TimeUnit.MICROSECONDS);
+        log.info("Started workload generator at {} changes/s (mix {}/{}/{}, target store size {}, burst every {})",
+            rate, properties.getCreateWeight(), properties.getUpdateWeight(), properties.getDeleteWeight(),
+            properties.getTargetStoreSize(), properties.getBurstInterval());
+    }
+
+    /**
+     * Changes the base rate while running, e.g. from a load test. Bursts still
+     * multiply it.
+     */
+    public void setRate(double rate) {
+        this.rate = rate;
+    }
+
+    public double getRate() {
+        return rate;
+    }
+
+    // Changes published since startup
+    public long getPublished() {
+        return published.get();
+    }
+
+    private void tick() {
+        long now = System.nanoTime();
+        double currentRate = currentRate(properties, rate, now - startNanos);
+        try {
+            double elapsed = (now - lastTickNanos) / 1e9;
+            lastTickNanos = now;
+            if (currentRate <= 0 || properties.isOnlyWhenConnected() && eventSchedulerService.getConnectionCount() == 0) {
+                due = 0;
+            } else {
+                due = accrue(due, currentRate, elapsed);
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (; due >= 1; due--) {
+                    Operation operation = nextOperation(properties, eventService.getActiveEventCount(), random);
+                    eventService.randomChange(operation, eventBus::publish);
+                    published.incrementAndGet();
+                }
+                report(now);
+            }
+        } catch (Exception e) {
+            log.error("Error generating workload", e);
+        } finally {
+            if (!ticker.isShutdown()) {
+                ticker.schedule(this::tick, tickMicros(currentRate), TimeUnit.MICROSECONDS);
+            }
+        }
+    }
+
+    private static long tickMicros(double rate) {
+        if (rate <= 0) {
+            return MAX_TICK_MICROS;
+        }
+        return (long) Math.min(MAX_TICK_MICROS, Math.max(MIN_TICK_MICROS, 1_000_000 / rate));
+    }
+
+    // The base rate, multiplied during the first burst-duration of every burst-interval since startup
+    static double currentRate(SseProperties.Workload properties, double rate, long sinceStartNanos) {
+        long burstInterval = properties.getBurstInterval().toNanos();
+        if (burstInterval > 0 && sinceStartNanos % burstInterval < properties.getBurstDuration().toNanos()) {
+            return rate * properties.getBurstMultiplier();
+        }
+        return rate;
+    }
+
+    // Changes due after the elapsed time at the rate, with at most a second's worth of backlog kept
+    static double accrue(double due, double rate, double elapsedSeconds) {
+        return Math.min(due + rate * elapsedSeconds, Math.max(1, rate * MAX_CATCH_UP_SECONDS));
+    }
+
+    /**
+     * Picks an operation by the configured weights, then steers towards the
+     * target store size: a create above it becomes a delete, a delete below
+     * it a create.
+     */
+    static Operation nextOperation(SseProperties.Workload properties, int activeEvents, Random random) {
+        double create = properties.getCreateWeight();
+        double update = properties.getUpdateWeight();
+        double pick = random.nextDouble() * (create + update + properties.getDeleteWeight());
+        Operation operation = pick < create ? Operation.CREATE
+            : pick < create + update ? Operation.UPDATE
+            : Operation.DELETE;
+
+        int target = properties.getTargetStoreSize();
+        if (target > 0) {
+            if (operation == Operation.CREATE && activeEvents > target) {
+                return Operation.DELETE;
+            }
+            if (operation == Operation.DELETE && activeEvents < target) {
+                return Operation.CREATE;
+            }
+        }
+        return operation;
+    }
+
+    // Logs the achieved rate now and then, since per-change logging is off at high rates
+    private void report(long now) {
+        if (now - reportNanos < REPORT_INTERVAL_NANOS) {
+            return;
+        }
+        long count = published.get();
+        double seconds = (now - reportNanos) / 1e9;
+        if (count > reportPublished) {
+            log.info("Generated {} changes in the last {}s ({} changes/s, store has {} active events)",
+                count - reportPublished, Math.round(seconds), Math.round((count - reportPublished) / seconds),
+                eventService.getActiveEventCount());
+        }
+        reportNanos = now;
+        reportPublished = count;
+    }
+
+    @PreDestroy
+    public void stop() {
+        ticker.shutdownNow();
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.sse.service.impl;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Consumer;
+
+import com.example.sse.model.Severity;
+import com.example.sse.model.SystemEvent;
+
+import lombok.Value;
+
+/**
+ * Secondary indexes over the event store: all IDs and active IDs for O(1)
+ * random selection, active IDs in order for cursor paging, IDs per severity,
+ * and inactive events ordered by when they were last touched so cleanup only
+ * looks at events that may have expired.
+ * Updates are idempotent and need no previous state, so callers can simply
+ * re-index an event after changing it (per key, inside the store's compute).
+ */
+class EventIndexes {
+
+    private final RandomAccessIdSet allIds = new RandomAccessIdSet();
+    private final RandomAccessIdSet activeIds = new RandomAccessIdSet();
+    // Only touched when an event's active status changes, not on every update
+    private final NavigableSet<UUID> activeIdsInOrder = new ConcurrentSkipListSet<>();
+    private final Map<Severity, Set<UUID>> bySeverity = new EnumMap<>(Severity.class);
+    // Ordered by (updatedAt, id), since restored and remote events arrive in any order
+    private final NavigableSet<Expiry> inactiveByUpdatedAt = new ConcurrentSkipListSet<>(
+        Comparator.comparing(Expiry::getUpdatedAt).thenComparing(Expiry::getId));
+    // Each inactive event's one entry in the set above, so an update replaces it
+    private final Map<UUID, Expiry> expiries = new ConcurrentHashMap<>();
+
+    EventIndexes() {
+        for (Severity severity : Severity.values()) {
+            bySeverity.put(severity, ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    void index(SystemEvent event) {
+        UUID id = event.getId();
+        allIds.add(id);
+        bySeverity.forEach((severity, ids) -> {
+            if (severity == event.getSeverity()) {
+                ids.add(id);
+            } else {
+                ids.remove(id);
+            }
+        });
+        if (event.isActive()) {
+            if (activeIds.add(id)) {
+                activeIdsInOrder.add(id);
+            }
+        } else {
+            if (activeIds.remove(id)) {
+                activeIdsInOrder.remove(id);
+            }
+            Expiry expiry = new Expiry(id, event.getUpdatedAt());
+            Expiry previous = expiries.put(id, expiry);
+            if (previous != null) {
+                inactiveByUpdatedAt.remove(previous);
+            }
+            inactiveByUpdatedAt.add(expiry);
+            return;
+        }
+        removeExpiry(id);
+    }
+
+    void unindex(UUID id) {
+        allIds.remove(id);
+        if (activeIds.remove(id)) {
+            activeIdsInOrder.remove(id);
+        }
+        bySeverity.values().forEach(ids -> ids.remove(id));
+        removeExpiry(id);
+    }
+
+    private void removeExpiry(UUID id) {
+        Expiry previous = expiries.remove(id);
+        if (previous != null) {
+            inactiveByUpdatedAt.remove(previous);
+        }
+    }
+
+    UUID randomId(Random random) {
+        return allIds.random(random);
+    }
+
+    UUID randomActiveId(Random random) {
+        return activeIds.random(random);
+    }
+
+    int activeCount() {
+        return activeIds.size();
+    }
+
+    Iterable<UUID> activeIds() {
+        return activeIds.toList();
+    }
+
+    // Active IDs in ascending order, starting after the given one (from the first when null)
+    Iterable<UUID> activeIdsAfter(UUID after) {
+        return after != null ? activeIdsInOrder.tailSet(after, false) : activeIdsInOrder;
+    }
+
+    Set<UUID> idsWithSeverity(Severity severity) {
+        return bySeverity.get(severity);
+    }
+
+    /**
+     * Hands every ID that went inactive before the cutoff to the consumer,
+     * oldest first. The consumer must re-check the event, since it may be
+     * touched again or removed while the entry is handed over.
+     */
+    void drainInactiveBefore(Instant cutoff, Consumer<Expiry> consumer) {
+        for (Expiry expiry : inactiveByUpdatedAt) {
+            if (!expiry.getUpdatedAt().isBefore(cutoff)) {
+                return;
+            }
+            if (inactiveByUpdatedAt.remove(expiry)) {
+                expiries.remove(expiry.getId(), expiry);
+                consumer.accept(expiry);
+            }
+        }
+    }
+
+    @Value
+    static class Expiry {
+        UUID id;
+        Instant updatedAt;
+    }
+}
@@ -2,18 +2,30 @@ package com.example.sse.service.impl;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Random;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
 
+import com.example.sse.journal.EventJournal;
 import com.example.sse.model.SystemEvent;
 import com.example.sse.model.sse.Operation;
 import com.example.sse.model.sse.SseEvent;
+import com.example.sse.model.sse.SystemEventDelta;
 import com.example.sse.model.Severity;
 import com.example.sse.service.EventService;
 
@@ -23,60 +35,102 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class EventServiceImpl implements EventService {
 
+    // Templates for generated events, allocated once
+    private static final String[] EVENT_NAMES = {
+        "Database Connection", "API Response Time", "Memory Usage",
+        "CPU Load", "Disk Space", "Network Latency", "User Login",
+        "Payment Processing", "Email Delivery", "File Upload",
+        "Cache Hit Rate", "Queue Length", "Error Rate", "Response Time",
+        "Active Sessions", "Data Sync", "Backup Status", "Security Scan"
+    };
+    private static final String[] DESCRIPTIONS = {
+        "Monitoring database connection health",
+        "Tracking API response times",
+        "Monitoring system memory usage",
+        "Tracking CPU utilization",
+        "Monitoring available disk space",
+        "Measuring network latency",
+        "Tracking user authentication",
+        "Monitoring payment transactions",
+        "Tracking email delivery status",
+        "Monitoring file upload progress",
+        "Tracking cache performance",
+        "Monitoring queue processing",
+        "Tracking system errors",
+        "Measuring response times",
+        "Tracking active user sessions",
+        "Monitoring data synchronization",
+        "Tracking backup operations",
+        "Monitoring security scans"
+    };
+    private static final Severity[] SEVERITIES = Severity.values();
+    private static final long NOT_JOURNALED = -1;
+    private static final int PUBLISH_STRIPES = 256;
+    private static final Consumer<SseEvent> UNPUBLISHED = change -> { };
+
     private final Map<UUID, SystemEvent> events = new ConcurrentHashMap<>();
-    private final Random random = new Random();
-
-    public EventServiceImpl() {
-        // Initialize with some sample events
-        initializeSampleEvents();
-    }
-
-    private void initializeSampleEvents() {
-        String[] eventNames = {
-            "Database Connection", "API Response Time", "Memory Usage",
-            "CPU Load", "Disk Space", "Network Latency", "User Login",
-            "Payment Processing", "Email Delivery", "File Upload"
-        };
-
-        String[] descriptions = {
-            "Monitoring database connection health",
-            "Tracking API response times",
-            "Monitoring system memory usage",
-            "Tracking CPU utilization",
-            "Monitoring available disk space",
-            "Measuring network latency",
-            "Tracking user authentication",
-            "Monitoring payment transactions",
-            "Tracking email delivery status",
-            "Monitoring file upload progress"
-        };
-
-        Severity[] severities = Severity.values();
+    private final EventIndexes indexes = new EventIndexes();
+    private final EventJournal journal;
+    // Bumped on every mutation so readers can tell whether cached views are stale. Seeded
+    // from the clock so a version (and ETag) from before a restart is never reissued.
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis() * 1000);
+    // Held from applying a change until it is published, so changes to one event reach the bus in
+    // version order. Not taken by apply(), which runs while the bus delivers, so the two never deadlock.
+    private final ReentrantLock[] publishing = new ReentrantLock[PUBLISH_STRIPES];
+
+    public EventServiceImpl(EventJournal journal) {
+        this.journal = journal;
+        for (int i = 0; i < publishing.length; i++) {
+            publishing[i] = new ReentrantLock();
+        }
+        Collection<SystemEvent> recovered = journal.recover();
+        if (!recovered.isEmpty()) {
+            restore(recovered);
+        }
+        journal.start(events::values);
+    }
 
+    private void restore(Collection<SystemEvent> recovered) {
+        for (SystemEvent event : recovered) {
+            events.put(event.getId(), event);
+            indexes.index(event);
+        }
+        version.incrementAndGet();
+        log.info("Restored {} events from the journal", events.size());
+    }
+
+    @Override
+    public void initializeSampleEvents() {
+        if (!events.isEmpty()) {
+            return;
+        }
+        Random random = ThreadLocalRandom.current();
+        // The first ten templates, one event each
         for (int i = 0; i < 10; i++) {
             SystemEvent event = SystemEvent.builder()
-                .id(UUID.randomUUID())
-                .name(eventNames[i])
-                .description(descriptions[i])
-                .severity(severities[random.nextInt(severities.length)])
+                .id(randomUuid(random))
+                .name(EVENT_NAMES[i])
+                .description(DESCRIPTIONS[i])
+                .severity(SEVERITIES[random.nextInt(SEVERITIES.length)])
                 .createdAt(Instant.now())
                 .updatedAt(Instant.now())
                 .active(true)
                 .count(random.nextInt(100))
+                .version(1)
                 .build();
 
-            events.put(event.getId(), event);
+            store(event);
         }
         log.info("Initialized {} sample events", events.size());
     }
 
     @Override
     public List<SystemEvent> getAllEvents() {
-        List<SystemEvent> activeEvents = events.values().stream()
-            .filter(SystemEvent::isActive)
-            .collect(Collectors.toList());
-        log.info("Returning {} active events to client: {}", activeEvents.size(),
-            activeEvents.stream().map(SystemEvent::getName).collect(Collectors.joining(", ")));
+        List<SystemEvent> activeEvents = getActiveEvents();
+        if (log.isDebugEnabled()) {
+            log.debug("Returning {} active events to client: {}", activeEvents.size(),
+                activeEvents.stream().map(SystemEvent::getName).collect(Collectors.joining(", ")));
+        }
         return activeEvents;
     }
 
@@ -91,6 +145,21 @@ public class EventServiceImpl implements EventService {
         return allEvents;
     }
 
+    @Override
+    public long getVersion() {
+        return version.get();
+    }
+
+    @Override
+    public int getEventCount() {
+        return events.size();
+    }
+
+    @Override
+    public int getActiveEventCount() {
+        return indexes.activeCount();
+    }
+
     @Override
     public SystemEvent getEventById(UUID id) {
         return events.get(id);
@@ -98,165 +167,301 @@ public class EventServiceImpl implements EventService {
 
     @Override
     public SystemEvent createEvent(SystemEvent event) {
-        if (event.getId() == null) {
-            event.setId(UUID.randomUUID());
-        }
-        event.setCreatedAt(Instant.now());
-        event.setUpdatedAt(Instant.now());
-        events.put(event.getId(), event);
-        log.info("Created event: {}", event.getName());
-        return event;
+        Instant now = Instant.now();
+        SystemEvent created = event.toBuilder()
+            .id(event.getId() != null ? event.getId() : UUID.randomUUID())
+            .createdAt(now)
+            .updatedAt(now)
+            .version(1)
+            .build();
+        store(created);
+        log.info("Created event: {}", created.getName());
+        return created;
     }
 
     @Override
     public SystemEvent updateEvent(SystemEvent event) {
-        if (events.containsKey(event.getId())) {
-            event.setUpdatedAt(Instant.now());
-            events.put(event.getId(), event);
-            log.info("Updated event: {}", event.getName());
-            return event;
+        SystemEvent[] change = update(event.getId(), existing -> event.toBuilder()
+            .updatedAt(Instant.now())
+            .version(existing.getVersion() + 1)
+            .build());
+        if (change == null) {
+            return null;
         }
-        return null;
+        log.info("Updated event: {}", change[1].getName());
+        return change[1];
     }
 
     @Override
     public void deleteEvent(UUID id) {
-        SystemEvent removed = events.remove(id);
+        SystemEvent removed = removeIf(id, event -> true);
         if (removed != null) {
             log.info("Deleted event: {}", removed.getName());
         }
     }
 
+    @Override
+    public SseEvent write(Operation operation, SystemEvent event, Consumer<SseEvent> publish) {
+        if (operation != Operation.CREATE && event.getId() == null) {
+            return null;
+        }
+        SystemEvent target = withId(event);
+        return publishing(target.getId(), () -> write(operation, target), publish);
+    }
+
+    @Override
+    public List<SseEvent> writeAll(List<SseEvent> requests, Consumer<List<SseEvent>> publish) {
+        List<SseEvent> targets = new ArrayList<>(requests.size());
+        boolean[] stripes = new boolean[PUBLISH_STRIPES];
+        for (SseEvent request : requests) {
+            if (request.getOperation() != Operation.CREATE && request.getEvent().getId() == null) {
+                continue;
+            }
+            SystemEvent target = withId(request.getEvent());
+            targets.add(SseEvent.builder().operation(request.getOperation()).event(target).build());
+            stripes[stripe(target.getId())] = true;
+        }
+        // Always in ascending order, so writers that need several stripes never wait on each other in a cycle
+        for (int i = 0; i < PUBLISH_STRIPES; i++) {
+            if (stripes[i]) {
+                publishing[i].lock();
+            }
+        }
+        try {
+            List<SseEvent> changes = new ArrayList<>(targets.size());
+            for (SseEvent target : targets) {
+                SseEvent change = write(target.getOperation(), target.getEvent());
+                if (change != null) {
+                    changes.add(change);
+                }
+            }
+            if (!changes.isEmpty()) {
+                publish.accept(changes);
+            }
+            return changes;
+        } finally {
+            for (int i = PUBLISH_STRIPES - 1; i >= 0; i--) {
+                if (stripes[i]) {
+                    publishing[i].unlock();
+                }
+            }
+        }
+    }
+
+    // A CREATE may leave the ID to the server; it is assigned up front so the change can be locked
+    private static SystemEvent withId(SystemEvent event) {
+        return event.getId() != null ? event : event.toBuilder().id(UUID.randomUUID()).build();
+    }
+
+    private SseEvent write(Operation operation, SystemEvent event) {
+        switch (operation) {
+            case CREATE:
+                // CREATE operations should always create active events
+                return SseEvent.builder()
+                    .operation(Operation.CREATE)
+                    .event(createEvent(event.toBuilder().active(true).build()))
+                    .build();
+            case UPDATE:
+                return updated(event.getId(), existing -> existing.next(Instant.now())
+                    .name(event.getName())
+                    .description(event.getDescription())
+                    .severity(event.getSeverity())
+                    .count(event.getCount())
+                    .build());
+            case DELETE:
+            default:
+                return deactivated(event.getId());
+        }
+    }
+
     @Override
     public SseEvent updateRandomEvent() {
         // Randomly choose an operation: CREATE, UPDATE, or DELETE
-        double operation = random.nextDouble();
+        double operation = ThreadLocalRandom.current().nextDouble();
 
         if (operation < 0.4) { // 40% chance - CREATE
-            return createRandomEvent();
+            return randomChange(Operation.CREATE, UNPUBLISHED);
         } else if (operation < 0.8) { // 40% chance - UPDATE
-            return updateExistingEvent();
+            return randomChange(Operation.UPDATE, UNPUBLISHED);
         } else { // 20% chance - DELETE
-            return deleteRandomEvent();
-        }
-    }
-
-    private SseEvent createRandomEvent() {
-        String[] eventNames = {
-            "Database Connection", "API Response Time", "Memory Usage",
-            "CPU Load", "Disk Space", "Network Latency", "User Login",
-            "Payment Processing", "Email Delivery", "File Upload",
-            "Cache Hit Rate", "Queue Length", "Error Rate", "Response Time",
-            "Active Sessions", "Data Sync", "Backup Status", "Security Scan"
-        };
-
-        String[] descriptions = {
-            "Monitoring database connection health",
-            "Tracking API response times",
-            "Monitoring system memory usage",
-            "Tracking CPU utilization",
-            "Monitoring available disk space",
-            "Measuring network latency",
-            "Tracking user authentication",
-            "Monitoring payment transactions",
-            "Tracking email delivery status",
-            "Monitoring file upload progress",
-            "Tracking cache performance",
-            "Monitoring queue processing",
-            "Tracking system errors",
-            "Measuring response times",
-            "Tracking active user sessions",
-            "Monitoring data synchronization",
-            "Tracking backup operations",
-            "Monitoring security scans"
-        };
-
-        Severity[] severities = Severity.values();
+            return randomChange(Operation.DELETE, UNPUBLISHED);
+        }
+    }
+
+    @Override
+    public SseEvent randomChange(Operation operation, Consumer<SseEvent> publish) {
+        switch (operation) {
+            case CREATE:
+                return createRandomEvent(publish);
+            case UPDATE:
+                return updateExistingEvent(publish);
+            case DELETE:
+            default:
+                return deleteRandomEvent(publish);
+        }
+    }
 
+    private SseEvent createRandomEvent(Consumer<SseEvent> publish) {
+        Random random = ThreadLocalRandom.current();
         SystemEvent newEvent = SystemEvent.builder()
-            .id(UUID.randomUUID())
-            .name(eventNames[random.nextInt(eventNames.length)])
-            .description(descriptions[random.nextInt(descriptions.length)])
-            .severity(severities[random.nextInt(severities.length)])
+            .id(randomUuid(random))
+            .name(EVENT_NAMES[random.nextInt(EVENT_NAMES.length)])
+            .description(DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)])
+            .severity(SEVERITIES[random.nextInt(SEVERITIES.length)])
             .createdAt(Instant.now())
             .updatedAt(Instant.now())
             .active(true) // CREATE operations should always create active events
             .count(random.nextInt(1000))
+            .version(1)
             .build();
 
-        events.put(newEvent.getId(), newEvent);
-        log.info("Created new event: {} (severity: {}, active: {}, count: {})",
+        SseEvent change = publishing(newEvent.getId(), () -> {
+            store(newEvent);
+            return SseEvent.builder()
+                .operation(Operation.CREATE)
+                .event(newEvent)
+                .build();
+        }, publish);
+        log.debug("Created new event: {} (severity: {}, active: {}, count: {})",
             newEvent.getName(), newEvent.getSeverity(), newEvent.isActive(), newEvent.getCount());
-
-        return SseEvent.builder()
-            .operation(Operation.CREATE)
-            .event(newEvent)
-            .build();
+        return change;
     }
 
-    private SseEvent updateExistingEvent() {
-        if (events.isEmpty()) {
-            return createRandomEvent(); // Create if no events exist
+    private SseEvent updateExistingEvent(Consumer<SseEvent> publish) {
+        Random random = ThreadLocalRandom.current();
+        UUID randomId = indexes.randomId(random);
+        // Randomly update event properties; the severity changes half the time.
+        // UPDATE operations should never change active status, only DELETE marks events inactive
+        int increment = random.nextInt(50) + 1;
+        Severity severity = random.nextBoolean() ? SEVERITIES[random.nextInt(SEVERITIES.length)] : null;
+        SseEvent change = randomId != null ? publishing(randomId, () -> updated(randomId,
+            existing -> existing.next(Instant.now())
+                .count(existing.getCount() + increment)
+                .severity(severity != null ? severity : existing.getSeverity())
+                .build()), publish) : null;
+        if (change == null) {
+            return createRandomEvent(publish); // Create if no events exist
         }
 
-        List<SystemEvent> eventList = new ArrayList<>(events.values());
-        SystemEvent randomEvent = eventList.get(random.nextInt(eventList.size()));
-
-        // Randomly update event properties
-        randomEvent.setCount(randomEvent.getCount() + random.nextInt(50) + 1);
-        randomEvent.setUpdatedAt(Instant.now());
+        log.debug("Updated event: {} (count: {}, severity: {}, active: {})", change.getEvent().getName(),
+            change.getEvent().getCount(), change.getEvent().getSeverity(), change.getEvent().isActive());
+        return change;
+    }
 
-        // Randomly change severity
-        if (random.nextBoolean()) {
-            Severity[] severities = Severity.values();
-            randomEvent.setSeverity(severities[random.nextInt(severities.length)]);
+    private SseEvent deleteRandomEvent(Consumer<SseEvent> publish) {
+        // Keep at least 2 active events - update instead of delete
+        if (indexes.activeCount() <= 2) {
+            return updateExistingEvent(publish);
         }
 
-        // UPDATE operations should never change active status
-        // Only DELETE operations should mark events as inactive
+        // Pick only from active events for deletion
+        UUID activeId = indexes.randomActiveId(ThreadLocalRandom.current());
+        SseEvent change = activeId != null ? publishing(activeId, () -> deactivated(activeId), publish) : null;
+        if (change == null) {
+            return updateExistingEvent(publish);
+        }
 
-        events.put(randomEvent.getId(), randomEvent);
-        log.info("Updated event: {} (count: {}, severity: {}, active: {})",
-            randomEvent.getName(), randomEvent.getCount(),
-            randomEvent.getSeverity(), randomEvent.isActive());
+        log.debug("Marked event as inactive: {} (count: {})", change.getEvent().getName(), change.getEvent().getCount());
+        return change;
+    }
 
+    // An UPDATE of the event; the function builds on next(), so it keeps the active status
+    private SseEvent updated(UUID id, UnaryOperator<SystemEvent> function) {
+        SystemEvent[] change = update(id, function);
+        if (change == null) {
+            return null;
+        }
         return SseEvent.builder()
             .operation(Operation.UPDATE)
-            .event(randomEvent)
+            .event(change[1])
+            .delta(SystemEventDelta.between(change[0], change[1]))
             .build();
     }
 
-    private SseEvent deleteRandomEvent() {
-        // Get only active events for deletion
-        List<SystemEvent> activeEvents = events.values().stream()
-            .filter(SystemEvent::isActive)
-            .collect(Collectors.toList());
-
-        // Keep at least 2 active events - update instead of delete
-        if (activeEvents.size() <= 2) {
-            return updateExistingEvent();
+    // Marks the event inactive instead of removing it; null if another writer already did
+    private SseEvent deactivated(UUID id) {
+        SystemEvent[] change = update(id, existing -> existing.isActive()
+            ? existing.next(Instant.now()).active(false).build()
+            : existing);
+        if (change == null || change[0] == change[1]) {
+            return null;
         }
+        return SseEvent.builder()
+            .operation(Operation.DELETE)
+            .event(change[1])
+            .build();
+    }
 
-        SystemEvent eventToDelete = activeEvents.get(random.nextInt(activeEvents.size()));
+    // Applies a change to the event and publishes it before any later change to the same event is applied
+    private SseEvent publishing(UUID id, Supplier<SseEvent> write, Consumer<SseEvent> publish) {
+        ReentrantLock lock = publishing[stripe(id)];
+        lock.lock();
+        try {
+            SseEvent change = write.get();
+            if (change != null) {
+                publish.accept(change);
+            }
+            return change;
+        } finally {
+            lock.unlock();
+        }
+    }
 
-        // Mark as inactive instead of removing
-        eventToDelete.setActive(false);
-        eventToDelete.setUpdatedAt(Instant.now());
-        events.put(eventToDelete.getId(), eventToDelete);
+    private static int stripe(UUID id) {
+        return id.hashCode() & (PUBLISH_STRIPES - 1);
+    }
 
-        log.info("Marked event as inactive: {} (was active: {}, count: {})",
-            eventToDelete.getName(), eventToDelete.isActive(), eventToDelete.getCount());
+    // Version 4 UUID without UUID.randomUUID()'s shared SecureRandom, which caps generation rates
+    private static UUID randomUuid(Random random) {
+        long most = random.nextLong() & ~0xF000L | 0x4000L;
+        long least = random.nextLong() & ~(0xC000L << 48) | (0x8000L << 48);
+        return new UUID(most, least);
+    }
 
-        return SseEvent.builder()
-            .operation(Operation.DELETE)
-            .event(eventToDelete)
-            .build();
+    @Override
+    public void apply(SseEvent change) {
+        // Every operation carries the event's full state, DELETE included (it only marks it inactive)
+        if (store(change.getEvent(), true)) {
+            log.debug("Applied {} of event {} from another node", change.getOperation(), change.getEvent().getId());
+        } else {
+            log.debug("Ignored {} of event {} from another node, which already has a later version",
+                change.getOperation(), change.getEvent().getId());
+        }
     }
 
     @Override
     public List<SystemEvent> getActiveEvents() {
-        return events.values().stream()
-            .filter(SystemEvent::isActive)
+        List<SystemEvent> activeEvents = new ArrayList<>(indexes.activeCount());
+        for (UUID id : indexes.activeIds()) {
+            SystemEvent event = events.get(id);
+            if (event != null && event.isActive()) {
+                activeEvents.add(event);
+            }
+        }
+        return activeEvents;
+    }
+
+    @Override
+    public List<SystemEvent> getActiveEventsAfter(UUID after, int limit) {
+        List<SystemEvent> page = new ArrayList<>(Math.min(limit, indexes.activeCount()));
+        for (UUID id : indexes.activeIdsAfter(after)) {
+            if (page.size() == limit) {
+                break;
+            }
+            SystemEvent event = events.get(id);
+            if (event != null && event.isActive()) {
+                page.add(event);
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public List<SystemEvent> getEventsBySeverity(Severity severity) {
+        return indexes.idsWithSeverity(severity).stream()
+            .map(events::get)
+            .filter(Objects::nonNull)
+            .filter(event -> event.isActive() && event.getSeverity() == severity)
             .collect(Collectors.toList());
     }
 
@@ -264,16 +469,112 @@ public class EventServiceImpl implements EventService {
     public void cleanupInactiveEvents() {
         Instant fiveSecondsAgo = Instant.now().minusSeconds(5);
 
-        List<UUID> eventsToRemove = events.values().stream()
-            .filter(event -> !event.isActive() && event.getUpdatedAt().isBefore(fiveSecondsAgo))
-            .map(SystemEvent::getId)
-            .collect(Collectors.toList());
+        // Only visits events that went inactive before the cutoff, not the whole store
+        int[] removed = {0};
+        indexes.drainInactiveBefore(fiveSecondsAgo, expiry -> {
+            if (removeIf(expiry.getId(),
+                    event -> !event.isActive() && event.getUpdatedAt().isBefore(fiveSecondsAgo)) != null) {
+                removed[0]++;
+            }
+        });
 
-        if (eventsToRemove.isEmpty()) {
+        if (removed[0] == 0) {
             return;
         }
 
-        eventsToRemove.forEach(events::remove);
-        log.info("Cleaned up {} inactive events", eventsToRemove.size());
+        log.info("Cleaned up {} inactive events", removed[0]);
+    }
+
+    private void store(SystemEvent event) {
+        store(event, false);
+    }
+
+    /**
+     * Stores, re-indexes and journals the event; compute serializes this with other writers of
+     * the same key. With {@code newerOnly}, keeps the stored event if it is already at the same
+     * or a later version, and returns whether the event was stored.
+     */
+    private boolean store(SystemEvent event, boolean newerOnly) {
+        long[] ticket = {NOT_JOURNALED};
+        boolean[] stored = {false};
+        try {
+            events.compute(event.getId(), (id, previous) -> {
+                if (newerOnly && previous != null && event.getVersion() <= previous.getVersion()) {
+                    return previous;
+                }
+                indexes.index(event);
+                ticket[0] = journal.append(event);
+                stored[0] = true;
+                return event;
+            });
+        } finally {
+            applied(ticket[0]);
+        }
+        if (stored[0]) {
+            version.incrementAndGet();
+        }
+        return stored[0];
+    }
+
+    // Once compute has returned, the journaled change is visible to snapshots of the store
+    private void applied(long ticket) {
+        if (ticket != NOT_JOURNALED) {
+            journal.applied(ticket);
+        }
+    }
+
+    /**
+     * Replaces an event with the next version the function derives from the current one,
+     * which is never mutated. compute runs the function against the latest version, so
+     * concurrent writers of one event never lose each other's changes. Returns the
+     * previous and new versions, the same instance twice if the function made no change,
+     * or null if there is no such event.
+     */
+    private SystemEvent[] update(UUID id, UnaryOperator<SystemEvent> function) {
+        SystemEvent[] change = new SystemEvent[2];
+        long[] ticket = {NOT_JOURNALED};
+        try {
+            events.computeIfPresent(id, (key, existing) -> {
+                SystemEvent updated = function.apply(existing);
+                if (updated != existing) {
+                    indexes.index(updated);
+                    ticket[0] = journal.append(updated);
+                }
+                change[0] = existing;
+                change[1] = updated;
+                return updated;
+            });
+        } finally {
+            applied(ticket[0]);
+        }
+        if (change[1] == null) {
+            return null;
+        }
+        if (change[0] != change[1]) {
+            version.incrementAndGet();
+        }
+        return change;
+    }
+
+    private SystemEvent removeIf(UUID id, Predicate<SystemEvent> condition) {
+        AtomicReference<SystemEvent> removed = new AtomicReference<>();
+        long[] ticket = {NOT_JOURNALED};
+        try {
+            events.computeIfPresent(id, (key, existing) -> {
+                if (!condition.test(existing)) {
+                    return existing;
+                }
+                indexes.unindex(key);
+                ticket[0] = journal.appendRemoval(key);
+                removed.set(existing);
+                return null;
+            });
+        } finally {
+            applied(ticket[0]);
+        }
+        if (removed.get() != null) {
+            version.incrementAndGet();
+        }
+        return removed.get();
     }
 }
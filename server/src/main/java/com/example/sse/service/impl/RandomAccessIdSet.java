@@ -0,0 +1,113 @@
+package com.example.sse.service.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Set of IDs supporting O(1) add, remove and uniform random selection: IDs
+ * live in dense lists and removal swaps the last element into the hole.
+ * The IDs are spread over stripes, each with its own lock, so writers of
+ * different events (which re-index on every change, inside the store's
+ * compute) rarely wait for each other.
+ */
+class RandomAccessIdSet {
+
+    private static final int STRIPES = 32;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    RandomAccessIdSet() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    boolean add(UUID id) {
+        Stripe stripe = stripeFor(id);
+        synchronized (stripe) {
+            if (stripe.positions.containsKey(id)) {
+                return false;
+            }
+            stripe.positions.put(id, stripe.ids.size());
+            stripe.ids.add(id);
+            stripe.size = stripe.ids.size();
+            return true;
+        }
+    }
+
+    boolean remove(UUID id) {
+        Stripe stripe = stripeFor(id);
+        synchronized (stripe) {
+            Integer position = stripe.positions.remove(id);
+            if (position == null) {
+                return false;
+            }
+            UUID last = stripe.ids.remove(stripe.ids.size() - 1);
+            if (position < stripe.ids.size()) {
+                stripe.ids.set(position, last);
+                stripe.positions.put(last, position);
+            }
+            stripe.size = stripe.ids.size();
+            return true;
+        }
+    }
+
+    /**
+     * Picks a stripe in proportion to its size, then an ID within it. Sizes
+     * read while other threads write may be slightly off, which only skews
+     * the odds until they settle; it starts over if the pick lands past the end.
+     */
+    UUID random(Random random) {
+        int total;
+        while ((total = size()) > 0) {
+            int target = random.nextInt(total);
+            for (Stripe stripe : stripes) {
+                int size = stripe.size;
+                if (target < size) {
+                    synchronized (stripe) {
+                        if (target < stripe.ids.size()) {
+                            return stripe.ids.get(target);
+                        }
+                    }
+                    break;
+                }
+                target -= size;
+            }
+        }
+        return null;
+    }
+
+    int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size;
+        }
+        return size;
+    }
+
+    List<UUID> toList() {
+        List<UUID> list = new ArrayList<>(size());
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                list.addAll(stripe.ids);
+            }
+        }
+        return list;
+    }
+
+    private Stripe stripeFor(UUID id) {
+        return stripes[id.hashCode() & (STRIPES - 1)];
+    }
+
+    private static class Stripe {
+        // Guarded by the stripe
+        private final List<UUID> ids = new ArrayList<>();
+        private final Map<UUID, Integer> positions = new HashMap<>();
+        // Written under the stripe's lock, read without it
+        private volatile int size;
+    }
+}
@@ -0,0 +1,379 @@
+package com.example.sse.stats;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import com.example.sse.model.EventStats;
+import com.example.sse.model.Severity;
+
+/**
+ * Rolling per-event aggregates in fixed-size rings: count deltas per second
+ * and per minute, and severity changes and the peak severity per minute.
+ * Everything lives in primitive arrays, in pages of {@value #PAGE_SIZE} events
+ * allocated as events arrive, and events are found through an open-addressing
+ * table of slot numbers, so recording a change neither boxes nor allocates.
+ * At most {@code maxEvents} events are tracked; further ones are counted as
+ * untracked until {@link #release} frees a slot.
+ * <p>
+ * Buckets are addressed by time since an origin on a whole minute: a ring
+ * holds the bucket for second {@code t} at {@code t % seconds}, and buckets an
+ * event skipped are cleared when it is next recorded or read.
+ */
+public class EventStatsTracker {
+
+    private static final int PAGE_BITS = 12;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+    private static final int MIN_TABLE_SIZE = 1024;
+    private static final Severity[] SEVERITIES = Severity.values();
+    // Per-minute severity cells: changes in the upper 12 bits, peak severity ordinal + 1 in the lower 4
+    private static final int PEAK_MASK = 0xF;
+    private static final int MAX_CHANGES = 0xFFF;
+
+    private final int maxEvents;
+    private final int seconds;
+    private final int minutes;
+    private final long originMillis;
+    private final Page[] pages;
+    // Slot + 1 of each tracked event by hash of its ID, 0 for an empty entry; linear probing
+    private int[] table = new int[MIN_TABLE_SIZE];
+    private int size;
+    // Slots handed out so far; freed ones are reused first
+    private int allocated;
+    private int[] free = new int[0];
+    private int freeCount;
+    // Slots recorded since the last drainChanged, each once
+    private int[] changed = new int[0];
+    private int changedCount;
+    private long untracked;
+
+    public EventStatsTracker(int maxEvents, int seconds, int minutes, long nowMillis) {
+        if (maxEvents < 1 || seconds < 1 || minutes < 1) {
+            throw new IllegalArgumentException("Stats need room for at least one event, second and minute");
+        }
+        this.maxEvents = maxEvents;
+        this.seconds = seconds;
+        this.minutes = minutes;
+        this.originMillis = nowMillis - nowMillis % 60_000;
+        this.pages = new Page[(maxEvents + PAGE_SIZE - 1) >>> PAGE_BITS];
+    }
+
+    /**
+     * Records the event's count and severity as of now. The first time an event
+     * is seen its count is only taken as the base for later deltas; a count that
+     * went down is taken as a new base too.
+     */
+    public synchronized void record(UUID id, int count, Severity severity, long nowMillis) {
+        int slot = find(id);
+        if (slot < 0) {
+            slot = allocate(id);
+            if (slot < 0) {
+                untracked++;
+                return;
+            }
+            Page page = pages[slot >>> PAGE_BITS];
+            int index = slot & PAGE_MASK;
+            page.lastCount[index] = count;
+            page.severity[index] = (byte) (severity != null ? severity.ordinal() + 1 : 0);
+            page.second[index] = second(nowMillis);
+            markChanged(page, index, slot);
+            return;
+        }
+        Page page = pages[slot >>> PAGE_BITS];
+        int index = slot & PAGE_MASK;
+        int now = Math.max(second(nowMillis), page.second[index]);
+        advance(page, index, now);
+
+        long delta = (long) count - page.lastCount[index];
+        page.lastCount[index] = count;
+        if (delta > 0) {
+            int secondCell = index * seconds + now % seconds;
+            page.perSecond[secondCell] = (char) Math.min(page.perSecond[secondCell] + delta, Character.MAX_VALUE);
+            int minuteCell = index * minutes + now / 60 % minutes;
+            page.perMinute[minuteCell] = (int) Math.min(page.perMinute[minuteCell] + delta, Integer.MAX_VALUE);
+        }
+
+        int previous = page.severity[index];
+        int current = severity != null ? severity.ordinal() + 1 : previous;
+        int minuteCell = index * minutes + now / 60 % minutes;
+        int cell = page.severityChanges[minuteCell];
+        int changes = cell >>> 4;
+        if (current != previous && previous != 0) {
+            changes = Math.min(changes + 1, MAX_CHANGES);
+        }
+        int peak = Math.max(cell & PEAK_MASK, Math.max(previous, current));
+        page.severityChanges[minuteCell] = (char) (changes << 4 | peak);
+        page.severity[index] = (byte) current;
+        markChanged(page, index, slot);
+    }
+
+    // Stops tracking the event and frees its slot
+    public synchronized void release(UUID id) {
+        int entry = entryOf(id);
+        if (entry < 0) {
+            return;
+        }
+        int slot = table[entry] - 1;
+        removeEntry(entry);
+        size--;
+        Page page = pages[slot >>> PAGE_BITS];
+        int index = slot & PAGE_MASK;
+        page.used[index] = false;
+        if (freeCount == free.length) {
+            free = Arrays.copyOf(free, Math.max(16, free.length * 2));
+        }
+        free[freeCount++] = slot;
+    }
+
+    /**
+     * The event's aggregates over the window up to now, or null if it is not
+     * tracked. Windows up to the per-second ring are summed by second; longer
+     * ones by minute, rounded up to whole minutes with the current one so far
+     * included, and at most the per-minute ring. Severity changes are always
+     * counted by minute. With {@code series}, the per-second and per-minute
+     * counts of the whole rings come along, oldest first.
+     */
+    public synchronized EventStats stats(UUID id, long windowSeconds, boolean series, long nowMillis) {
+        int slot = find(id);
+        return slot < 0 ? null : stats(slot, windowSeconds, series, nowMillis);
+    }
+
+    /**
+     * Aggregates over the window of the events recorded since the last call,
+     * highest counts first and at most {@code limit} of them. A limit of 0 just
+     * starts over.
+     */
+    public synchronized List<EventStats> drainChanged(long windowSeconds, int limit, long nowMillis) {
+        List<EventStats> result = new ArrayList<>(limit > 0 ? changedCount : 0);
+        for (int i = 0; i < changedCount; i++) {
+            int slot = changed[i];
+            Page page = pages[slot >>> PAGE_BITS];
+            page.changed[slot & PAGE_MASK] = false;
+            if (limit > 0 && isTracked(page, slot & PAGE_MASK)) {
+                result.add(stats(slot, windowSeconds, false, nowMillis));
+            }
+        }
+        changedCount = 0;
+        result.sort((a, b) -> Long.compare(b.getCount(), a.getCount()));
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    // Changes to events that found no free slot
+    public synchronized long getUntracked() {
+        return untracked;
+    }
+
+    private EventStats stats(int slot, long windowSeconds, boolean series, long nowMillis) {
+        Page page = pages[slot >>> PAGE_BITS];
+        int index = slot & PAGE_MASK;
+        int now = Math.max(second(nowMillis), page.second[index]);
+        advance(page, index, now);
+
+        long window = Math.max(1, windowSeconds);
+        long count = 0;
+        long covered;
+        int windowMinutes;
+        if (window <= seconds) {
+            for (int t = now; t > now - window; t--) {
+                count += page.perSecond[index * seconds + Math.floorMod(t, seconds)];
+            }
+            covered = window;
+            windowMinutes = (int) (now / 60 - Math.floorDiv(now - window + 1, 60) + 1);
+        } else {
+            windowMinutes = (int) Math.min(minutes, (window + 59) / 60);
+            for (int m = now / 60; m > now / 60 - windowMinutes; m--) {
+                count += page.perMinute[index * minutes + Math.floorMod(m, minutes)];
+            }
+            covered = (windowMinutes - 1) * 60L + now % 60 + 1;
+        }
+
+        int changes = 0;
+        int peak = page.severity[index];
+        for (int m = now / 60; m > now / 60 - Math.min(windowMinutes, minutes); m--) {
+            int cell = page.severityChanges[index * minutes + Math.floorMod(m, minutes)];
+            changes += cell >>> 4;
+            peak = Math.max(peak, cell & PEAK_MASK);
+        }
+
+        EventStats.EventStatsBuilder stats = EventStats.builder()
+            .id(new UUID(page.idHigh[index], page.idLow[index]))
+            .severity(severityOf(page.severity[index]))
+            .windowSeconds(covered)
+            .count(count)
+            .rate((double) count / covered)
+            .severityChanges(changes)
+            .peakSeverity(severityOf(peak));
+        if (series) {
+            int[] perSecond = new int[seconds];
+            for (int i = 0; i < seconds; i++) {
+                perSecond[i] = page.perSecond[index * seconds + Math.floorMod(now - seconds + 1 + i, seconds)];
+            }
+            int[] perMinute = new int[minutes];
+            for (int i = 0; i < minutes; i++) {
+                perMinute[i] = page.perMinute[index * minutes + Math.floorMod(now / 60 - minutes + 1 + i, minutes)];
+            }
+            stats.perSecond(perSecond).perMinute(perMinute);
+        }
+        return stats.build();
+    }
+
+    // Clears the buckets between the event's newest ones and now, so the rings only hold the last seconds and minutes
+    private void advance(Page page, int index, int now) {
+        int last = page.second[index];
+        if (now <= last) {
+            return;
+        }
+        for (int t = Math.max(last + 1, now - seconds + 1); t <= now; t++) {
+            page.perSecond[index * seconds + t % seconds] = 0;
+        }
+        for (int m = Math.max(last / 60 + 1, now / 60 - minutes + 1); m <= now / 60; m++) {
+            page.perMinute[index * minutes + m % minutes] = 0;
+            page.severityChanges[index * minutes + m % minutes] = 0;
+        }
+        page.second[index] = now;
+    }
+
+    private int second(long nowMillis) {
+        return (int) Math.max(0, (nowMillis - originMillis) / 1000);
+    }
+
+    private static Severity severityOf(int stored) {
+        return stored > 0 ? SEVERITIES[stored - 1] : null;
+    }
+
+    private static boolean isTracked(Page page, int index) {
+        return page.used[index];
+    }
+
+    private void markChanged(Page page, int index, int slot) {
+        if (page.changed[index]) {
+            return;
+        }
+        page.changed[index] = true;
+        if (changedCount == changed.length) {
+            changed = Arrays.copyOf(changed, Math.max(16, changed.length * 2));
+        }
+        changed[changedCount++] = slot;
+    }
+
+    private int find(UUID id) {
+        int entry = entryOf(id);
+        return entry < 0 ? -1 : table[entry] - 1;
+    }
+
+    // Position of the event's table entry, or -1
+    private int entryOf(UUID id) {
+        int mask = table.length - 1;
+        long high = id.getMostSignificantBits();
+        long low = id.getLeastSignificantBits();
+        for (int entry = hash(high, low) & mask; table[entry] != 0; entry = (entry + 1) & mask) {
+            int slot = table[entry] - 1;
+            Page page = pages[slot >>> PAGE_BITS];
+            if (page.idHigh[slot & PAGE_MASK] == high && page.idLow[slot & PAGE_MASK] == low) {
+                return entry;
+            }
+        }
+        return -1;
+    }
+
+    // A free slot holding the ID and zeroed buckets, or -1 when maxEvents are tracked already
+    private int allocate(UUID id) {
+        int slot;
+        if (freeCount > 0) {
+            slot = free[--freeCount];
+        } else if (allocated < maxEvents) {
+            slot = allocated++;
+            if (pages[slot >>> PAGE_BITS] == null) {
+                pages[slot >>> PAGE_BITS] = new Page(seconds, minutes);
+            }
+        } else {
+            return -1;
+        }
+        Page page = pages[slot >>> PAGE_BITS];
+        int index = slot & PAGE_MASK;
+        page.idHigh[index] = id.getMostSignificantBits();
+        page.idLow[index] = id.getLeastSignificantBits();
+        page.used[index] = true;
+        Arrays.fill(page.perSecond, index * seconds, (index + 1) * seconds, (char) 0);
+        Arrays.fill(page.perMinute, index * minutes, (index + 1) * minutes, 0);
+        Arrays.fill(page.severityChanges, index * minutes, (index + 1) * minutes, (char) 0);
+
+        if (++size * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        insert(slot);
+        return slot;
+    }
+
+    private void insert(int slot) {
+        int mask = table.length - 1;
+        int entry = hashOf(slot) & mask;
+        while (table[entry] != 0) {
+            entry = (entry + 1) & mask;
+        }
+        table[entry] = slot + 1;
+    }
+
+    private void rehash(int length) {
+        int[] old = table;
+        table = new int[length];
+        for (int entry : old) {
+            if (entry != 0) {
+                insert(entry - 1);
+            }
+        }
+    }
+
+    // Backward-shift deletion: entries after the hole that may sit there move up, so probes still find them
+    private void removeEntry(int hole) {
+        int mask = table.length - 1;
+        for (int entry = (hole + 1) & mask; table[entry] != 0; entry = (entry + 1) & mask) {
+            int home = hashOf(table[entry] - 1) & mask;
+            if (((entry - home) & mask) >= ((entry - hole) & mask)) {
+                table[hole] = table[entry];
+                hole = entry;
+            }
+        }
+        table[hole] = 0;
+    }
+
+    private int hashOf(int slot) {
+        Page page = pages[slot >>> PAGE_BITS];
+        return hash(page.idHigh[slot & PAGE_MASK], page.idLow[slot & PAGE_MASK]);
+    }
+
+    private static int hash(long high, long low) {
+        long h = (high ^ low) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ h >>> 32);
+    }
+
+    // Struct-of-arrays storage for PAGE_SIZE events; an event's ring cells are contiguous
+    private static final class Page {
+        final long[] idHigh = new long[PAGE_SIZE];
+        final long[] idLow = new long[PAGE_SIZE];
+        // Whether the slot holds an event; any ID, the nil UUID included, is a valid one
+        final boolean[] used = new boolean[PAGE_SIZE];
+        final int[] lastCount = new int[PAGE_SIZE];
+        // Severity ordinal + 1, 0 for none
+        final byte[] severity = new byte[PAGE_SIZE];
+        // Second since the origin of the event's newest buckets
+        final int[] second = new int[PAGE_SIZE];
+        final boolean[] changed = new boolean[PAGE_SIZE];
+        // Count deltas, saturating at 65535 per second
+        final char[] perSecond;
+        final int[] perMinute;
+        final char[] severityChanges;
+
+        Page(int seconds, int minutes) {
+            perSecond = new char[PAGE_SIZE * seconds];
+            perMinute = new int[PAGE_SIZE * minutes];
+            severityChanges = new char[PAGE_SIZE * minutes];
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.sse.stream;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import com.example.sse.model.sse.Operation;
+import com.example.sse.model.sse.SseEvent;
+
+import lombok.Getter;
+
+/**
+ * Collects changes between batch flushes, keeping at most one change per
+ * event: successive UPDATEs collapse into the latest with their deltas
+ * merged, an UPDATE or DELETE after a CREATE stays a CREATE or cancels it,
+ * and an UPDATE followed by a DELETE becomes the DELETE. Not thread-safe;
+ * callers hold the broadcast lock.
+ */
+public class ChangeCoalescer {
+
+    // Keyed by event ID, in the order each event first changed during the window
+    private final Map<UUID, SseEvent> pending = new LinkedHashMap<>();
+    // Highest sequence folded into the pending batch, including collapsed changes
+    @Getter
+    private long lastSequence;
+    @Getter
+    private int received;
+
+    /**
+     * @return the number of distinct pending changes after adding this one
+     */
+    public int add(SseEvent change) {
+        received++;
+        lastSequence = Math.max(lastSequence, change.getSequence());
+        UUID id = change.getEvent().getId();
+        SseEvent previous = pending.get(id);
+        if (previous == null) {
+            pending.put(id, change);
+        } else if (previous.getOperation() == Operation.CREATE) {
+            if (change.getOperation() == Operation.DELETE) {
+                // Clients never saw it, so they need not hear about it at all
+                pending.remove(id);
+            } else {
+                pending.put(id, withOperation(change, Operation.CREATE));
+            }
+        } else if (previous.getOperation() == Operation.DELETE && change.getOperation() == Operation.UPDATE) {
+            // Deleted events stay inactive; keep reporting the delete with the latest state
+            pending.put(id, withOperation(change, Operation.DELETE));
+        } else if (previous.getDelta() != null && change.getDelta() != null) {
+            // Successive UPDATEs: the merged delta spans from the first base version to the latest
+            pending.put(id, change.toBuilder().delta(previous.getDelta().merge(change.getDelta())).build());
+        } else {
+            pending.put(id, change);
+        }
+        return pending.size();
+    }
+
+    public boolean isEmpty() {
+        return pending.isEmpty();
+    }
+
+    /**
+     * Returns the pending changes in first-change order and starts a new window.
+     */
+    public List<SseEvent> drain() {
+        List<SseEvent> batch = new ArrayList<>(pending.values());
+        pending.clear();
+        received = 0;
+        return batch;
+    }
+
+    // Only UPDATEs carry deltas; the other operations always send the full event
+    private static SseEvent withOperation(SseEvent change, Operation operation) {
+        return SseEvent.builder()
+            .operation(operation)
+            .event(change.getEvent())
+            .sequence(change.getSequence())
+            .build();
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.sse.stream;
+
+import java.io.UncheckedIOException;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.example.sse.model.SystemEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import lombok.Getter;
+
+/**
+ * The events of one snapshot version in one filter and format, split into
+ * {@code initial-chunk} frames of a fixed number of events. Chunks are encoded
+ * as streams reach them and kept for the other streams sent the same version,
+ * so a large store is never encoded into one huge frame, nor once per
+ * connection. Chunk frames carry no id: a client that reconnects mid-snapshot
+ * resumes from before it and gets a new one.
+ */
+public class ChunkedSnapshot {
+
+    @Getter
+    private final long version;
+    private final List<SystemEvent> events;
+    private final int chunkSize;
+    private final WireFormat format;
+    private final SseFrameEncoder frameEncoder;
+    private final AtomicReferenceArray<SseFrame> chunks;
+
+    public ChunkedSnapshot(long version, List<SystemEvent> events, int chunkSize, WireFormat format,
+                           SseFrameEncoder frameEncoder) {
+        this.version = version;
+        this.events = events;
+        this.chunkSize = chunkSize;
+        this.format = format;
+        this.frameEncoder = frameEncoder;
+        this.chunks = new AtomicReferenceArray<>((events.size() + chunkSize - 1) / chunkSize);
+    }
+
+    public int getEventCount() {
+        return events.size();
+    }
+
+    public int getChunkCount() {
+        return chunks.length();
+    }
+
+    public SseFrame chunk(int index) throws JsonProcessingException {
+        SseFrame frame = chunks.get(index);
+        if (frame == null) {
+            // Streams reaching the chunk together may both encode it; either copy will do
+            List<SystemEvent> chunk = events.subList(index * chunkSize, Math.min(events.size(), (index + 1) * chunkSize));
+            frame = frameEncoder.encode(format, "initial-chunk", null, chunk, null);
+            chunks.compareAndSet(index, null, frame);
+        }
+        return frame;
+    }
+
+    /**
+     * The chunk frames followed by the given {@code initial-complete} frame. Chunks are
+     * encoded as the list is iterated, so a stream only pulls them as fast as it writes.
+     */
+    public List<SseFrame> frames(SseFrame complete) {
+        return new AbstractList<>() {
+            @Override
+            public SseFrame get(int index) {
+                if (index == chunks.length()) {
+                    return complete;
+                }
+                try {
+                    return chunk(index);
+                } catch (JsonProcessingException e) {
+                    throw new UncheckedIOException("Failed to encode snapshot chunk " + index, e);
+                }
+            }
+
+            @Override
+            public int size() {
+                return chunks.length() + 1;
+            }
+        };
+    }
+}
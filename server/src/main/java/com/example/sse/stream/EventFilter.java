@@ -0,0 +1,78 @@
+package com.example.sse.stream;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+import com.example.sse.model.Severity;
+import com.example.sse.model.SystemEvent;
+import com.example.sse.model.sse.Operation;
+import com.example.sse.model.sse.SseEvent;
+
+import lombok.Value;
+
+/**
+ * Server-side subscription filter. Instances are normalized by {@link #of}, so
+ * requests that select the same events compare equal and share a subscriber
+ * group.
+ */
+@Value
+public class EventFilter {
+
+    public static final EventFilter NONE = new EventFilter(null, null, false);
+
+    // null matches every severity
+    Set<Severity> severities;
+    // Case-insensitive; null matches every name
+    String namePrefix;
+    // Skip events that are already inactive (DELETEs still go out so clients can drop them)
+    boolean activeOnly;
+
+    public static EventFilter of(Collection<Severity> severities, String namePrefix, boolean activeOnly) {
+        Set<Severity> normalizedSeverities = null;
+        if (severities != null && !severities.isEmpty() && severities.size() < Severity.values().length) {
+            normalizedSeverities = Collections.unmodifiableSet(EnumSet.copyOf(severities));
+        }
+        String normalizedPrefix = namePrefix == null || namePrefix.isBlank() ? null : namePrefix.trim();
+        if (normalizedSeverities == null && normalizedPrefix == null && !activeOnly) {
+            return NONE;
+        }
+        return new EventFilter(normalizedSeverities, normalizedPrefix, activeOnly);
+    }
+
+    public boolean isEmpty() {
+        return this.equals(NONE);
+    }
+
+    public boolean matches(SystemEvent event) {
+        return matchesName(event)
+            && (!activeOnly || event.isActive())
+            && (severities == null || severities.contains(event.getSeverity()));
+    }
+
+    public boolean matches(SseEvent change) {
+        SystemEvent event = change.getEvent();
+        if (!matchesName(event)) {
+            return false;
+        }
+        if (activeOnly && !event.isActive() && change.getOperation() != Operation.DELETE) {
+            return false;
+        }
+        // A change that moved the event out of the severity set still goes out, so clients can drop it
+        return severities == null || severities.contains(event.getSeverity()) || canMove(change);
+    }
+
+    /**
+     * Whether the change may have moved the event into or out of this filter, in
+     * which case the client may not hold a base for a delta and gets the full event.
+     */
+    public boolean canMove(SseEvent change) {
+        return severities != null && change.getDelta() != null && change.getDelta().getSeverity() != null;
+    }
+
+    private boolean matchesName(SystemEvent event) {
+        return namePrefix == null || event.getName() != null
+            && event.getName().regionMatches(true, 0, namePrefix, 0, namePrefix.length());
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.sse.stream;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.example.sse.model.sse.SseEvent;
+
+/**
+ * Fixed-size ring of the most recently broadcast frames, bounded both by
+ * count and by age, used to replay missed deltas to clients that reconnect
+ * with a {@code Last-Event-ID}. Each frame carries one change, and sequences
+ * must be appended contiguously. The changes are kept with their frames, so
+ * streams in their own filter or format can be sent them too.
+ */
+public class EventReplayBuffer {
+
+    private final SseFrame[] frames;
+    private final SseEvent[] changes;
+    private final long[] timestamps;
+    private final long maxAgeMillis;
+    // Index of the slot the next frame is written to
+    private int head = 0;
+    private int size = 0;
+    private long lastSequence;
+
+    public EventReplayBuffer(int capacity, Duration maxAge, long initialSequence) {
+        this.frames = new SseFrame[capacity];
+        this.changes = new SseEvent[capacity];
+        this.timestamps = new long[capacity];
+        this.maxAgeMillis = maxAge.toMillis();
+        this.lastSequence = initialSequence;
+    }
+
+    public synchronized void append(SseEvent change, SseFrame frame) {
+        if (change.getSequence() != lastSequence + 1) {
+            // A gap would make replay incomplete, so start over from this frame
+            size = 0;
+        }
+        frames[head] = frame;
+        changes[head] = change;
+        timestamps[head] = System.currentTimeMillis();
+        head = (head + 1) % frames.length;
+        size = Math.min(size + 1, frames.length);
+        lastSequence = change.getSequence();
+    }
+
+    /**
+     * Returns the frames broadcast after the given sequence, oldest first, or
+     * {@code null} if some of them have already been evicted (or the sequence
+     * was never issued by this buffer) and the client needs a full snapshot.
+     */
+    public synchronized List<SseFrame> since(long sequence) {
+        int missed = missedSince(sequence);
+        if (missed < 0) {
+            return null;
+        }
+        List<SseFrame> result = new ArrayList<>(missed);
+        for (int i = missed; i > 0; i--) {
+            result.add(frames[slot(i)]);
+        }
+        return result;
+    }
+
+    // The changes broadcast after the given sequence, oldest first, or null like since()
+    public synchronized List<SseEvent> changesSince(long sequence) {
+        int missed = missedSince(sequence);
+        if (missed < 0) {
+            return null;
+        }
+        List<SseEvent> result = new ArrayList<>(missed);
+        for (int i = missed; i > 0; i--) {
+            result.add(changes[slot(i)]);
+        }
+        return result;
+    }
+
+    // Number of newest frames broadcast after the sequence, or -1 if they are not all held
+    private int missedSince(long sequence) {
+        evictExpired();
+        // Sequences are contiguous, so the distance says how many frames were missed
+        long missed = lastSequence - sequence;
+        return missed >= 0 && missed <= size ? (int) missed : -1;
+    }
+
+    public synchronized long getLastSequence() {
+        return lastSequence;
+    }
+
+    public synchronized int size() {
+        evictExpired();
+        return size;
+    }
+
+    private void evictExpired() {
+        long cutoff = System.currentTimeMillis() - maxAgeMillis;
+        while (size > 0) {
+            int oldest = slot(size);
+            if (timestamps[oldest] >= cutoff) {
+                break;
+            }
+            frames[oldest] = null;
+            changes[oldest] = null;
+            size--;
+        }
+    }
+
+    // Slot holding the frame that is 'back' positions behind the newest (1 = newest)
+    private int slot(long back) {
+        return (int) Math.floorMod(head - back, (long) frames.length);
+    }
+}
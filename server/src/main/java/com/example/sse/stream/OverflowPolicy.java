@@ -0,0 +1,10 @@
+package com.example.sse.stream;
+
+public enum OverflowPolicy {
+    // Evict the oldest queued frame to make room for the new one
+    DROP_OLDEST,
+    // Replace a queued frame for the same event ID, falling back to DROP_OLDEST
+    COALESCE,
+    // Close the connection; the client reconnects and reloads the initial events
+    DISCONNECT
+}
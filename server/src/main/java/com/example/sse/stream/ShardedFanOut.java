@@ -0,0 +1,79 @@
+package com.example.sse.stream;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.IntConsumer;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs a task for every shard of the connection registry in parallel and
+ * waits for all of them, so a broadcast still hands its frame to every
+ * connection before the next one starts. The calling thread takes one shard
+ * itself, so {@code shards} shards need one thread fewer.
+ */
+@Slf4j
+public class ShardedFanOut {
+
+    @Getter
+    private final int shards;
+    private final ExecutorService executor;
+
+    public ShardedFanOut(int shards) {
+        this.shards = shards;
+        this.executor = shards > 1
+            ? Executors.newFixedThreadPool(shards - 1, new CustomizableThreadFactory("sse-fanout-"))
+            : null;
+    }
+
+    /** Runs {@code task} once per shard index and returns when every shard is done. */
+    public void run(IntConsumer task) {
+        if (executor == null) {
+            runShard(task, 0);
+            return;
+        }
+        CountDownLatch done = new CountDownLatch(shards - 1);
+        for (int shard = 1; shard < shards; shard++) {
+            int index = shard;
+            try {
+                executor.execute(() -> {
+                    try {
+                        runShard(task, index);
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // Shutting down; finish the shard here rather than wait for it forever
+                runShard(task, index);
+                done.countDown();
+            }
+        }
+        runShard(task, 0);
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runShard(IntConsumer task, int shard) {
+        try {
+            task.accept(shard);
+        } catch (RuntimeException e) {
+            // One shard failing must not keep the others' connections from their frame
+            log.error("Error fanning out to shard {}", shard, e);
+        }
+    }
+
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.sse.stream;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+
+import lombok.Getter;
+
+/**
+ * A fully encoded SSE frame ({@code event:}/{@code data:} lines and the
+ * terminating blank line) as UTF-8 bytes. Frames are immutable, so one
+ * instance is built per broadcast and written to every subscriber as-is.
+ * The key identifies the {@link com.example.sse.model.SystemEvent} the frame
+ * is about so queued frames can be coalesced; it is {@code null} for frames
+ * that must never be merged.
+ */
+public final class SseFrame {
+
+    @Getter
+    private final String name;
+    @Getter
+    private final Long id;
+    @Getter
+    private final UUID key;
+    // Reconnection delay in milliseconds sent as the retry: field, or null for none
+    @Getter
+    private final Long retry;
+    private final byte[] json;
+    private final byte[] bytes;
+    // Handed straight to ResponseBodyEmitter#send so no per-emitter wrapper is allocated
+    @Getter
+    private final Set<DataWithMediaType> payload;
+    // Built on first use by a reactive stream, then shared by all reactive subscribers
+    private volatile ServerSentEvent<String> serverSentEvent;
+
+    SseFrame(String name, Long id, UUID key, Long retry, byte[] json, byte[] bytes) {
+        this.name = name;
+        this.id = id;
+        this.key = key;
+        this.retry = retry;
+        this.json = json;
+        this.bytes = bytes;
+        this.payload = Set.of(new DataWithMediaType(bytes, MediaType.TEXT_EVENT_STREAM));
+    }
+
+    // Broadcast sequence of the frame, or 0 for frames sent without an id
+    public long getSequence() {
+        return id != null ? id : 0;
+    }
+
+    public int size() {
+        return bytes.length;
+    }
+
+    public ServerSentEvent<String> toServerSentEvent() {
+        ServerSentEvent<String> event = serverSentEvent;
+        if (event == null) {
+            ServerSentEvent.Builder<String> builder = ServerSentEvent.builder(new String(json, StandardCharsets.UTF_8))
+                .event(name);
+            if (id != null) {
+                builder.id(Long.toString(id));
+            }
+            if (retry != null) {
+                builder.retry(Duration.ofMillis(retry));
+            }
+            event = builder.build();
+            serverSentEvent = event;
+        }
+        return event;
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.sse.stream;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+import org.springframework.stereotype.Component;
+
+import com.example.sse.config.JacksonConfig;
+import com.example.sse.metrics.SseMetrics;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Encodes payloads into {@link SseFrame}s: serialized with the shared
+ * {@link ObjectMapper} once, then wrapped in the SSE wire format. Streams on
+ * the {@link WireFormat#CBOR} format get base64 CBOR in the data line instead.
+ */
+@Component
+@RequiredArgsConstructor
+public class SseFrameEncoder {
+
+    private static final byte[] RETRY = "retry:".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] ID = "id:".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] EVENT = "event:".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] DATA = "data:".getBytes(StandardCharsets.UTF_8);
+
+    private final ObjectMapper objectMapper;
+    private final SseMetrics metrics;
+    private final ObjectMapper compactMapper = JacksonConfig.compactObjectMapper();
+
+    public SseFrame encode(String name, Long id, Object payload, UUID key) throws JsonProcessingException {
+        return encode(WireFormat.JSON, name, id, payload, key);
+    }
+
+    public SseFrame encode(WireFormat format, String name, Long id, Object payload, UUID key)
+            throws JsonProcessingException {
+        return encodeJson(name, id, serialize(format, payload), key);
+    }
+
+    // Also sets how long the client waits before reconnecting once the stream ends
+    public SseFrame encodeWithRetry(WireFormat format, String name, Long id, Object payload, long retryMillis)
+            throws JsonProcessingException {
+        return frame(name, id, serialize(format, payload), null, retryMillis);
+    }
+
+    private byte[] serialize(WireFormat format, Object payload) throws JsonProcessingException {
+        long start = System.nanoTime();
+        byte[] data = format == WireFormat.CBOR
+            ? Base64.getEncoder().encode(compactMapper.writeValueAsBytes(payload))
+            : objectMapper.writeValueAsBytes(payload);
+        metrics.serialized(start);
+        return data;
+    }
+
+    // A comment line, which clients ignore; used to keep idle connections alive
+    public SseFrame encodeComment(String comment) {
+        byte[] bytes = (":" + comment + "\n\n").getBytes(StandardCharsets.UTF_8);
+        return new SseFrame("comment", null, null, null, new byte[0], bytes);
+    }
+
+    /**
+     * Wraps already serialized JSON. Line breaks in the data (LF, CR or CRLF,
+     * all of which end a line for an SSE client) are split over several
+     * {@code data:} lines as the SSE spec requires. A non-null id is
+     * written as the {@code id:} field, which browsers echo back as
+     * {@code Last-Event-ID} when they reconnect.
+     */
+    public SseFrame encodeJson(String name, Long id, byte[] json, UUID key) {
+        return frame(name, id, json, key, null);
+    }
+
+    private SseFrame frame(String name, Long id, byte[] json, UUID key, Long retry) {
+        byte[] eventName = name.getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length + eventName.length + 60);
+        if (retry != null) {
+            out.writeBytes(RETRY);
+            out.writeBytes(Long.toString(retry).getBytes(StandardCharsets.US_ASCII));
+            out.write('\n');
+        }
+        if (id != null) {
+            out.writeBytes(ID);
+            out.writeBytes(Long.toString(id).getBytes(StandardCharsets.US_ASCII));
+            out.write('\n');
+        }
+        out.writeBytes(EVENT);
+        out.writeBytes(eventName);
+        out.write('\n');
+        out.writeBytes(DATA);
+        int lineStart = 0;
+        for (int i = 0; i < json.length; i++) {
+            if (json[i] == '\n' || json[i] == '\r') {
+                out.write(json, lineStart, i - lineStart);
+                out.write('\n');
+                out.writeBytes(DATA);
+                if (json[i] == '\r' && i + 1 < json.length && json[i + 1] == '\n') {
+                    i++; // CRLF is one line break
+                }
+                lineStart = i + 1;
+            }
+        }
+        out.write(json, lineStart, json.length - lineStart);
+        out.write('\n');
+        out.write('\n');
+        return new SseFrame(name, id, key, retry, json, out.toByteArray());
+    }
+}
@@ -0,0 +1,316 @@
+package com.example.sse.stream;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.sse.metrics.SseMetrics;
+import com.example.sse.model.ConnectionStats;
+
+import lombok.Getter;
+
+/**
+ * One SSE connection with its own bounded outbound queue. Broadcasters only
+ * {@link #offer} frames, which never blocks; a shared writer executor drains
+ * the queue so a slow client only ever holds up its own frames.
+ */
+public class SseSubscriber {
+
+    @Getter
+    private final String id;
+    @Getter
+    private final SseEmitter emitter;
+    @Getter
+    private final OverflowPolicy overflowPolicy;
+    @Getter
+    private final StreamOptions options;
+    private final int capacity;
+    private final int drainBatchSize;
+    private final Executor writer;
+    private final SseMetrics metrics;
+    private final BiConsumer<SseSubscriber, Throwable> onFailure;
+
+    private final Deque<SseFrame> queue = new ArrayDeque<>();
+    // Starts claimed so nothing is written until start() has handed over the initial frames
+    private final AtomicBoolean draining = new AtomicBoolean(true);
+    // Initial frames not written yet, ahead of the queue; only the drain pulls from it, null once done
+    private volatile Iterator<SseFrame> initial;
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private volatile boolean closed = false;
+    // Set by finish(); the response completes once the queue has been written out
+    private volatile boolean finishing = false;
+    // Sequence of the last frame with an id queued or sent, guarded by the queue lock
+    private long lastSequence;
+    // System.nanoTime() of the last completed write, and of the start of the one in progress (0 when none)
+    @Getter
+    private volatile long lastWriteNanos = System.nanoTime();
+    @Getter
+    private volatile long writeStartedNanos;
+
+    public SseSubscriber(String id, SseEmitter emitter, OverflowPolicy overflowPolicy, StreamOptions options,
+                         int capacity, int drainBatchSize, Executor writer, SseMetrics metrics,
+                         BiConsumer<SseSubscriber, Throwable> onFailure) {
+        this.id = id;
+        this.emitter = emitter;
+        this.overflowPolicy = overflowPolicy;
+        this.options = options;
+        this.capacity = capacity;
+        this.drainBatchSize = drainBatchSize;
+        this.writer = writer;
+        this.metrics = metrics;
+        this.onFailure = onFailure;
+    }
+
+    /**
+     * Records the sequence the initial frames bring the client up to, so it is
+     * known before they are written (or, for a chunked snapshot, encoded).
+     * Called while the subscriber is registered, before any broadcast reaches it.
+     */
+    public void startAt(long sequence) {
+        synchronized (queue) {
+            lastSequence = sequence;
+        }
+    }
+
+    /**
+     * Hands the initial frames to the writer, which sends them ahead of anything
+     * broadcast in the meantime. They are pulled one at a time as they are
+     * written, so the chunks of a chunked snapshot are encoded only as fast as
+     * the client takes them, and the caller can return the emitter right away.
+     */
+    public void start(List<SseFrame> initial) {
+        this.initial = initial.iterator();
+        draining.set(false);
+        scheduleDrain();
+    }
+
+    /** What became of a frame handed to {@link #offer}. */
+    public enum Offer {
+        QUEUED,
+        // The subscriber was closed already, by whatever removed it
+        CLOSED,
+        // The queue was full and the policy disconnects; this call closed the subscriber
+        OVERFLOWED
+    }
+
+    /**
+     * Queues a frame for delivery. Only the call that overflows the queue gets
+     * {@link Offer#OVERFLOWED}; later ones, like those after any other close,
+     * get {@link Offer#CLOSED}.
+     */
+    public Offer offer(SseFrame frame) {
+        boolean overflowed = false;
+        synchronized (queue) {
+            if (closed) {
+                return Offer.CLOSED;
+            }
+            if (queue.size() < capacity) {
+                queue.addLast(frame);
+            } else if (!makeRoom(frame)) {
+                closed = true;
+                queue.clear();
+                overflowed = true;
+            }
+            track(frame);
+        }
+        if (overflowed) {
+            // Completing waits for a write blocked on this client, so keep it off the broadcasting thread
+            completeOnWriter();
+            return Offer.OVERFLOWED;
+        }
+        scheduleDrain();
+        return Offer.QUEUED;
+    }
+
+    /**
+     * Queues a heartbeat unless frames are already waiting, which would keep
+     * the connection busy anyway; never displaces a real frame.
+     */
+    public void heartbeat(SseFrame frame) {
+        synchronized (queue) {
+            if (closed || initial != null || !queue.isEmpty()) {
+                return;
+            }
+            queue.addLast(frame);
+        }
+        scheduleDrain();
+    }
+
+    // Called with the queue lock held
+    private void track(SseFrame frame) {
+        if (frame.getId() != null) {
+            lastSequence = frame.getId();
+        }
+    }
+
+    /**
+     * Sequence of the last frame with an id handed to this connection, or 0 if
+     * none; once the queue is written out, the client has seen everything up to it.
+     */
+    public long getLastSequence() {
+        synchronized (queue) {
+            return lastSequence;
+        }
+    }
+
+    /** Completes the response once the frames already queued have been written. */
+    public void finish() {
+        finishing = true;
+        scheduleDrain();
+    }
+
+    // Called with the queue lock held and the queue full
+    private boolean makeRoom(SseFrame frame) {
+        switch (overflowPolicy) {
+            case DISCONNECT:
+                dropped.incrementAndGet();
+                return false;
+            case COALESCE:
+                if (frame.getKey() != null) {
+                    Iterator<SseFrame> it = queue.iterator();
+                    while (it.hasNext()) {
+                        if (frame.getKey().equals(it.next().getKey())) {
+                            it.remove();
+                            queue.addLast(frame);
+                            coalesced.incrementAndGet();
+                            return true;
+                        }
+                    }
+                }
+                // Nothing to merge with, fall through to dropping the oldest frame
+            case DROP_OLDEST:
+            default:
+                queue.pollFirst();
+                queue.addLast(frame);
+                dropped.incrementAndGet();
+                return true;
+        }
+    }
+
+    private void scheduleDrain() {
+        if (!closed && (finishing || hasPending()) && draining.compareAndSet(false, true)) {
+            try {
+                writer.execute(this::drain);
+            } catch (RuntimeException e) {
+                draining.set(false);
+                fail(e);
+            }
+        }
+    }
+
+    private void drain() {
+        try {
+            for (int i = 0; i < drainBatchSize && !closed; i++) {
+                SseFrame next = nextFrame();
+                if (next == null) {
+                    break;
+                }
+                write(next);
+            }
+            if (finishing && !hasPending() && !closed) {
+                close();
+                emitter.complete();
+                return;
+            }
+        } catch (Exception e) {
+            fail(e);
+            return;
+        } finally {
+            draining.set(false);
+        }
+        // Either more frames arrived or the batch limit was hit; go to the back of the line
+        scheduleDrain();
+    }
+
+    // Called by the drain only: the next initial frame, then the queued ones
+    private SseFrame nextFrame() {
+        Iterator<SseFrame> pending = initial;
+        if (pending != null) {
+            if (pending.hasNext()) {
+                return pending.next();
+            }
+            initial = null;
+        }
+        synchronized (queue) {
+            return queue.pollFirst();
+        }
+    }
+
+    private void completeOnWriter() {
+        try {
+            writer.execute(emitter::complete);
+        } catch (RejectedExecutionException e) {
+            // Shutting down; the container completes the response
+        }
+    }
+
+    private void write(SseFrame frame) throws Exception {
+        long start = System.nanoTime();
+        writeStartedNanos = start;
+        try {
+            emitter.send(frame.getPayload());
+        } finally {
+            writeStartedNanos = 0;
+        }
+        lastWriteNanos = System.nanoTime();
+        metrics.sent(frame.size(), start);
+        sent.incrementAndGet();
+    }
+
+    private void fail(Throwable e) {
+        synchronized (queue) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queue.clear();
+        }
+        onFailure.accept(this, e);
+    }
+
+    private boolean hasPending() {
+        if (initial != null) {
+            return true;
+        }
+        synchronized (queue) {
+            return !queue.isEmpty();
+        }
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public void close() {
+        synchronized (queue) {
+            closed = true;
+            queue.clear();
+        }
+    }
+
+    public ConnectionStats getStats() {
+        int depth;
+        synchronized (queue) {
+            depth = queue.size();
+        }
+        return ConnectionStats.builder()
+            .id(id)
+            .overflowPolicy(overflowPolicy)
+            .queueDepth(depth)
+            .queueCapacity(capacity)
+            .sent(sent.get())
+            .dropped(dropped.get())
+            .coalesced(coalesced.get())
+            .build();
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.sse.stream;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * What a client asked to receive on its stream.
+ */
+@Value
+@Builder
+public class StreamOptions {
+
+    public static final StreamOptions DEFAULT = StreamOptions.builder().build();
+
+    // Coalesced event-batch frames instead of one event-change frame per change
+    boolean batch;
+    // UPDATEs carry only the changed fields (SseEvent.delta) instead of the full event
+    boolean delta;
+    // Also a stats frame every sse.stats.interval with the rolling aggregates of the events that changed
+    boolean stats;
+    // Only changes to matching events are sent
+    @Builder.Default
+    EventFilter filter = EventFilter.NONE;
+    // Encoding of frame payloads
+    @Builder.Default
+    WireFormat format = WireFormat.JSON;
+
+    // Whether the stream can use the replay buffer and the shared initial-events frame, which hold unfiltered JSON
+    public boolean usesSharedFrames() {
+        return filter.isEmpty() && format == WireFormat.JSON;
+    }
+}
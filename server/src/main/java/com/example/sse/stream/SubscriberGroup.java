@@ -0,0 +1,105 @@
+package com.example.sse.stream;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.example.sse.model.sse.SseEvent;
+
+import lombok.Getter;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Connections that asked for equal {@link StreamOptions}. Filter matching,
+ * batching and serialization happen once per group, so their cost follows the
+ * number of distinct option sets rather than the number of connections.
+ * Members are split into shards, each with its own map and reactive sink, so
+ * a large group can be fanned out to by several threads at once. Joining and
+ * leaving are counted, so the registry can drop the group when its last
+ * member leaves without visiting every shard.
+ */
+public class SubscriberGroup {
+
+    @Getter
+    private final StreamOptions options;
+    private final Map<String, SseSubscriber>[] members;
+    // Reactive streams in this group multicast from these; each applies its own backpressure downstream
+    private final Sinks.Many<SseFrame>[] sinks;
+    // Matching changes waiting for the next event-batch frame, used when options.isBatch()
+    @Getter
+    private final ChangeCoalescer coalescer = new ChangeCoalescer();
+    // Members that joined and have not left yet; written under the group's registry entry, read anywhere
+    private volatile int memberCount;
+
+    @SuppressWarnings("unchecked")
+    public SubscriberGroup(StreamOptions options, int shards) {
+        this.options = options;
+        this.members = new Map[shards];
+        this.sinks = new Sinks.Many[shards];
+        for (int shard = 0; shard < shards; shard++) {
+            members[shard] = new ConcurrentHashMap<>();
+            sinks[shard] = Sinks.many().multicast().directBestEffort();
+        }
+    }
+
+    public void add(SseSubscriber subscriber) {
+        members[shardOf(subscriber.getId())].put(subscriber.getId(), subscriber);
+    }
+
+    public void remove(String subscriberId) {
+        members[shardOf(subscriberId)].remove(subscriberId);
+    }
+
+    public int getShardCount() {
+        return members.length;
+    }
+
+    public Collection<SseSubscriber> getMembers(int shard) {
+        return members[shard].values();
+    }
+
+    public Sinks.Many<SseFrame> getSink(int shard) {
+        return sinks[shard];
+    }
+
+    // Reactive streams have no registry entry, so they are spread by their stream ID the same way
+    public Sinks.Many<SseFrame> sinkFor(String streamId) {
+        return sinks[shardOf(streamId)];
+    }
+
+    // Servlet and reactive connections, without visiting the shards
+    public int size() {
+        return memberCount;
+    }
+
+    // Called inside a compute on the group's registry entry, like leave()
+    public void join() {
+        memberCount++;
+    }
+
+    // Called inside a compute on the group's registry entry, so no stream joins a group being dropped
+    public void leave() {
+        memberCount--;
+    }
+
+    private int shardOf(String id) {
+        return Math.floorMod(id.hashCode(), members.length);
+    }
+
+    public boolean matches(SseEvent change) {
+        return options.getFilter().matches(change);
+    }
+
+    // Deltas only when the client asked for them and is sure to hold the base version
+    public boolean sendsDelta(SseEvent change) {
+        return options.isDelta() && change.getDelta() != null && !options.getFilter().canMove(change);
+    }
+
+    public SseEvent forClient(SseEvent change) {
+        return sendsDelta(change) ? change.deltaOnly() : change.withoutDelta();
+    }
+
+    public boolean isIdle() {
+        return memberCount == 0;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.sse.stream;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A hashed timing wheel: items are dropped into the slot their delay falls
+ * in and handed back when {@link #advance} reaches it, so each tick only
+ * touches the items due then, however many are scheduled. Delays are
+ * rounded up to whole ticks and capped at the horizon given at construction.
+ */
+public class TimerWheel<T> {
+
+    private final long tickNanos;
+    private final List<List<T>> slots;
+    private int cursor;
+
+    public TimerWheel(Duration tick, Duration horizon) {
+        this.tickNanos = tick.toNanos();
+        int size = (int) Math.ceil((double) horizon.toNanos() / tickNanos) + 1;
+        this.slots = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            slots.add(new ArrayList<>());
+        }
+    }
+
+    public synchronized void schedule(T item, long delayNanos) {
+        long ticks = Math.max(1, Math.min(slots.size() - 1, (delayNanos + tickNanos - 1) / tickNanos));
+        slots.get((int) ((cursor + ticks) % slots.size())).add(item);
+    }
+
+    /**
+     * Moves to the next tick and returns the items due at it, which are no
+     * longer scheduled. Call once per tick from a single thread.
+     */
+    public synchronized List<T> advance() {
+        cursor = (cursor + 1) % slots.size();
+        return slots.set(cursor, new ArrayList<>());
+    }
+}
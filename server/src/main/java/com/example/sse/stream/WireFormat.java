@@ -0,0 +1,24 @@
+package com.example.sse.stream;
+
+/**
+ * How frame payloads are encoded on a stream.
+ */
+public enum WireFormat {
+    // JSON text from the shared ObjectMapper
+    JSON,
+    // Base64 CBOR from JacksonConfig.compactObjectMapper(): epoch-millis instants, enum ordinals, binary UUIDs
+    CBOR;
+
+    public static final String CBOR_MEDIA_TYPE = "application/cbor";
+
+    /**
+     * The format asked for with the {@code format} parameter, or CBOR when the
+     * Accept header lists {@code application/cbor} next to the event stream.
+     */
+    public static WireFormat negotiate(WireFormat requested, String accept) {
+        if (requested != null) {
+            return requested;
+        }
+        return accept != null && accept.contains(CBOR_MEDIA_TYPE) ? CBOR : JSON;
+    }
+}
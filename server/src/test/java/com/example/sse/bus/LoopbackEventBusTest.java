@@ -0,0 +1,131 @@
+package com.example.sse.bus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.sse.config.JacksonConfig;
+import com.example.sse.config.SseProperties;
+import com.example.sse.journal.NoOpEventJournal;
+import com.example.sse.metrics.SseMetrics;
+import com.example.sse.model.SystemEvent;
+import com.example.sse.model.sse.Operation;
+import com.example.sse.model.sse.SseEvent;
+import com.example.sse.service.EventIngestService;
+import com.example.sse.service.EventSchedulerService;
+import com.example.sse.service.EventSnapshotService;
+import com.example.sse.service.EventStatsService;
+import com.example.sse.service.impl.EventServiceImpl;
+import com.example.sse.stream.SseFrameEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class LoopbackEventBusTest {
+
+    // A channel of its own, so tests never see each other's nodes
+    private final String channel = "test-" + UUID.randomUUID();
+    private final List<Node> nodes = new ArrayList<>();
+
+    @AfterEach
+    void stopNodes() {
+        for (Node node : nodes) {
+            node.scheduler.stopScheduler();
+            node.bus.leave();
+        }
+    }
+
+    private Node node() {
+        Node node = new Node(channel);
+        nodes.add(node);
+        return node;
+    }
+
+    private static SystemEvent firstEvent(Node node) {
+        return node.eventService.getActiveEvents().get(0);
+    }
+
+    @Test
+    void copiesTheFirstNodesEventsToTheNextInsteadOfSeedingAgain() {
+        Node first = node();
+        Node second = node();
+
+        assertThat(second.eventService.getActiveEvents())
+            .usingRecursiveFieldByFieldElementComparator()
+            .containsExactlyInAnyOrderElementsOf(first.eventService.getActiveEvents());
+        assertThat(second.scheduler.getSequence()).isEqualTo(first.scheduler.getSequence());
+    }
+
+    @Test
+    void deliversAChangeToTheOtherNodeWithTheSameVersionAndSequence() {
+        Node first = node();
+        Node second = node();
+        SystemEvent event = firstEvent(first);
+
+        SseEvent change = first.ingest.write(Operation.UPDATE, event.toBuilder().count(event.getCount() + 5).build());
+
+        assertThat(change.getEvent().getVersion()).isEqualTo(event.getVersion() + 1);
+        SystemEvent copy = second.eventService.getEventById(event.getId());
+        assertThat(copy.getVersion()).isEqualTo(change.getEvent().getVersion());
+        assertThat(copy.getCount()).isEqualTo(event.getCount() + 5);
+        assertThat(first.eventService.getEventById(event.getId()).getVersion()).isEqualTo(copy.getVersion());
+        assertThat(second.received).extracting(SseEvent::getSequence).containsExactly(change.getSequence());
+        assertThat(second.scheduler.getSequence()).isEqualTo(change.getSequence());
+        assertThat(first.scheduler.getSequence()).isEqualTo(change.getSequence());
+    }
+
+    @Test
+    void ignoresAChangeFromAnotherNodeOlderThanTheVersionItHolds() {
+        Node first = node();
+        Node second = node();
+        SystemEvent event = firstEvent(first);
+        first.ingest.write(Operation.UPDATE, event.toBuilder().count(event.getCount() + 1).build());
+        SystemEvent current = first.ingest.write(Operation.UPDATE,
+            event.toBuilder().count(event.getCount() + 2).build()).getEvent();
+
+        // Arrives late from the second node, carrying a version the first already moved past
+        second.bus.publish(SseEvent.builder()
+            .operation(Operation.UPDATE)
+            .event(current.toBuilder().version(current.getVersion() - 1).count(-1).build())
+            .build());
+
+        SystemEvent kept = first.eventService.getEventById(event.getId());
+        assertThat(kept.getVersion()).isEqualTo(current.getVersion());
+        assertThat(kept.getCount()).isEqualTo(current.getCount());
+    }
+
+    // One application context: a store, a bus member and the scheduler that applies remote changes
+    static class Node {
+
+        final SseProperties properties = new SseProperties();
+        final EventServiceImpl eventService = new EventServiceImpl(new NoOpEventJournal());
+        final LoopbackEventBus bus;
+        final EventSchedulerService scheduler;
+        final EventIngestService ingest;
+        // Changes the bus delivered from other nodes
+        final List<SseEvent> received = Collections.synchronizedList(new ArrayList<>());
+
+        Node(String channel) {
+            ObjectMapper objectMapper = new JacksonConfig().objectMapper();
+            SseMetrics metrics = new SseMetrics(new SimpleMeterRegistry());
+            properties.getBus().setChannel(channel);
+            bus = new LoopbackEventBus(objectMapper, properties);
+            scheduler = new EventSchedulerService(eventService, bus,
+                new EventSnapshotService(eventService, objectMapper, metrics),
+                new EventStatsService(eventService, properties), new SseFrameEncoder(objectMapper, metrics),
+                metrics, properties);
+            ingest = new EventIngestService(eventService, bus, properties);
+            bus.subscribe((change, remote) -> {
+                if (remote) {
+                    received.add(change);
+                }
+            }, eventService::getActiveEvents);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.sse.journal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.CRC32C;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.sse.model.Severity;
+import com.example.sse.model.SystemEvent;
+
+class JournalCodecTest {
+
+    private final ByteBuffer buffer = ByteBuffer.allocate(1024);
+    private final CRC32C crc = new CRC32C();
+    private final Map<UUID, SystemEvent> state = new HashMap<>();
+
+    private static SystemEvent event(String name, String description) {
+        return SystemEvent.builder()
+            .id(UUID.randomUUID())
+            .name(name)
+            .description(description)
+            .severity(Severity.WARNING)
+            .createdAt(Instant.parse("2025-01-01T00:00:00Z"))
+            .updatedAt(Instant.parse("2025-01-01T00:00:01.5Z"))
+            .active(true)
+            .count(42)
+            .version(7)
+            .build();
+    }
+
+    @Test
+    void roundTripsAnUpsert() {
+        SystemEvent event = event("Température", "Über dem Grenzwert");
+
+        JournalCodec.writeUpsert(buffer, event, crc);
+
+        assertThat(buffer.position()).isLessThanOrEqualTo(JournalCodec.maxSize(event));
+        int length = JournalCodec.check(buffer, 0, crc);
+        assertThat(JournalCodec.HEADER_SIZE + length).isEqualTo(buffer.position());
+        JournalCodec.apply(buffer, 0, state);
+        assertThat(state).containsEntry(event.getId(), event);
+    }
+
+    @Test
+    void keepsMissingFieldsMissing() {
+        SystemEvent event = SystemEvent.builder().id(UUID.randomUUID()).version(1).build();
+
+        JournalCodec.writeUpsert(buffer, event, crc);
+
+        assertThat(JournalCodec.check(buffer, 0, crc)).isPositive();
+        JournalCodec.apply(buffer, 0, state);
+        assertThat(state.get(event.getId())).isEqualTo(event);
+    }
+
+    @Test
+    void appliesARemoval() {
+        SystemEvent event = event("CPU Load", null);
+        JournalCodec.writeUpsert(buffer, event, crc);
+        int removal = buffer.position();
+        JournalCodec.writeRemoval(buffer, event.getId(), crc);
+
+        assertThat(buffer.position() - removal).isEqualTo(JournalCodec.REMOVAL_SIZE);
+        JournalCodec.apply(buffer, 0, state);
+        JournalCodec.apply(buffer, removal, state);
+        assertThat(state).isEmpty();
+    }
+
+    @Test
+    void readsATornRecordAsTheEndOfTheLog() {
+        JournalCodec.writeUpsert(buffer, event("CPU Load", null), crc);
+        // The length goes in last, so a write cut short leaves it zero
+        buffer.putInt(0, 0);
+
+        assertThat(JournalCodec.check(buffer, 0, crc)).isEqualTo(-1);
+        assertThat(JournalCodec.check(buffer, buffer.position(), crc)).isEqualTo(-1);
+    }
+
+    @Test
+    void rejectsARecordWithABadChecksum() {
+        JournalCodec.writeUpsert(buffer, event("CPU Load", null), crc);
+        buffer.put(JournalCodec.HEADER_SIZE + 3, (byte) (buffer.get(JournalCodec.HEADER_SIZE + 3) ^ 1));
+
+        assertThat(JournalCodec.check(buffer, 0, crc)).isEqualTo(-1);
+    }
+
+    @Test
+    void rejectsALengthRunningPastTheBuffer() {
+        JournalCodec.writeUpsert(buffer, event("CPU Load", null), crc);
+        buffer.limit(buffer.position() - 1);
+
+        assertThat(JournalCodec.check(buffer, 0, crc)).isEqualTo(-1);
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.sse.journal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import com.example.sse.config.SseProperties;
+import com.example.sse.model.Severity;
+import com.example.sse.model.SystemEvent;
+
+class MappedEventJournalTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T00:00:00Z");
+
+    @TempDir
+    Path directory;
+
+    private final List<MappedEventJournal> opened = new ArrayList<>();
+    // Stands in for the event store the journal snapshots
+    private final Map<UUID, SystemEvent> store = new LinkedHashMap<>();
+
+    @AfterEach
+    void closeJournals() throws InterruptedException {
+        for (MappedEventJournal journal : opened) {
+            journal.close();
+        }
+    }
+
+    private MappedEventJournal open(DataSize segmentSize) {
+        SseProperties properties = new SseProperties();
+        properties.getJournal().setDirectory(directory.toString());
+        properties.getJournal().setSegmentSize(segmentSize);
+        // Snapshots are taken by the tests, never on a timer
+        properties.getJournal().setSnapshotInterval(Duration.ofHours(1));
+        MappedEventJournal journal = new MappedEventJournal(properties);
+        opened.add(journal);
+        return journal;
+    }
+
+    private MappedEventJournal open() {
+        return open(DataSize.ofKilobytes(64));
+    }
+
+    private static Map<UUID, SystemEvent> recover(MappedEventJournal journal) {
+        Map<UUID, SystemEvent> recovered = new LinkedHashMap<>();
+        for (SystemEvent event : journal.recover()) {
+            recovered.put(event.getId(), event);
+        }
+        return recovered;
+    }
+
+    private static SystemEvent event(String name) {
+        return SystemEvent.builder()
+            .id(UUID.randomUUID())
+            .name(name)
+            .severity(Severity.INFO)
+            .createdAt(NOW)
+            .updatedAt(NOW)
+            .active(true)
+            .version(1)
+            .build();
+    }
+
+    // Journals and applies the change the way the event store does
+    private long write(MappedEventJournal journal, SystemEvent event) {
+        long ticket = journal.append(event);
+        store.put(event.getId(), event);
+        journal.applied(ticket);
+        return ticket;
+    }
+
+    // Overwrites bytes of the first segment as a crash or bad disk would
+    private void overwrite(long offset, byte[] bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory.resolve(String.format("%020d.log", 0)),
+                StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(bytes), offset);
+        }
+    }
+
+    @Test
+    void recoversAppendsAndRemovals() {
+        MappedEventJournal journal = open();
+        journal.recover();
+        SystemEvent kept = event("Disk Space");
+        SystemEvent removed = event("CPU Load");
+        write(journal, kept);
+        write(journal, removed);
+        SystemEvent updated = kept.next(NOW.plusSeconds(1)).count(3).build();
+        write(journal, updated);
+        journal.applied(journal.appendRemoval(removed.getId()));
+
+        assertThat(recover(open())).containsOnly(Map.entry(kept.getId(), updated));
+    }
+
+    @Test
+    void recoversAcrossSegments() throws IOException {
+        MappedEventJournal journal = open(DataSize.ofKilobytes(4));
+        journal.recover();
+        for (int i = 0; i < 200; i++) {
+            write(journal, event("Event " + i));
+        }
+
+        try (var files = Files.list(directory)) {
+            assertThat(files.filter(path -> path.toString().endsWith(".log")).count()).isGreaterThan(1);
+        }
+        assertThat(recover(open(DataSize.ofKilobytes(4)))).isEqualTo(store);
+    }
+
+    @Test
+    void replaysTheJournalOnTopOfASnapshot() throws IOException {
+        MappedEventJournal journal = open();
+        journal.recover();
+        journal.start(store::values);
+        SystemEvent first = event("Disk Space");
+        write(journal, first);
+        journal.snapshot();
+        SystemEvent second = event("CPU Load");
+        write(journal, second);
+        write(journal, first.next(NOW.plusSeconds(1)).active(false).build());
+
+        assertThat(recover(open())).isEqualTo(store);
+    }
+
+    @Test
+    void snapshotsReplayChangesJournaledButNotYetInTheStore() throws IOException {
+        MappedEventJournal journal = open();
+        journal.recover();
+        journal.start(store::values);
+        SystemEvent v1 = event("Disk Space");
+        write(journal, v1);
+        SystemEvent v2 = v1.next(NOW.plusSeconds(1)).count(5).build();
+        // v2 is journaled inside the store's compute, which has not returned yet
+        long ticket = journal.append(v2);
+        journal.snapshot();
+        store.put(v2.getId(), v2);
+        journal.applied(ticket);
+
+        assertThat(recover(open())).containsOnly(Map.entry(v2.getId(), v2));
+    }
+
+    @Test
+    void stopsReplayingAtACorruptRecordAndAppendsOverIt() throws IOException {
+        MappedEventJournal journal = open();
+        journal.recover();
+        SystemEvent intact = event("Disk Space");
+        write(journal, intact);
+        long corrupt = write(journal, event("CPU Load"));
+        write(journal, event("Memory Usage"));
+        overwrite(corrupt + JournalCodec.HEADER_SIZE + 2, new byte[] {0x7f});
+
+        MappedEventJournal restarted = open();
+        assertThat(recover(restarted)).containsOnlyKeys(intact.getId());
+        SystemEvent later = event("Network Latency");
+        restarted.applied(restarted.append(later));
+
+        assertThat(recover(open())).containsOnlyKeys(intact.getId(), later.getId());
+    }
+
+    @Test
+    void treatsATornRecordAsTheEndOfTheJournal() throws IOException {
+        MappedEventJournal journal = open();
+        journal.recover();
+        SystemEvent intact = event("Disk Space");
+        write(journal, intact);
+        long torn = write(journal, event("CPU Load"));
+        // The length is written last, so a record cut short reads as zero length
+        overwrite(torn, new byte[4]);
+
+        assertThat(recover(open())).containsOnlyKeys(intact.getId());
+    }
+}
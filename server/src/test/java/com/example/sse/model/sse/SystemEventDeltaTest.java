@@ -0,0 +1,80 @@
+package com.example.sse.model.sse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.sse.model.Severity;
+import com.example.sse.model.SystemEvent;
+
+class SystemEventDeltaTest {
+
+    private static final Instant CREATED = Instant.parse("2025-01-01T00:00:00Z");
+
+    private final SystemEvent v1 = SystemEvent.builder()
+        .id(UUID.randomUUID())
+        .name("Disk Space")
+        .description("Monitoring available disk space")
+        .severity(Severity.INFO)
+        .createdAt(CREATED)
+        .updatedAt(CREATED)
+        .active(true)
+        .count(10)
+        .version(1)
+        .build();
+
+    @Test
+    void holdsOnlyTheChangedFields() {
+        Instant updated = CREATED.plusSeconds(5);
+        SystemEvent v2 = v1.next(updated).count(12).build();
+
+        SystemEventDelta delta = SystemEventDelta.between(v1, v2);
+
+        assertThat(delta.getId()).isEqualTo(v1.getId());
+        assertThat(delta.getBaseVersion()).isEqualTo(1);
+        assertThat(delta.getVersion()).isEqualTo(2);
+        assertThat(delta.getCount()).isEqualTo(12);
+        assertThat(delta.getUpdatedAt()).isEqualTo(updated);
+        assertThat(delta.getName()).isNull();
+        assertThat(delta.getDescription()).isNull();
+        assertThat(delta.getSeverity()).isNull();
+        assertThat(delta.getActive()).isNull();
+    }
+
+    @Test
+    void recordsADeactivation() {
+        SystemEvent v2 = v1.next(CREATED.plusSeconds(1)).active(false).build();
+
+        assertThat(SystemEventDelta.between(v1, v2).getActive()).isFalse();
+    }
+
+    @Test
+    void mergesFromTheFirstBaseToTheLaterVersion() {
+        SystemEvent v2 = v1.next(CREATED.plusSeconds(1)).count(11).severity(Severity.WARNING).build();
+        SystemEvent v3 = v2.next(CREATED.plusSeconds(2)).severity(Severity.CRITICAL).name("Disk Full").build();
+
+        SystemEventDelta merged = SystemEventDelta.between(v1, v2).merge(SystemEventDelta.between(v2, v3));
+
+        assertThat(merged.getBaseVersion()).isEqualTo(1);
+        assertThat(merged.getVersion()).isEqualTo(3);
+        // The later delta wins where both changed a field, the earlier one fills in the rest
+        assertThat(merged.getSeverity()).isEqualTo(Severity.CRITICAL);
+        assertThat(merged.getName()).isEqualTo("Disk Full");
+        assertThat(merged.getCount()).isEqualTo(11);
+        assertThat(merged.getUpdatedAt()).isEqualTo(CREATED.plusSeconds(2));
+        assertThat(merged.getDescription()).isNull();
+    }
+
+    @Test
+    void mergedDeltaMatchesTheDirectDelta() {
+        SystemEvent v2 = v1.next(CREATED.plusSeconds(1)).count(11).build();
+        SystemEvent v3 = v2.next(CREATED.plusSeconds(2)).active(false).build();
+
+        SystemEventDelta merged = SystemEventDelta.between(v1, v2).merge(SystemEventDelta.between(v2, v3));
+
+        assertThat(merged).isEqualTo(SystemEventDelta.between(v1, v3));
+    }
+}
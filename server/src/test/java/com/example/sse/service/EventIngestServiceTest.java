@@ -0,0 +1,122 @@
+package com.example.sse.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.sse.bus.EventBus;
+import com.example.sse.bus.LocalEventBus;
+import com.example.sse.config.SseProperties;
+import com.example.sse.journal.NoOpEventJournal;
+import com.example.sse.model.IngestResult;
+import com.example.sse.model.Severity;
+import com.example.sse.model.SystemEvent;
+import com.example.sse.model.sse.Operation;
+import com.example.sse.model.sse.SseEvent;
+import com.example.sse.service.impl.EventServiceImpl;
+
+import reactor.core.publisher.Flux;
+
+class EventIngestServiceTest {
+
+    private final LocalEventBus eventBus = new LocalEventBus();
+    private final EventIngestService ingest =
+        new EventIngestService(new EventServiceImpl(new NoOpEventJournal()), eventBus, new SseProperties());
+    // Every change as the bus delivered it, in sequence order
+    private final List<SseEvent> published = Collections.synchronizedList(new ArrayList<>());
+    private final ExecutorService writers = Executors.newFixedThreadPool(2);
+
+    {
+        eventBus.subscribe(new EventBus.Listener() {
+            @Override
+            public void onChange(SseEvent change, boolean remote) {
+                published.add(change);
+            }
+
+            @Override
+            public void onBatch(List<SseEvent> changes, boolean remote) {
+                published.addAll(changes);
+            }
+        }, List::of);
+    }
+
+    @AfterEach
+    void stopWriters() {
+        writers.shutdownNow();
+    }
+
+    private static SystemEvent event(UUID id, int count) {
+        return SystemEvent.builder().id(id).name("CPU Load").severity(Severity.WARNING).count(count).build();
+    }
+
+    private UUID create() {
+        return ingest.write(Operation.CREATE, event(null, 0)).getEvent().getId();
+    }
+
+    private void assertPublishedInVersionOrder(UUID id, int changes) {
+        List<Long> versions = published.stream()
+            .filter(change -> change.getEvent().getId().equals(id))
+            .map(change -> change.getEvent().getVersion())
+            .toList();
+        assertThat(versions).hasSize(changes + 1).isSorted().doesNotHaveDuplicates();
+        assertThat(published).extracting(SseEvent::getSequence).isSorted().doesNotHaveDuplicates();
+    }
+
+    @Test
+    void publishesConcurrentPutsToOneEventInVersionOrder() throws Exception {
+        UUID id = create();
+        int puts = 2_000;
+        CyclicBarrier start = new CyclicBarrier(2);
+        List<Future<?>> done = new ArrayList<>();
+        for (int w = 0; w < 2; w++) {
+            done.add(writers.submit(() -> {
+                start.await();
+                for (int i = 0; i < puts; i++) {
+                    ingest.write(Operation.UPDATE, event(id, i));
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : done) {
+            future.get();
+        }
+
+        assertPublishedInVersionOrder(id, 2 * puts);
+    }
+
+    @Test
+    void publishesBulkAndSingleChangesToOneEventInVersionOrder() throws Exception {
+        UUID id = create();
+        int changes = 1_000;
+        List<SseEvent> bulk = new ArrayList<>();
+        for (int i = 0; i < changes; i++) {
+            bulk.add(SseEvent.builder().operation(Operation.UPDATE).event(event(id, i)).build());
+        }
+        CyclicBarrier start = new CyclicBarrier(2);
+        Future<IngestResult> bulkDone = writers.submit(() -> {
+            start.await();
+            return ingest.ingest(Flux.fromIterable(bulk)).block();
+        });
+        Future<?> putsDone = writers.submit(() -> {
+            start.await();
+            for (int i = 0; i < changes; i++) {
+                ingest.write(Operation.UPDATE, event(id, i));
+            }
+            return null;
+        });
+        putsDone.get();
+
+        assertThat(bulkDone.get().getApplied()).isEqualTo(changes);
+        assertPublishedInVersionOrder(id, 2 * changes);
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.sse.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.sse.bus.LocalEventBus;
+import com.example.sse.config.JacksonConfig;
+import com.example.sse.config.SseProperties;
+import com.example.sse.journal.NoOpEventJournal;
+import com.example.sse.metrics.DisconnectReason;
+import com.example.sse.metrics.SseMetrics;
+import com.example.sse.model.sse.Operation;
+import com.example.sse.model.sse.SseEvent;
+import com.example.sse.service.impl.EventServiceImpl;
+import com.example.sse.stream.OverflowPolicy;
+import com.example.sse.stream.SseFrame;
+import com.example.sse.stream.SseFrameEncoder;
+import com.example.sse.stream.SseSubscriber;
+import com.example.sse.stream.StreamOptions;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.Disposable;
+
+class EventSchedulerServiceTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SseProperties properties = new SseProperties();
+    private final LocalEventBus eventBus = new LocalEventBus();
+    private final EventServiceImpl eventService = new EventServiceImpl(new NoOpEventJournal());
+    private EventSchedulerService scheduler;
+
+    private EventSchedulerService scheduler() {
+        ObjectMapper objectMapper = new JacksonConfig().objectMapper();
+        SseMetrics metrics = new SseMetrics(registry);
+        scheduler = new EventSchedulerService(eventService, eventBus,
+            new EventSnapshotService(eventService, objectMapper, metrics),
+            new EventStatsService(eventService, properties), new SseFrameEncoder(objectMapper, metrics),
+            metrics, properties);
+        return scheduler;
+    }
+
+    @AfterEach
+    void stopScheduler() {
+        if (scheduler != null) {
+            scheduler.stopScheduler();
+        }
+    }
+
+    private SseSubscriber connect(EventSchedulerService scheduler, String id, SseEmitter emitter,
+                                  OverflowPolicy policy) throws Exception {
+        SseSubscriber subscriber = scheduler.createSubscriber(id, emitter, policy, StreamOptions.DEFAULT);
+        subscriber.start(scheduler.subscribe(subscriber, null, false));
+        return subscriber;
+    }
+
+    private void publishChange() {
+        eventBus.publish(SseEvent.builder()
+            .operation(Operation.UPDATE)
+            .event(eventService.getActiveEvents().get(0))
+            .build());
+    }
+
+    private double disconnects(DisconnectReason reason) {
+        return registry.get("sse.connections.closed").tag("reason", reason.tag()).counter().count();
+    }
+
+    @Test
+    void dropsAStreamGroupWhenItsLastConnectionLeaves() throws Exception {
+        EventSchedulerService scheduler = scheduler();
+        connect(scheduler, "first", new SseEmitter(), null);
+        connect(scheduler, "second", new SseEmitter(), null);
+
+        assertThat(scheduler.getStreamGroupCount()).isEqualTo(1);
+        scheduler.removeEmitter("first", DisconnectReason.COMPLETED);
+        assertThat(scheduler.getStreamGroupCount()).isEqualTo(1);
+        scheduler.removeEmitter("second", DisconnectReason.COMPLETED);
+        scheduler.removeEmitter("second", DisconnectReason.COMPLETED);
+
+        assertThat(scheduler.getStreamGroupCount()).isZero();
+        assertThat(scheduler.getConnectionCount()).isZero();
+        assertThat(disconnects(DisconnectReason.COMPLETED)).isEqualTo(2);
+    }
+
+    @Test
+    void dropsAStreamGroupWhenItsLastReactiveStreamEnds() {
+        EventSchedulerService scheduler = scheduler();
+        Disposable stream = scheduler.streamFrames(null, StreamOptions.DEFAULT, false).subscribe();
+
+        assertThat(scheduler.getStreamGroupCount()).isEqualTo(1);
+        assertThat(scheduler.getConnectionCount()).isEqualTo(1);
+        stream.dispose();
+
+        assertThat(scheduler.getStreamGroupCount()).isZero();
+        assertThat(scheduler.getConnectionCount()).isZero();
+    }
+
+    @Test
+    void dropsAStreamGroupWhenItsLastConnectionOverflows() throws Exception {
+        properties.getSubscriber().setQueueCapacity(1);
+        EventSchedulerService scheduler = scheduler();
+        BlockingEmitter emitter = new BlockingEmitter();
+        connect(scheduler, "slow", emitter, OverflowPolicy.DISCONNECT);
+        // The snapshot write blocks, so changes pile up in the queue of one
+        assertThat(emitter.blocked.await(5, TimeUnit.SECONDS)).isTrue();
+
+        publishChange();
+        publishChange();
+        emitter.release.countDown();
+
+        assertThat(scheduler.getStreamGroupCount()).isZero();
+        assertThat(scheduler.getConnectionCount()).isZero();
+        assertThat(disconnects(DisconnectReason.OVERFLOW)).isEqualTo(1);
+    }
+
+    @Test
+    void drainsConnectionsInPacedWavesWithAJitteredRetry() throws Exception {
+        Duration window = Duration.ofMillis(800);
+        int waves = 4;
+        long retryJitter = 200;
+        properties.getDrain().setWindow(window);
+        properties.getDrain().setWaves(waves);
+        properties.getDrain().setRetryJitter(Duration.ofMillis(retryJitter));
+        EventSchedulerService scheduler = scheduler();
+        List<RecordingEmitter> emitters = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            RecordingEmitter emitter = new RecordingEmitter();
+            emitters.add(emitter);
+            connect(scheduler, "stream-" + i, emitter, null);
+        }
+        List<SseFrame> reactive = Collections.synchronizedList(new ArrayList<>());
+        scheduler.streamFrames(null, StreamOptions.DEFAULT, false).subscribe(reactive::add);
+
+        long started = System.nanoTime();
+        scheduler.drain().get(5, TimeUnit.SECONDS);
+
+        assertThat(System.nanoTime() - started).isGreaterThanOrEqualTo(window.toNanos());
+        long spacing = window.toNanos() / waves;
+        Map<Long, Integer> closedPerWave = new TreeMap<>();
+        for (RecordingEmitter emitter : emitters) {
+            assertThat(emitter.completed.await(5, TimeUnit.SECONDS)).isTrue();
+            String last = emitter.frames.get(emitter.frames.size() - 1);
+            assertThat(last).contains("event:reconnect");
+            assertThat(retryOf(last)).isBetween(0L, retryJitter);
+            long wave = Math.round((double) (emitter.reconnectedNanos - started) / spacing);
+            // Each close lands on its wave, give or take scheduling
+            assertThat(Math.abs(emitter.reconnectedNanos - started - wave * spacing)).isLessThan(spacing / 2);
+            closedPerWave.merge(wave, 1, Integer::sum);
+        }
+        assertThat(closedPerWave).containsExactly(entry(0L, 2), entry(1L, 2), entry(2L, 2), entry(3L, 2));
+        SseFrame reactiveLast = reactive.get(reactive.size() - 1);
+        assertThat(reactiveLast.getName()).isEqualTo("reconnect");
+        assertThat(reactiveLast.getRetry()).isBetween(0L, retryJitter);
+        assertThat(scheduler.getConnectionCount()).isZero();
+        assertThat(disconnects(DisconnectReason.DRAINED)).isEqualTo(9);
+        assertThatThrownBy(() -> connect(scheduler, "late", new SseEmitter(), null))
+            .isInstanceOf(ConnectionLimitExceededException.class);
+    }
+
+    private static long retryOf(String frame) {
+        int start = frame.indexOf("retry:") + 6;
+        return Long.parseLong(frame.substring(start, frame.indexOf('\n', start)));
+    }
+
+    // Holds the first write until released, like a client that stopped reading
+    static class BlockingEmitter extends SseEmitter {
+
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public void send(Set<DataWithMediaType> items) throws IOException {
+            blocked.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+        }
+    }
+
+    // Keeps every frame written, and when the reconnect frame went out
+    static class RecordingEmitter extends SseEmitter {
+
+        final List<String> frames = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch completed = new CountDownLatch(1);
+        volatile long reconnectedNanos;
+
+        @Override
+        public void send(Set<DataWithMediaType> items) {
+            for (DataWithMediaType item : items) {
+                String frame = new String((byte[]) item.getData(), StandardCharsets.UTF_8);
+                if (frame.contains("event:reconnect")) {
+                    reconnectedNanos = System.nanoTime();
+                }
+                frames.add(frame);
+            }
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.sse.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.sse.bus.LocalEventBus;
+import com.example.sse.config.JacksonConfig;
+import com.example.sse.config.SseProperties;
+import com.example.sse.journal.NoOpEventJournal;
+import com.example.sse.metrics.SseMetrics;
+import com.example.sse.model.sse.Operation;
+import com.example.sse.service.impl.EventServiceImpl;
+import com.example.sse.stream.SseFrameEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class WorkloadGeneratorTest {
+
+    private static final int PICKS = 20_000;
+
+    private final SseProperties properties = new SseProperties();
+    private final SseProperties.Workload workload = properties.getWorkload();
+
+    // Share of each operation over many picks from a seeded Random
+    private Map<Operation, Double> mix(int activeEvents) {
+        Random random = new Random(42);
+        Map<Operation, Double> mix = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            mix.put(operation, 0.0);
+        }
+        for (int i = 0; i < PICKS; i++) {
+            mix.merge(WorkloadGenerator.nextOperation(workload, activeEvents, random), 1.0 / PICKS, Double::sum);
+        }
+        return mix;
+    }
+
+    @Test
+    void picksOperationsInProportionToTheirWeights() {
+        workload.setCreateWeight(5);
+        workload.setUpdateWeight(3);
+        workload.setDeleteWeight(2);
+
+        Map<Operation, Double> mix = mix(100);
+
+        assertThat(mix.get(Operation.CREATE)).isCloseTo(0.5, within(0.02));
+        assertThat(mix.get(Operation.UPDATE)).isCloseTo(0.3, within(0.02));
+        assertThat(mix.get(Operation.DELETE)).isCloseTo(0.2, within(0.02));
+    }
+
+    @Test
+    void neverPicksAnOperationWithNoWeight() {
+        workload.setCreateWeight(0);
+        workload.setUpdateWeight(1);
+        workload.setDeleteWeight(0);
+
+        assertThat(mix(100).get(Operation.UPDATE)).isCloseTo(1.0, within(1e-9));
+    }
+
+    @Test
+    void turnsCreatesIntoDeletesAboveTheTargetStoreSize() {
+        workload.setTargetStoreSize(100);
+
+        Map<Operation, Double> mix = mix(101);
+
+        assertThat(mix.get(Operation.CREATE)).isZero();
+        assertThat(mix.get(Operation.UPDATE)).isCloseTo(0.4, within(0.02));
+        assertThat(mix.get(Operation.DELETE)).isCloseTo(0.6, within(0.02));
+    }
+
+    @Test
+    void turnsDeletesIntoCreatesBelowTheTargetStoreSize() {
+        workload.setTargetStoreSize(100);
+
+        Map<Operation, Double> mix = mix(99);
+
+        assertThat(mix.get(Operation.DELETE)).isZero();
+        assertThat(mix.get(Operation.CREATE)).isCloseTo(0.6, within(0.02));
+    }
+
+    @Test
+    void keepsTheMixAtTheTargetStoreSize() {
+        workload.setTargetStoreSize(100);
+
+        Map<Operation, Double> mix = mix(100);
+
+        assertThat(mix.get(Operation.CREATE)).isCloseTo(0.4, within(0.02));
+        assertThat(mix.get(Operation.DELETE)).isCloseTo(0.2, within(0.02));
+    }
+
+    @Test
+    void multipliesTheRateDuringEachBurst() {
+        workload.setBurstInterval(Duration.ofSeconds(10));
+        workload.setBurstDuration(Duration.ofSeconds(2));
+        workload.setBurstMultiplier(5);
+
+        assertThat(WorkloadGenerator.currentRate(workload, 100, Duration.ofSeconds(1).toNanos())).isEqualTo(500);
+        assertThat(WorkloadGenerator.currentRate(workload, 100, Duration.ofSeconds(3).toNanos())).isEqualTo(100);
+        assertThat(WorkloadGenerator.currentRate(workload, 100, Duration.ofSeconds(11).toNanos())).isEqualTo(500);
+        workload.setBurstInterval(Duration.ZERO);
+        assertThat(WorkloadGenerator.currentRate(workload, 100, Duration.ofSeconds(1).toNanos())).isEqualTo(100);
+    }
+
+    @Test
+    void carriesFractionalChangesOverAndCapsTheBacklog() {
+        // One change every two seconds: half a change after one, a whole one after two
+        assertThat(WorkloadGenerator.accrue(0, 0.5, 1)).isEqualTo(0.5);
+        assertThat(WorkloadGenerator.accrue(0.5, 0.5, 1)).isEqualTo(1.0);
+        // After a stall, at most a second's worth, or one change at rates below one a second
+        assertThat(WorkloadGenerator.accrue(0, 1000, 10)).isEqualTo(1000);
+        assertThat(WorkloadGenerator.accrue(0, 0.1, 100)).isEqualTo(1);
+    }
+
+    @Test
+    void generatesAtTheRateOnlyWhileSomeoneIsConnectedIfAsked() throws Exception {
+        workload.setRate(1000);
+        workload.setOnlyWhenConnected(true);
+        assertThat(run()).isZero();
+
+        workload.setOnlyWhenConnected(false);
+        long published = run();
+        // About 200 in 200 ms, with a wide margin for a busy machine
+        assertThat(published).isBetween(20L, 400L);
+    }
+
+    // Runs a generator for 200 ms with nobody connected and returns how many changes it published
+    private long run() throws InterruptedException {
+        ObjectMapper objectMapper = new JacksonConfig().objectMapper();
+        SseMetrics metrics = new SseMetrics(new SimpleMeterRegistry());
+        EventServiceImpl eventService = new EventServiceImpl(new NoOpEventJournal());
+        LocalEventBus eventBus = new LocalEventBus();
+        EventSchedulerService scheduler = new EventSchedulerService(eventService, eventBus,
+            new EventSnapshotService(eventService, objectMapper, metrics),
+            new EventStatsService(eventService, properties), new SseFrameEncoder(objectMapper, metrics),
+            metrics, properties);
+        WorkloadGenerator generator = new WorkloadGenerator(eventService, eventBus, scheduler, properties);
+        try {
+            generator.start();
+            Thread.sleep(200);
+        } finally {
+            generator.stop();
+            scheduler.stopScheduler();
+        }
+        return generator.getPublished();
+    }
+}
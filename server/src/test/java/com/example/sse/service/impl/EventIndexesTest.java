@@ -0,0 +1,78 @@
+package com.example.sse.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.sse.model.Severity;
+import com.example.sse.model.SystemEvent;
+
+class EventIndexesTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    private final EventIndexes indexes = new EventIndexes();
+
+    private static SystemEvent event(UUID id, boolean active, long secondsAgo) {
+        return SystemEvent.builder()
+            .id(id)
+            .severity(Severity.INFO)
+            .active(active)
+            .updatedAt(NOW.minusSeconds(secondsAgo))
+            .build();
+    }
+
+    private List<EventIndexes.Expiry> drainBefore(Instant cutoff) {
+        List<EventIndexes.Expiry> drained = new ArrayList<>();
+        indexes.drainInactiveBefore(cutoff, drained::add);
+        return drained;
+    }
+
+    @Test
+    void drainsInactiveEventsOldestFirstWhateverOrderTheyArrivedIn() {
+        UUID recent = UUID.randomUUID();
+        UUID oldest = UUID.randomUUID();
+        UUID middle = UUID.randomUUID();
+        UUID fresh = UUID.randomUUID();
+        // As a journal restore or another node might hand them over
+        indexes.index(event(recent, false, 10));
+        indexes.index(event(oldest, false, 30));
+        indexes.index(event(fresh, false, 1));
+        indexes.index(event(middle, false, 20));
+
+        assertThat(drainBefore(NOW.minusSeconds(5)))
+            .extracting(EventIndexes.Expiry::getId)
+            .containsExactly(oldest, middle, recent);
+        assertThat(drainBefore(NOW)).extracting(EventIndexes.Expiry::getId).containsExactly(fresh);
+    }
+
+    @Test
+    void keepsOneEntryPerEventAtItsLatestUpdate() {
+        UUID id = UUID.randomUUID();
+        indexes.index(event(id, false, 30));
+        indexes.index(event(id, false, 20));
+        indexes.index(event(id, false, 10));
+
+        assertThat(drainBefore(NOW.minusSeconds(15))).isEmpty();
+        assertThat(drainBefore(NOW)).containsExactly(new EventIndexes.Expiry(id, NOW.minusSeconds(10)));
+    }
+
+    @Test
+    void forgetsTheExpiryOfAnEventThatIsActiveAgainOrRemoved() {
+        UUID reactivated = UUID.randomUUID();
+        UUID removed = UUID.randomUUID();
+        indexes.index(event(reactivated, false, 30));
+        indexes.index(event(removed, false, 20));
+
+        indexes.index(event(reactivated, true, 10));
+        indexes.unindex(removed);
+
+        assertThat(drainBefore(NOW)).isEmpty();
+        assertThat(indexes.activeCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.sse.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.Test;
+
+class RandomAccessIdSetTest {
+
+    private final RandomAccessIdSet set = new RandomAccessIdSet();
+
+    private static List<UUID> ids(int count) {
+        List<UUID> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(UUID.randomUUID());
+        }
+        return ids;
+    }
+
+    @Test
+    void addsAndRemovesEachIdOnce() {
+        UUID id = UUID.randomUUID();
+
+        assertThat(set.add(id)).isTrue();
+        assertThat(set.add(id)).isFalse();
+        assertThat(set.size()).isEqualTo(1);
+        assertThat(set.remove(id)).isTrue();
+        assertThat(set.remove(id)).isFalse();
+        assertThat(set.size()).isZero();
+    }
+
+    @Test
+    void keepsTheRemainingIdsAfterRemovingFromTheMiddle() {
+        List<UUID> ids = ids(100);
+        ids.forEach(set::add);
+        List<UUID> remaining = new ArrayList<>(ids);
+        for (int i = 0; i < ids.size(); i += 3) {
+            set.remove(ids.get(i));
+            remaining.remove(ids.get(i));
+        }
+
+        assertThat(set.toList()).containsExactlyInAnyOrderElementsOf(remaining);
+        assertThat(set.size()).isEqualTo(remaining.size());
+    }
+
+    @Test
+    void picksNothingFromAnEmptySet() {
+        assertThat(set.random(new Random(1))).isNull();
+    }
+
+    @Test
+    void picksEveryIdWithRoughlyEqualOdds() {
+        List<UUID> ids = ids(20);
+        ids.forEach(set::add);
+        Random random = new Random(42);
+
+        Map<UUID, Integer> picks = new HashMap<>();
+        for (int i = 0; i < 20_000; i++) {
+            picks.merge(set.random(random), 1, Integer::sum);
+        }
+
+        assertThat(picks).containsOnlyKeys(ids);
+        assertThat(picks.values()).allSatisfy(count -> assertThat(count).isBetween(800, 1200));
+    }
+
+    @Test
+    void staysConsistentUnderConcurrentWriters() throws Exception {
+        ExecutorService writers = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<UUID>>> kept = new ArrayList<>();
+            for (int w = 0; w < 4; w++) {
+                kept.add(writers.submit(() -> {
+                    List<UUID> mine = new ArrayList<>();
+                    for (UUID id : ids(2_000)) {
+                        set.add(id);
+                        set.random(ThreadLocalRandom.current());
+                        if (ThreadLocalRandom.current().nextBoolean()) {
+                            set.remove(id);
+                        } else {
+                            mine.add(id);
+                        }
+                    }
+                    return mine;
+                }));
+            }
+            List<UUID> expected = new ArrayList<>();
+            for (Future<List<UUID>> future : kept) {
+                expected.addAll(future.get());
+            }
+
+            assertThat(set.toList()).containsExactlyInAnyOrderElementsOf(expected);
+            assertThat(set.size()).isEqualTo(expected.size());
+        } finally {
+            writers.shutdownNow();
+        }
+    }
+}
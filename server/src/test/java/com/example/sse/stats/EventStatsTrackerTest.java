@@ -0,0 +1,177 @@
+package com.example.sse.stats;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.sse.model.EventStats;
+import com.example.sse.model.Severity;
+
+class EventStatsTrackerTest {
+
+    // On a whole minute, so seconds since the origin are easy to read
+    private static final long T0 = 1_700_000_040_000L;
+
+    private final EventStatsTracker tracker = new EventStatsTracker(10_000, 60, 10, T0);
+
+    private static long at(int second) {
+        return T0 + second * 1000L;
+    }
+
+    @Test
+    void sumsCountIncreasesOverTheWindow() {
+        UUID id = UUID.randomUUID();
+        tracker.record(id, 10, Severity.INFO, at(0));
+        tracker.record(id, 15, Severity.INFO, at(1));
+        tracker.record(id, 20, Severity.INFO, at(2));
+
+        EventStats stats = tracker.stats(id, 10, false, at(2));
+
+        assertThat(stats.getId()).isEqualTo(id);
+        assertThat(stats.getCount()).isEqualTo(10);
+        assertThat(stats.getWindowSeconds()).isEqualTo(10);
+        assertThat(stats.getRate()).isEqualTo(1.0);
+        assertThat(tracker.stats(id, 1, false, at(2)).getCount()).isEqualTo(5);
+    }
+
+    @Test
+    void takesACountThatWentDownAsANewBase() {
+        UUID id = UUID.randomUUID();
+        tracker.record(id, 100, Severity.INFO, at(0));
+        tracker.record(id, 5, Severity.INFO, at(1));
+        tracker.record(id, 8, Severity.INFO, at(2));
+
+        assertThat(tracker.stats(id, 10, false, at(2)).getCount()).isEqualTo(3);
+    }
+
+    @Test
+    void countsSeverityChangesAndThePeak() {
+        UUID id = UUID.randomUUID();
+        tracker.record(id, 0, Severity.INFO, at(0));
+        tracker.record(id, 0, Severity.CRITICAL, at(1));
+        tracker.record(id, 0, Severity.WARNING, at(2));
+
+        EventStats stats = tracker.stats(id, 60, false, at(3));
+
+        assertThat(stats.getSeverity()).isEqualTo(Severity.WARNING);
+        assertThat(stats.getSeverityChanges()).isEqualTo(2);
+        assertThat(stats.getPeakSeverity()).isEqualTo(Severity.CRITICAL);
+    }
+
+    @Test
+    void forgetsBucketsOlderThanTheRings() {
+        UUID id = UUID.randomUUID();
+        tracker.record(id, 0, Severity.INFO, at(0));
+        tracker.record(id, 50, Severity.INFO, at(1));
+
+        assertThat(tracker.stats(id, 60, false, at(61)).getCount()).isZero();
+        assertThat(tracker.stats(id, 600, false, at(61)).getCount()).isEqualTo(50);
+        assertThat(tracker.stats(id, 600, false, at(11 * 60)).getCount()).isZero();
+    }
+
+    @Test
+    void roundsLongWindowsToWholeMinutes() {
+        UUID id = UUID.randomUUID();
+        tracker.record(id, 0, Severity.INFO, at(0));
+        tracker.record(id, 30, Severity.INFO, at(70));
+
+        EventStats stats = tracker.stats(id, 90, true, at(75));
+
+        // Two minutes: the whole first one and the current one so far
+        assertThat(stats.getWindowSeconds()).isEqualTo(60 + 16);
+        assertThat(stats.getCount()).isEqualTo(30);
+        assertThat(stats.getPerSecond()).hasSize(60);
+        assertThat(stats.getPerSecond()[59 - 5]).isEqualTo(30);
+        assertThat(stats.getPerMinute()).hasSize(10);
+        assertThat(stats.getPerMinute()[9]).isEqualTo(30);
+    }
+
+    @Test
+    void countsEventsBeyondCapacityAsUntrackedUntilASlotIsReleased() {
+        EventStatsTracker small = new EventStatsTracker(2, 60, 10, T0);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        small.record(first, 1, Severity.INFO, at(0));
+        small.record(second, 1, Severity.INFO, at(0));
+        small.record(third, 1, Severity.INFO, at(0));
+
+        assertThat(small.size()).isEqualTo(2);
+        assertThat(small.getUntracked()).isEqualTo(1);
+        assertThat(small.stats(third, 10, false, at(0))).isNull();
+
+        small.release(first);
+        small.record(third, 1, Severity.INFO, at(1));
+        small.record(third, 4, Severity.INFO, at(2));
+
+        assertThat(small.stats(first, 10, false, at(2))).isNull();
+        // The reused slot starts from empty buckets
+        assertThat(small.stats(third, 10, false, at(2)).getCount()).isEqualTo(3);
+    }
+
+    @Test
+    void findsEveryEventAcrossPagesAndAfterReleases() {
+        // More than a page of events, and enough to grow the table several times
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 6_000; i++) {
+            UUID id = UUID.randomUUID();
+            ids.add(id);
+            tracker.record(id, 0, Severity.INFO, at(0));
+            tracker.record(id, i, Severity.INFO, at(1));
+        }
+        for (int i = 0; i < ids.size(); i += 3) {
+            tracker.release(ids.get(i));
+        }
+
+        assertThat(tracker.size()).isEqualTo(4_000);
+        for (int i = 0; i < ids.size(); i++) {
+            EventStats stats = tracker.stats(ids.get(i), 10, false, at(1));
+            if (i % 3 == 0) {
+                assertThat(stats).isNull();
+            } else {
+                assertThat(stats.getId()).isEqualTo(ids.get(i));
+                assertThat(stats.getCount()).isEqualTo(i);
+            }
+        }
+    }
+
+    @Test
+    void drainsTheChangedEventsOnceWithTheHighestCountsFirst() {
+        UUID quiet = UUID.randomUUID();
+        UUID busy = UUID.randomUUID();
+        UUID released = UUID.randomUUID();
+        for (UUID id : List.of(quiet, busy, released)) {
+            tracker.record(id, 0, Severity.INFO, at(0));
+        }
+        tracker.record(quiet, 1, Severity.INFO, at(1));
+        tracker.record(busy, 9, Severity.INFO, at(1));
+        tracker.release(released);
+
+        assertThat(tracker.drainChanged(10, 10, at(1))).extracting(EventStats::getId).containsExactly(busy, quiet);
+        assertThat(tracker.drainChanged(10, 10, at(1))).isEmpty();
+
+        tracker.record(quiet, 2, Severity.INFO, at(2));
+        tracker.record(busy, 20, Severity.INFO, at(2));
+        assertThat(tracker.drainChanged(10, 1, at(2))).extracting(EventStats::getId).containsExactly(busy);
+    }
+
+    @Test
+    void tracksTheNilUuidLikeAnyOtherId() {
+        UUID nil = new UUID(0, 0);
+        tracker.record(nil, 0, Severity.INFO, at(0));
+        tracker.record(nil, 4, Severity.INFO, at(1));
+
+        assertThat(tracker.size()).isEqualTo(1);
+        assertThat(tracker.stats(nil, 10, false, at(1)).getCount()).isEqualTo(4);
+        assertThat(tracker.drainChanged(10, 10, at(1))).extracting(EventStats::getId).containsExactly(nil);
+
+        tracker.record(nil, 5, Severity.INFO, at(2));
+        tracker.release(nil);
+        assertThat(tracker.stats(nil, 10, false, at(2))).isNull();
+        assertThat(tracker.drainChanged(10, 10, at(2))).isEmpty();
+    }
+}
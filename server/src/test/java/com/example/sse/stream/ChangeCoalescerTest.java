@@ -0,0 +1,147 @@
+package com.example.sse.stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.sse.model.Severity;
+import com.example.sse.model.SystemEvent;
+import com.example.sse.model.sse.Operation;
+import com.example.sse.model.sse.SseEvent;
+import com.example.sse.model.sse.SystemEventDelta;
+
+class ChangeCoalescerTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T00:00:00Z");
+
+    private final ChangeCoalescer coalescer = new ChangeCoalescer();
+    private long sequence = 100;
+
+    private static SystemEvent event(UUID id) {
+        return SystemEvent.builder()
+            .id(id)
+            .name("CPU Load")
+            .severity(Severity.INFO)
+            .createdAt(NOW)
+            .updatedAt(NOW)
+            .active(true)
+            .count(1)
+            .version(1)
+            .build();
+    }
+
+    private SseEvent change(Operation operation, SystemEvent event) {
+        return SseEvent.builder().operation(operation).event(event).sequence(++sequence).build();
+    }
+
+    private SseEvent update(SystemEvent before, SystemEvent after) {
+        return SseEvent.builder()
+            .operation(Operation.UPDATE)
+            .event(after)
+            .delta(SystemEventDelta.between(before, after))
+            .sequence(++sequence)
+            .build();
+    }
+
+    @Test
+    void keepsOneChangePerEventInFirstChangeOrder() {
+        SystemEvent first = event(UUID.randomUUID());
+        SystemEvent second = event(UUID.randomUUID());
+        SystemEvent firstV2 = first.next(NOW).count(2).build();
+
+        coalescer.add(update(first, firstV2));
+        coalescer.add(change(Operation.UPDATE, second));
+        int pending = coalescer.add(update(firstV2, firstV2.next(NOW).count(3).build()));
+
+        assertThat(pending).isEqualTo(2);
+        assertThat(coalescer.getReceived()).isEqualTo(3);
+        assertThat(coalescer.getLastSequence()).isEqualTo(103);
+        List<SseEvent> batch = coalescer.drain();
+        assertThat(batch).extracting(change -> change.getEvent().getId()).containsExactly(first.getId(), second.getId());
+        assertThat(batch.get(0).getEvent().getCount()).isEqualTo(3);
+    }
+
+    @Test
+    void mergesTheDeltasOfSuccessiveUpdates() {
+        SystemEvent v1 = event(UUID.randomUUID());
+        SystemEvent v2 = v1.next(NOW).count(5).build();
+        SystemEvent v3 = v2.next(NOW).severity(Severity.CRITICAL).build();
+
+        coalescer.add(update(v1, v2));
+        coalescer.add(update(v2, v3));
+
+        SystemEventDelta delta = coalescer.drain().get(0).getDelta();
+        assertThat(delta.getBaseVersion()).isEqualTo(1);
+        assertThat(delta.getVersion()).isEqualTo(3);
+        assertThat(delta.getCount()).isEqualTo(5);
+        assertThat(delta.getSeverity()).isEqualTo(Severity.CRITICAL);
+    }
+
+    @Test
+    void keepsAnUpdatedCreateACreateWithoutADelta() {
+        SystemEvent v1 = event(UUID.randomUUID());
+        SystemEvent v2 = v1.next(NOW).count(7).build();
+
+        coalescer.add(change(Operation.CREATE, v1));
+        coalescer.add(update(v1, v2));
+
+        SseEvent change = coalescer.drain().get(0);
+        assertThat(change.getOperation()).isEqualTo(Operation.CREATE);
+        assertThat(change.getEvent()).isEqualTo(v2);
+        assertThat(change.getDelta()).isNull();
+    }
+
+    @Test
+    void dropsAnEventCreatedAndDeletedInOneWindow() {
+        SystemEvent v1 = event(UUID.randomUUID());
+
+        coalescer.add(change(Operation.CREATE, v1));
+        int pending = coalescer.add(change(Operation.DELETE, v1.next(NOW).active(false).build()));
+
+        assertThat(pending).isZero();
+        assertThat(coalescer.isEmpty()).isTrue();
+        assertThat(coalescer.getLastSequence()).isEqualTo(102);
+    }
+
+    @Test
+    void turnsAnUpdateThenDeleteIntoTheDelete() {
+        SystemEvent v1 = event(UUID.randomUUID());
+        SystemEvent v2 = v1.next(NOW).count(2).build();
+        SystemEvent v3 = v2.next(NOW).active(false).build();
+
+        coalescer.add(update(v1, v2));
+        coalescer.add(change(Operation.DELETE, v3));
+
+        SseEvent change = coalescer.drain().get(0);
+        assertThat(change.getOperation()).isEqualTo(Operation.DELETE);
+        assertThat(change.getEvent()).isEqualTo(v3);
+    }
+
+    @Test
+    void keepsReportingADeleteUpdatedAfterwards() {
+        SystemEvent v1 = event(UUID.randomUUID()).toBuilder().active(false).build();
+        SystemEvent v2 = v1.next(NOW).count(9).build();
+
+        coalescer.add(change(Operation.DELETE, v1));
+        coalescer.add(update(v1, v2));
+
+        SseEvent change = coalescer.drain().get(0);
+        assertThat(change.getOperation()).isEqualTo(Operation.DELETE);
+        assertThat(change.getEvent()).isEqualTo(v2);
+        assertThat(change.getDelta()).isNull();
+    }
+
+    @Test
+    void startsANewWindowOnDrain() {
+        coalescer.add(change(Operation.CREATE, event(UUID.randomUUID())));
+        coalescer.drain();
+
+        assertThat(coalescer.isEmpty()).isTrue();
+        assertThat(coalescer.getReceived()).isZero();
+        assertThat(coalescer.drain()).isEmpty();
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.sse.stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.sse.model.Severity;
+import com.example.sse.model.SystemEvent;
+import com.example.sse.model.sse.Operation;
+import com.example.sse.model.sse.SseEvent;
+import com.example.sse.model.sse.SystemEventDelta;
+
+class EventFilterTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T00:00:00Z");
+
+    private static SystemEvent event(String name, Severity severity, boolean active) {
+        return SystemEvent.builder()
+            .id(UUID.randomUUID())
+            .name(name)
+            .severity(severity)
+            .createdAt(NOW)
+            .updatedAt(NOW)
+            .active(active)
+            .version(1)
+            .build();
+    }
+
+    private static SseEvent change(Operation operation, SystemEvent event) {
+        return SseEvent.builder().operation(operation).event(event).build();
+    }
+
+    private static SseEvent update(SystemEvent before, SystemEvent after) {
+        return SseEvent.builder()
+            .operation(Operation.UPDATE)
+            .event(after)
+            .delta(SystemEventDelta.between(before, after))
+            .build();
+    }
+
+    @Test
+    void normalizesFiltersThatSelectEverythingToNone() {
+        assertThat(EventFilter.of(null, null, false)).isSameAs(EventFilter.NONE);
+        assertThat(EventFilter.of(Set.of(), "  ", false)).isSameAs(EventFilter.NONE);
+        assertThat(EventFilter.of(EnumSet.allOf(Severity.class), null, false).isEmpty()).isTrue();
+    }
+
+    @Test
+    void equalRequestsShareAFilter() {
+        EventFilter first = EventFilter.of(List.of(Severity.CRITICAL, Severity.WARNING), " CPU ", true);
+        EventFilter second = EventFilter.of(Set.of(Severity.WARNING, Severity.CRITICAL), "CPU", true);
+
+        assertThat(first).isEqualTo(second).hasSameHashCodeAs(second);
+    }
+
+    @Test
+    void matchesSeverityNamePrefixAndActiveStatus() {
+        EventFilter filter = EventFilter.of(Set.of(Severity.CRITICAL), "cpu", true);
+
+        assertThat(filter.matches(event("CPU Load", Severity.CRITICAL, true))).isTrue();
+        assertThat(filter.matches(event("CPU Load", Severity.INFO, true))).isFalse();
+        assertThat(filter.matches(event("Memory Usage", Severity.CRITICAL, true))).isFalse();
+        assertThat(filter.matches(event("CPU Load", Severity.CRITICAL, false))).isFalse();
+    }
+
+    @Test
+    void letsDeletesOfMatchingEventsThroughWhenActiveOnly() {
+        EventFilter filter = EventFilter.of(null, null, true);
+        SystemEvent inactive = event("CPU Load", Severity.INFO, false);
+
+        assertThat(filter.matches(change(Operation.DELETE, inactive))).isTrue();
+        assertThat(filter.matches(change(Operation.UPDATE, inactive))).isFalse();
+    }
+
+    @Test
+    void sendsChangesThatMoveAnEventOutOfTheSeveritySet() {
+        EventFilter filter = EventFilter.of(Set.of(Severity.CRITICAL), null, false);
+        SystemEvent critical = event("CPU Load", Severity.CRITICAL, true);
+        SystemEvent downgraded = critical.next(NOW).severity(Severity.INFO).build();
+        SystemEvent counted = downgraded.next(NOW).count(5).build();
+
+        SseEvent moved = update(critical, downgraded);
+        assertThat(filter.matches(moved)).isTrue();
+        assertThat(filter.canMove(moved)).isTrue();
+        // Once outside the set, changes that leave the severity alone are filtered out
+        assertThat(filter.matches(update(downgraded, counted))).isFalse();
+        assertThat(filter.canMove(update(downgraded, counted))).isFalse();
+    }
+
+    @Test
+    void onlyASeveritySetCanMoveEvents() {
+        SystemEvent critical = event("CPU Load", Severity.CRITICAL, true);
+        SseEvent downgraded = update(critical, critical.next(NOW).severity(Severity.INFO).build());
+
+        assertThat(EventFilter.of(null, "CPU", false).canMove(downgraded)).isFalse();
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.sse.stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.sse.model.SystemEvent;
+import com.example.sse.model.sse.Operation;
+import com.example.sse.model.sse.SseEvent;
+
+class EventReplayBufferTest {
+
+    private static SseFrame frame(long id) {
+        byte[] data = ("{\"sequence\":" + id + "}").getBytes(StandardCharsets.UTF_8);
+        return new SseFrame("event-change", id, null, null, data, data);
+    }
+
+    private static SseEvent change(long sequence) {
+        SystemEvent event = SystemEvent.builder().id(UUID.randomUUID()).name("Event " + sequence).version(1).build();
+        return SseEvent.builder().operation(Operation.CREATE).event(event).sequence(sequence).build();
+    }
+
+    private static void append(EventReplayBuffer buffer, long sequence) {
+        buffer.append(change(sequence), frame(sequence));
+    }
+
+    private static List<Long> ids(List<SseFrame> frames) {
+        return frames.stream().map(SseFrame::getId).toList();
+    }
+
+    @Test
+    void replaysTheFramesAfterTheSequence() {
+        EventReplayBuffer buffer = new EventReplayBuffer(8, Duration.ofMinutes(1), 100);
+        for (long id = 101; id <= 105; id++) {
+            append(buffer, id);
+        }
+
+        assertThat(ids(buffer.since(102))).containsExactly(103L, 104L, 105L);
+        assertThat(buffer.since(105)).isEmpty();
+        assertThat(ids(buffer.since(100))).containsExactly(101L, 102L, 103L, 104L, 105L);
+    }
+
+    @Test
+    void keepsTheNewestFramesOnceItWrapsAround() {
+        EventReplayBuffer buffer = new EventReplayBuffer(4, Duration.ofMinutes(1), 0);
+        for (long id = 1; id <= 10; id++) {
+            append(buffer, id);
+        }
+
+        assertThat(buffer.size()).isEqualTo(4);
+        assertThat(ids(buffer.since(6))).containsExactly(7L, 8L, 9L, 10L);
+        assertThat(ids(buffer.since(8))).containsExactly(9L, 10L);
+    }
+
+    @Test
+    void needsASnapshotForASequenceOlderThanTheBuffer() {
+        EventReplayBuffer buffer = new EventReplayBuffer(4, Duration.ofMinutes(1), 0);
+        for (long id = 1; id <= 10; id++) {
+            append(buffer, id);
+        }
+
+        assertThat(buffer.since(5)).isNull();
+        assertThat(buffer.since(0)).isNull();
+    }
+
+    @Test
+    void needsASnapshotForASequenceItNeverIssued() {
+        EventReplayBuffer buffer = new EventReplayBuffer(4, Duration.ofMinutes(1), 0);
+        append(buffer, 1);
+
+        assertThat(buffer.since(2)).isNull();
+    }
+
+    @Test
+    void startsOverAfterAGap() {
+        EventReplayBuffer buffer = new EventReplayBuffer(8, Duration.ofMinutes(1), 0);
+        append(buffer, 1);
+        append(buffer, 2);
+        append(buffer, 5);
+
+        assertThat(buffer.since(1)).isNull();
+        assertThat(ids(buffer.since(4))).containsExactly(5L);
+    }
+
+    @Test
+    void replaysTheChangesOfEveryFrame() {
+        EventReplayBuffer buffer = new EventReplayBuffer(8, Duration.ofMinutes(1), 0);
+        for (long id = 1; id <= 5; id++) {
+            append(buffer, id);
+        }
+
+        assertThat(buffer.changesSince(1)).extracting(SseEvent::getSequence).containsExactly(2L, 3L, 4L, 5L);
+        assertThat(buffer.changesSince(5)).isEmpty();
+        assertThat(buffer.changesSince(6)).isNull();
+    }
+
+    @Test
+    void evictsExpiredFrames() throws InterruptedException {
+        EventReplayBuffer buffer = new EventReplayBuffer(8, Duration.ofMillis(20), 0);
+        append(buffer, 1);
+        Thread.sleep(50);
+        append(buffer, 2);
+
+        assertThat(buffer.size()).isEqualTo(1);
+        assertThat(buffer.since(0)).isNull();
+        assertThat(ids(buffer.since(1))).containsExactly(2L);
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.sse.stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class ShardedFanOutTest {
+
+    private final ShardedFanOut fanOut = new ShardedFanOut(4);
+
+    @AfterEach
+    void shutDown() {
+        fanOut.shutdown();
+    }
+
+    @Test
+    void runsEveryShardOnce() {
+        AtomicIntegerArray runs = new AtomicIntegerArray(4);
+
+        fanOut.run(runs::incrementAndGet);
+
+        for (int shard = 0; shard < 4; shard++) {
+            assertThat(runs.get(shard)).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void runsShardsInParallelOnTheCallerAndThePool() {
+        // Every shard waits for all the others, so this only finishes if they run at the same time
+        CountDownLatch started = new CountDownLatch(4);
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+        fanOut.run(shard -> {
+            threads.add(Thread.currentThread());
+            started.countDown();
+            try {
+                assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        assertThat(threads).hasSize(4).contains(Thread.currentThread());
+    }
+
+    @Test
+    void returnsOnlyOnceEveryShardIsDone() {
+        AtomicIntegerArray done = new AtomicIntegerArray(4);
+
+        fanOut.run(shard -> {
+            if (shard != 0) {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            done.set(shard, 1);
+        });
+
+        for (int shard = 0; shard < 4; shard++) {
+            assertThat(done.get(shard)).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void keepsGoingWhenAShardFails() {
+        AtomicIntegerArray runs = new AtomicIntegerArray(4);
+
+        fanOut.run(shard -> {
+            runs.incrementAndGet(shard);
+            if (shard == 2) {
+                throw new IllegalStateException("shard 2 failed");
+            }
+        });
+        fanOut.run(runs::incrementAndGet);
+
+        for (int shard = 0; shard < 4; shard++) {
+            assertThat(runs.get(shard)).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void runsShardsOnTheCallerAfterShutdown() {
+        fanOut.shutdown();
+        AtomicIntegerArray runs = new AtomicIntegerArray(4);
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+        fanOut.run(shard -> {
+            runs.incrementAndGet(shard);
+            threads.add(Thread.currentThread());
+        });
+
+        for (int shard = 0; shard < 4; shard++) {
+            assertThat(runs.get(shard)).isEqualTo(1);
+        }
+        assertThat(threads).containsExactly(Thread.currentThread());
+    }
+
+    @Test
+    void runsASingleShardOnTheCaller() {
+        ShardedFanOut single = new ShardedFanOut(1);
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+        single.run(shard -> threads.add(Thread.currentThread()));
+        single.shutdown();
+
+        assertThat(threads).containsExactly(Thread.currentThread());
+    }
+}
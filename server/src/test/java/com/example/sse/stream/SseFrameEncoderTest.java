@@ -0,0 +1,110 @@
+package com.example.sse.stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.sse.config.JacksonConfig;
+import com.example.sse.metrics.SseMetrics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SseFrameEncoderTest {
+
+    private final ObjectMapper objectMapper = new JacksonConfig().objectMapper();
+    private final SseFrameEncoder encoder = new SseFrameEncoder(objectMapper, new SseMetrics(new SimpleMeterRegistry()));
+
+    private static byte[] utf8(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String wire(SseFrame frame) {
+        return new String((byte[]) frame.getPayload().iterator().next().getData(), StandardCharsets.UTF_8);
+    }
+
+    // What Spring's own builder writes for the same event, which is what clients were getting before
+    private static String spring(SseEmitter.SseEventBuilder event) {
+        StringBuilder wire = new StringBuilder();
+        for (DataWithMediaType part : event.build()) {
+            wire.append(part.getData());
+        }
+        return wire.toString();
+    }
+
+    @Test
+    void writesTheIdEventAndDataLinesLikeSpring() {
+        String json = "{\"name\":\"CPU Load\",\"note\":\"café\"}";
+
+        SseFrame frame = encoder.encodeJson("event-change", 42L, utf8(json), null);
+
+        assertThat(wire(frame)).isEqualTo(spring(SseEmitter.event().id("42").name("event-change").data(json)));
+        assertThat(frame.size()).isEqualTo(utf8(wire(frame)).length);
+    }
+
+    @Test
+    void leavesOutTheIdLineForFramesWithoutOne() {
+        SseFrame frame = encoder.encodeJson("initial-chunk", null, utf8("[]"), null);
+
+        assertThat(wire(frame)).isEqualTo(spring(SseEmitter.event().name("initial-chunk").data("[]")));
+        assertThat(frame.getSequence()).isZero();
+    }
+
+    @Test
+    void splitsMultiLineDataOverDataLinesLikeSpring() {
+        String data = "{\n  \"a\": 1,\n\n  \"b\": 2\n}\n";
+
+        SseFrame frame = encoder.encodeJson("event-change", 7L, utf8(data), null);
+
+        assertThat(wire(frame)).isEqualTo(spring(SseEmitter.event().id("7").name("event-change").data(data)));
+        assertThat(wire(frame)).isEqualTo(
+            "id:7\nevent:event-change\ndata:{\ndata:  \"a\": 1,\ndata:\ndata:  \"b\": 2\ndata:}\ndata:\n\n");
+    }
+
+    @Test
+    void treatsCarriageReturnsAsLineBreaksToo() {
+        // A client ends a line at CR, LF or CRLF, so each must start a new data line
+        SseFrame frame = encoder.encodeJson("event-change", null, utf8("a\rb\r\nc\nd"), null);
+
+        assertThat(wire(frame)).isEqualTo(spring(SseEmitter.event().name("event-change").data("a\nb\nc\nd")));
+        assertThat(wire(frame)).doesNotContain("\r");
+    }
+
+    @Test
+    void writesTheRetryFieldLikeSpring() throws Exception {
+        Map<String, Long> payload = Map.of("retry", 1500L);
+
+        SseFrame frame = encoder.encodeWithRetry(WireFormat.JSON, "reconnect", 9L, payload, 1500);
+
+        assertThat(wire(frame)).isEqualTo(spring(SseEmitter.event()
+            .reconnectTime(1500).id("9").name("reconnect").data(objectMapper.writeValueAsString(payload))));
+        assertThat(frame.getRetry()).isEqualTo(1500);
+    }
+
+    @Test
+    void serializesPayloadsWithTheSharedMapper() throws Exception {
+        UUID key = UUID.randomUUID();
+        Map<String, Object> payload = Map.of("id", key.toString(), "count", 3);
+
+        SseFrame frame = encoder.encode("event-change", 11L, payload, key);
+
+        assertThat(wire(frame)).isEqualTo(spring(SseEmitter.event()
+            .id("11").name("event-change").data(objectMapper.writeValueAsString(payload))));
+        assertThat(frame.getKey()).isEqualTo(key);
+        assertThat(frame.getId()).isEqualTo(11L);
+    }
+
+    @Test
+    void writesCommentsLikeSpring() {
+        SseFrame frame = encoder.encodeComment("heartbeat");
+
+        assertThat(wire(frame)).isEqualTo(spring(SseEmitter.event().comment("heartbeat")));
+        assertThat(frame.getId()).isNull();
+    }
+}
@@ -0,0 +1,258 @@
+package com.example.sse.stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.sse.metrics.SseMetrics;
+import com.example.sse.model.ConnectionStats;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SseSubscriberTest {
+
+    private final SseMetrics metrics = new SseMetrics(new SimpleMeterRegistry());
+    private final SseFrameEncoder encoder = new SseFrameEncoder(new ObjectMapper(), metrics);
+    // What happened in order: frames encoded ("encode ...") and written ("send ...")
+    private final List<String> log = Collections.synchronizedList(new ArrayList<>());
+    private final CapturingExecutor writer = new CapturingExecutor();
+    private final CapturingEmitter emitter = new CapturingEmitter();
+
+    private SseSubscriber subscriber(OverflowPolicy policy, int capacity) {
+        return new SseSubscriber("test", emitter, policy, StreamOptions.builder().build(), capacity, 100,
+            writer, metrics, (failed, e) -> log.add("failed " + e.getMessage()));
+    }
+
+    private SseFrame frame(String name) {
+        return frame(name, null);
+    }
+
+    private SseFrame frame(String name, UUID key) {
+        return encoder.encodeJson(name, null, "{}".getBytes(StandardCharsets.UTF_8), key);
+    }
+
+    // Started with no initial frames, so offered frames are written as soon as the writer runs
+    private SseSubscriber started(OverflowPolicy policy, int capacity) {
+        SseSubscriber subscriber = subscriber(policy, capacity);
+        subscriber.start(List.of());
+        return subscriber;
+    }
+
+    @Test
+    void writesTheInitialFramesOnTheWriterOneAtATime() {
+        SseSubscriber subscriber = subscriber(OverflowPolicy.DROP_OLDEST, 10);
+        // Encoded when first read, like the chunks of a ChunkedSnapshot
+        List<SseFrame> chunks = new AbstractList<>() {
+            @Override
+            public SseFrame get(int index) {
+                log.add("encode chunk-" + index);
+                return frame("chunk-" + index);
+            }
+
+            @Override
+            public int size() {
+                return 3;
+            }
+        };
+
+        subscriber.start(chunks);
+        subscriber.offer(frame("live"));
+
+        // Nothing is encoded or written on the calling thread
+        assertThat(log).isEmpty();
+        writer.runAll();
+        assertThat(log).containsExactly(
+            "encode chunk-0", "send chunk-0",
+            "encode chunk-1", "send chunk-1",
+            "encode chunk-2", "send chunk-2",
+            "send live");
+    }
+
+    @Test
+    void queuesBroadcastsBehindTheInitialFramesUntilStarted() {
+        SseSubscriber subscriber = subscriber(OverflowPolicy.DROP_OLDEST, 10);
+
+        subscriber.offer(frame("live"));
+        assertThat(writer.pending()).isZero();
+
+        subscriber.start(List.of(frame("initial")));
+        writer.runAll();
+
+        assertThat(emitter.sent).containsExactly("initial", "live");
+    }
+
+    @Test
+    void reportsTheOverflowOnlyToTheOfferThatCausedIt() {
+        SseSubscriber subscriber = subscriber(OverflowPolicy.DISCONNECT, 1);
+        subscriber.start(List.of());
+
+        assertThat(subscriber.offer(frame("first"))).isEqualTo(SseSubscriber.Offer.QUEUED);
+        assertThat(subscriber.offer(frame("second"))).isEqualTo(SseSubscriber.Offer.OVERFLOWED);
+        assertThat(subscriber.offer(frame("third"))).isEqualTo(SseSubscriber.Offer.CLOSED);
+    }
+
+    @Test
+    void reportsAnOfferAfterAFailedWriteAsClosed() {
+        emitter.failing = true;
+        SseSubscriber subscriber = subscriber(OverflowPolicy.DISCONNECT, 1);
+        subscriber.start(List.of(frame("initial")));
+        writer.runAll();
+
+        assertThat(log).containsExactly("failed client gone");
+        assertThat(subscriber.offer(frame("live"))).isEqualTo(SseSubscriber.Offer.CLOSED);
+    }
+
+    @Test
+    void dropOldestEvictsTheHeadOfAFullQueue() {
+        SseSubscriber subscriber = started(OverflowPolicy.DROP_OLDEST, 2);
+
+        subscriber.offer(frame("a"));
+        subscriber.offer(frame("b"));
+        assertThat(subscriber.offer(frame("c"))).isEqualTo(SseSubscriber.Offer.QUEUED);
+
+        ConnectionStats stats = subscriber.getStats();
+        assertThat(stats.getQueueDepth()).isEqualTo(2);
+        assertThat(stats.getDropped()).isEqualTo(1);
+        writer.runAll();
+        assertThat(emitter.sent).containsExactly("b", "c");
+    }
+
+    @Test
+    void coalesceReplacesTheQueuedFrameForTheSameEvent() {
+        SseSubscriber subscriber = started(OverflowPolicy.COALESCE, 3);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+
+        subscriber.offer(frame("a", first));
+        subscriber.offer(frame("b", second));
+        subscriber.offer(frame("c", UUID.randomUUID()));
+        subscriber.offer(frame("b2", second));
+
+        ConnectionStats stats = subscriber.getStats();
+        assertThat(stats.getQueueDepth()).isEqualTo(3);
+        assertThat(stats.getCoalesced()).isEqualTo(1);
+        assertThat(stats.getDropped()).isZero();
+        writer.runAll();
+        // The newer frame goes behind the others, so frame ids still only go up for a resuming client
+        assertThat(emitter.sent).containsExactly("a", "c", "b2");
+    }
+
+    @Test
+    void coalesceFallsBackToDroppingTheOldest() {
+        SseSubscriber subscriber = started(OverflowPolicy.COALESCE, 2);
+
+        subscriber.offer(frame("a", UUID.randomUUID()));
+        subscriber.offer(frame("b", UUID.randomUUID()));
+        subscriber.offer(frame("c", UUID.randomUUID()));
+        // Frames without a key never merge
+        subscriber.offer(frame("d"));
+
+        ConnectionStats stats = subscriber.getStats();
+        assertThat(stats.getCoalesced()).isZero();
+        assertThat(stats.getDropped()).isEqualTo(2);
+        writer.runAll();
+        assertThat(emitter.sent).containsExactly("c", "d");
+    }
+
+    @Test
+    void disconnectClosesTheSubscriberAndCompletesTheEmitterOnTheWriter() {
+        SseSubscriber subscriber = started(OverflowPolicy.DISCONNECT, 1);
+
+        subscriber.offer(frame("a"));
+        assertThat(subscriber.offer(frame("b"))).isEqualTo(SseSubscriber.Offer.OVERFLOWED);
+
+        assertThat(subscriber.isClosed()).isTrue();
+        assertThat(subscriber.getStats().getQueueDepth()).isZero();
+        assertThat(subscriber.getStats().getDropped()).isEqualTo(1);
+        // Not on the broadcasting thread, where it could wait on a blocked write
+        assertThat(emitter.completed).isFalse();
+        writer.runAll();
+        assertThat(emitter.completed).isTrue();
+        assertThat(emitter.sent).isEmpty();
+    }
+
+    @Test
+    void neverQueuesAHeartbeatBehindRealFrames() {
+        SseSubscriber subscriber = started(OverflowPolicy.DROP_OLDEST, 1);
+        SseFrame heartbeat = encoder.encodeComment("heartbeat");
+
+        subscriber.offer(frame("a"));
+        subscriber.heartbeat(heartbeat);
+        assertThat(subscriber.getStats().getDropped()).isZero();
+        writer.runAll();
+        assertThat(emitter.sent).containsExactly("a");
+
+        subscriber.heartbeat(heartbeat);
+        writer.runAll();
+        assertThat(emitter.sent).containsExactly("a", ":heartbeat");
+    }
+
+    // Runs tasks only when asked, so a test sees what is done on the calling thread
+    static class CapturingExecutor implements Executor {
+
+        private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+        @Override
+        public synchronized void execute(Runnable task) {
+            tasks.add(task);
+        }
+
+        synchronized int pending() {
+            return tasks.size();
+        }
+
+        void runAll() {
+            Runnable task;
+            while ((task = poll()) != null) {
+                task.run();
+            }
+        }
+
+        private synchronized Runnable poll() {
+            return tasks.poll();
+        }
+    }
+
+    // Records the event name of every frame sent, and whether the response was completed
+    class CapturingEmitter extends SseEmitter {
+
+        final List<String> sent = Collections.synchronizedList(new ArrayList<>());
+        volatile boolean completed;
+        volatile boolean failing;
+
+        @Override
+        public synchronized void send(Set<DataWithMediaType> items) throws IOException {
+            if (failing) {
+                throw new IOException("client gone");
+            }
+            for (DataWithMediaType item : items) {
+                String frame = new String((byte[]) item.getData(), StandardCharsets.UTF_8);
+                int event = frame.indexOf("event:");
+                // Comments have no event name; record the comment line itself
+                String name = event < 0 ? frame.strip() : frame.substring(event + 6, frame.indexOf('\n', event));
+                sent.add(name);
+                log.add("send " + name);
+            }
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed = true;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.sse.stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class TimerWheelTest {
+
+    private static final long TICK = Duration.ofMillis(10).toNanos();
+
+    private final TimerWheel<String> wheel = new TimerWheel<>(Duration.ofMillis(10), Duration.ofMillis(100));
+
+    // Items handed back by each of the next ticks, in order
+    private List<List<String>> advance(int ticks) {
+        List<List<String>> due = new ArrayList<>();
+        for (int i = 0; i < ticks; i++) {
+            due.add(wheel.advance());
+        }
+        return due;
+    }
+
+    @Test
+    void handsItemsBackAtTheTickTheirDelayFallsIn() {
+        wheel.schedule("a", TICK);
+        wheel.schedule("b", 3 * TICK);
+        wheel.schedule("c", 3 * TICK);
+
+        assertThat(advance(4)).containsExactly(List.of("a"), List.of(), List.of("b", "c"), List.of());
+    }
+
+    @Test
+    void roundsDelaysUpToWholeTicks() {
+        wheel.schedule("a", TICK + 1);
+        wheel.schedule("b", 0);
+
+        assertThat(advance(2)).containsExactly(List.of("b"), List.of("a"));
+    }
+
+    @Test
+    void capsDelaysAtTheHorizon() {
+        wheel.schedule("a", Duration.ofHours(1).toNanos());
+
+        List<List<String>> due = advance(11);
+        assertThat(due.subList(0, 9)).allMatch(List::isEmpty);
+        assertThat(due.get(9)).containsExactly("a");
+        assertThat(due.get(10)).isEmpty();
+    }
+
+    @Test
+    void measuresDelaysFromTheCurrentTickAfterWrappingAround() {
+        advance(25);
+        wheel.schedule("a", 2 * TICK);
+
+        assertThat(advance(3)).containsExactly(List.of(), List.of("a"), List.of());
+    }
+
+    @Test
+    void handsEachItemBackOnce() {
+        wheel.schedule("a", TICK);
+
+        assertThat(wheel.advance()).containsExactly("a");
+        assertThat(advance(20)).allMatch(List::isEmpty);
+    }
+}